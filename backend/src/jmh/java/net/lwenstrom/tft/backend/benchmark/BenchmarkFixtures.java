@@ -0,0 +1,44 @@
+package net.lwenstrom.tft.backend.benchmark;
+
+import java.util.List;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.GameModeRegistry;
+import net.lwenstrom.tft.backend.core.engine.Grid;
+import net.lwenstrom.tft.backend.core.engine.Player;
+import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
+import net.lwenstrom.tft.backend.core.random.DefaultRandomProvider;
+import net.lwenstrom.tft.backend.game.onepiece.OnePieceGameModeProvider;
+
+// Shared setup for the JMH suite: the real One Piece catalog and deterministic boards built from it
+public final class BenchmarkFixtures {
+
+    public static final long SEED = 42L;
+
+    private BenchmarkFixtures() {}
+
+    public static GameModeRegistry registry() {
+        return new GameModeRegistry(List.of(new OnePieceGameModeProvider()), "onepiece");
+    }
+
+    public static DataLoader dataLoader() {
+        var dataLoader = new DataLoader(registry(), "");
+        dataLoader.loadData();
+        return dataLoader;
+    }
+
+    public static List<UnitDefinition> catalog() {
+        return dataLoader().getAllUnits();
+    }
+
+    // Fills the board front row first, cycling through the catalog
+    public static Player player(String id, List<UnitDefinition> catalog, int unitCount) {
+        var player = new Player(id, id, null, new DefaultRandomProvider(SEED));
+        player.setLevel(unitCount);
+        for (var i = 0; i < unitCount; i++) {
+            var x = i % Grid.COLS;
+            var y = Grid.PLAYER_ROWS - 1 - i / Grid.COLS;
+            player.addUnitToBoard(catalog.get(i % catalog.size()), x, y);
+        }
+        return player;
+    }
+}
@@ -0,0 +1,70 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.lwenstrom.tft.backend.benchmark.BenchmarkFixtures;
+import net.lwenstrom.tft.backend.core.engine.Grid;
+import net.lwenstrom.tft.backend.core.engine.StandardGameUnit;
+import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Path search from one corner of the combat grid to the other. "crowded" walls off most of the middle rows
+// with a single gap, so the BFS has to explore nearly every free cell.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BfsUnitMoverBenchmark {
+
+    @Param({"open", "crowded"})
+    public String layout;
+
+    private BfsUnitMover mover;
+    private GameUnit start;
+    private GameUnit target;
+    private List<GameUnit> allUnits;
+
+    @Setup
+    public void setUp() {
+        var catalog = BenchmarkFixtures.catalog();
+        mover = new BfsUnitMover(new SimulatedClock());
+        allUnits = new ArrayList<>();
+
+        start = unit(catalog.getFirst(), "a", 0, 0);
+        target = unit(catalog.getFirst(), "b", Grid.COLS - 1, Grid.COMBAT_ROWS - 1);
+        if (layout.equals("crowded")) {
+            for (var x = 0; x < Grid.COLS - 1; x++) {
+                unit(catalog.get(x % catalog.size()), "a", x, Grid.PLAYER_ROWS - 1);
+                unit(catalog.get(x % catalog.size()), "b", Grid.COLS - 1 - x, Grid.PLAYER_ROWS);
+            }
+        }
+    }
+
+    private GameUnit unit(UnitDefinition def, String owner, int x, int y) {
+        var unit = new StandardGameUnit(def);
+        unit.setOwnerId(owner);
+        unit.setPosition(x, y);
+        allUnits.add(unit);
+        return unit;
+    }
+
+    @Benchmark
+    public Object findNextStep() {
+        return mover.findNextStep(start, target, allUnits);
+    }
+}
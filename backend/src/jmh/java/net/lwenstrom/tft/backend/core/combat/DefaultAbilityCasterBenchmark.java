@@ -0,0 +1,80 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.lwenstrom.tft.backend.core.engine.StandardGameUnit;
+import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
+import net.lwenstrom.tft.backend.core.model.AbilityDefinition;
+import net.lwenstrom.tft.backend.core.model.AbilityType;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A range-3 damage ability cast into a packed 9-unit enemy board from the middle of the grid
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultAbilityCasterBenchmark {
+
+    @Param({"LINE", "SURROUND"})
+    public String pattern;
+
+    private final DefaultAbilityCaster caster = new DefaultAbilityCaster();
+    private final NearestEnemyTargetSelector targetSelector = new NearestEnemyTargetSelector();
+    private final StatusEffects statusEffects = new StatusEffects(new SimulatedClock());
+    private GameUnit source;
+    private List<GameUnit> allUnits;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        var ability = new AbilityDefinition(
+                "Bench", "", AbilityType.DAMAGE, pattern, List.of(3, 3, 3), List.of(10, 10, 10), null);
+        var def = new UnitDefinition(
+                "bench",
+                "Bench",
+                1,
+                List.of(Integer.MAX_VALUE),
+                List.of(100),
+                List.of(10),
+                List.of(0),
+                List.of(0),
+                List.of(0),
+                List.of(1.0f),
+                List.of(1),
+                List.of(),
+                ability);
+
+        allUnits = new ArrayList<>();
+        source = new StandardGameUnit(def);
+        source.setOwnerId("a");
+        source.setPosition(3, 3);
+        allUnits.add(source);
+        for (var i = 0; i < 9; i++) {
+            var enemy = new StandardGameUnit(def);
+            enemy.setOwnerId("b");
+            enemy.setPosition(1 + i % 5, 4 + i / 5);
+            allUnits.add(enemy);
+        }
+    }
+
+    @Benchmark
+    public GameUnit castAbility() {
+        caster.castAbility(source, allUnits, targetSelector, statusEffects);
+        return source;
+    }
+}
@@ -0,0 +1,54 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.lwenstrom.tft.backend.benchmark.BenchmarkFixtures;
+import net.lwenstrom.tft.backend.core.engine.CombatSystem;
+import net.lwenstrom.tft.backend.core.engine.TraitManager;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Target lookup for every unit of a 9v9 fight in combat positions
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestEnemyTargetSelectorBenchmark {
+
+    private final NearestEnemyTargetSelector selector = new NearestEnemyTargetSelector();
+    private List<GameUnit> allUnits;
+
+    @Setup
+    public void setUp() {
+        var catalog = BenchmarkFixtures.catalog();
+        var participants =
+                List.of(BenchmarkFixtures.player("a", catalog, 9), BenchmarkFixtures.player("b", catalog, 9));
+        var clock = new SimulatedClock();
+        new CombatSystem(new TraitManager(), clock, selector, new BfsUnitMover(clock), new DefaultAbilityCaster())
+                .startCombat(participants);
+        allUnits = new ArrayList<>();
+        participants.forEach(p -> allUnits.addAll(p.getBoardUnits()));
+    }
+
+    @Benchmark
+    public GameUnit findTargetForEveryUnit() {
+        GameUnit last = null;
+        for (var unit : allUnits) {
+            last = selector.findTarget(unit, allUnits);
+        }
+        return last;
+    }
+}
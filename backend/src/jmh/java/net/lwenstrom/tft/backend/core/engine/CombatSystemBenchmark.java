@@ -0,0 +1,71 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.lwenstrom.tft.backend.benchmark.BenchmarkFixtures;
+import net.lwenstrom.tft.backend.core.combat.BfsUnitMover;
+import net.lwenstrom.tft.backend.core.combat.DefaultAbilityCaster;
+import net.lwenstrom.tft.backend.core.combat.NearestEnemyTargetSelector;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One 100ms combat tick for an NvN matchup. Units get effectively infinite health so the fight never ends
+// mid-iteration and every invocation measures steady-state targeting, movement, attacks and casts.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombatSystemBenchmark {
+
+    private static final int HEALTH = 1_000_000_000;
+
+    @Param({"2", "3", "4", "5", "6", "7", "8", "9"})
+    public int boardSize;
+
+    private SimulatedClock clock;
+    private CombatSystem combatSystem;
+    private CombatContext combat;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        var catalog = BenchmarkFixtures.catalog();
+        clock = new SimulatedClock();
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(BenchmarkFixtures.dataLoader().getTraitDefinitions());
+        combatSystem = new CombatSystem(
+                traitManager,
+                clock,
+                new NearestEnemyTargetSelector(),
+                new BfsUnitMover(clock),
+                new DefaultAbilityCaster());
+
+        var participants = List.of(
+                BenchmarkFixtures.player("a", catalog, boardSize), BenchmarkFixtures.player("b", catalog, boardSize));
+        combat = combatSystem.startCombat(participants);
+        for (var player : participants) {
+            for (var unit : player.getBoardUnits()) {
+                unit.setMaxHealth(HEALTH);
+                unit.setCurrentHealth(HEALTH);
+            }
+        }
+    }
+
+    @Benchmark
+    public CombatSystem.CombatResult simulateTick() {
+        clock.advance(100);
+        return combatSystem.simulateTick(combat);
+    }
+}
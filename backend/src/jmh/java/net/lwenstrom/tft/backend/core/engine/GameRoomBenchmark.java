@@ -0,0 +1,63 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.concurrent.TimeUnit;
+import net.lwenstrom.tft.backend.benchmark.BenchmarkFixtures;
+import net.lwenstrom.tft.backend.core.model.GameState;
+import net.lwenstrom.tft.backend.core.random.DefaultRandomProvider;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// State snapshot rebuilt after every room tick, for a full 8-player lobby in round 5 planning
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameRoomBenchmark {
+
+    private GameRoom room;
+
+    @Setup
+    public void setUp() {
+        room = fullRoom();
+    }
+
+    @Benchmark
+    public GameState updateGameState() {
+        room.updateGameState(10_000);
+        return room.getState();
+    }
+
+    public static GameRoom fullRoom() {
+        var clock = new SimulatedClock();
+        var room = new GameRoom(
+                "bench-room",
+                BenchmarkFixtures.dataLoader(),
+                BenchmarkFixtures.registry(),
+                clock,
+                new DefaultRandomProvider(BenchmarkFixtures.SEED));
+        var host = room.addPlayer("Host");
+        room.startMatch();
+
+        // Play a few planning/combat cycles so bots field bigger boards and have shops and loot
+        for (var phase = 0; phase < 8; phase++) {
+            clock.advance(60_000);
+            room.tick();
+        }
+        host.gainGold(100);
+        for (var i = 0; i < 5; i++) {
+            host.buyUnit(i);
+        }
+        return room;
+    }
+}
@@ -0,0 +1,52 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.lwenstrom.tft.backend.benchmark.BenchmarkFixtures;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraitManagerBenchmark {
+
+    @Param({"3", "6", "9"})
+    public int boardSize;
+
+    private TraitManager traitManager;
+    private List<GameUnit> board;
+
+    @Setup
+    public void setUp() {
+        traitManager = new TraitManager();
+        traitManager.registerTraits(BenchmarkFixtures.dataLoader().getTraitDefinitions());
+        board = BenchmarkFixtures.player("a", BenchmarkFixtures.catalog(), boardSize)
+                .getBoardUnits();
+        board.forEach(GameUnit::savePlanningPosition);
+    }
+
+    // Trait effects add to max health and attack speed, so the board is restored after every application
+    // to keep the input identical across invocations
+    @Benchmark
+    public List<GameUnit> applyTraits() {
+        traitManager.applyTraits(board);
+        for (var unit : board) {
+            unit.restorePlanningPosition();
+        }
+        return board;
+    }
+}
@@ -0,0 +1,70 @@
+package net.lwenstrom.tft.backend.core.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import net.lwenstrom.tft.backend.core.model.ActionType;
+import net.lwenstrom.tft.backend.core.model.GameAction;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Records appended per second to a 4-shard log for 64 rooms, including segment rolls; commits run once per
+// 50 appends, a busy engine tick's worth, on the log's own thread
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteAheadLogBenchmark {
+
+    private static final int ROOMS = 64;
+
+    private final GameAction action = new GameAction(ActionType.MOVE, "player-3", "k2", null, 4, 2, null);
+    private Path dir;
+    private WriteAheadLog wal;
+    private WriteAheadLog.RoomLog[] rooms;
+    private long time;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("wal-bench");
+        wal = WriteAheadLog.open(dir, 4, 64 << 20);
+        rooms = new WriteAheadLog.RoomLog[ROOMS];
+        for (var i = 0; i < ROOMS; i++) rooms[i] = wal.open("room-" + i, GameMode.ONEPIECE, i, 0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        wal.close();
+        try (var files = Files.walk(dir)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public void action() {
+        rooms[next++ & (ROOMS - 1)].action(++time, action);
+        if (next % 50 == 0) wal.commit();
+    }
+
+    @Benchmark
+    public void tick() {
+        rooms[next++ & (ROOMS - 1)].tick(++time);
+        if (next % 50 == 0) wal.commit();
+    }
+}
@@ -2,9 +2,11 @@ package net.lwenstrom.tft.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @org.springframework.scheduling.annotation.EnableScheduling
 public class BackendApplication {
 
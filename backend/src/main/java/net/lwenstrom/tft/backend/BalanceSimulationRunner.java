@@ -0,0 +1,51 @@
+package net.lwenstrom.tft.backend;
+
+import java.util.List;
+import java.util.Map;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.GameModeRegistry;
+import net.lwenstrom.tft.backend.core.simulation.BalanceReport;
+import net.lwenstrom.tft.backend.core.simulation.BalanceSimulationConfig;
+import net.lwenstrom.tft.backend.core.simulation.BalanceSimulator;
+import net.lwenstrom.tft.backend.game.onepiece.OnePieceGameModeProvider;
+import net.lwenstrom.tft.backend.game.pokemon.PokemonGameModeProvider;
+
+// Offline balance sweep, runs without the Spring context.
+// Usage: BalanceSimulationRunner [mode] [fights] [seed] [teamSize] [RANDOM|ENUMERATED] [parallelism] [batch]
+public class BalanceSimulationRunner {
+
+    public static void main(String[] args) {
+        var mode = args.length > 0 ? args[0] : "onepiece";
+        var fights = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        var seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        var teamSize = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        var compositionMode = args.length > 4
+                ? BalanceSimulationConfig.CompositionMode.valueOf(args[4])
+                : BalanceSimulationConfig.CompositionMode.RANDOM;
+        var parallelism = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        var batchKernel = args.length > 6 && Boolean.parseBoolean(args[6]);
+
+        var registry =
+                new GameModeRegistry(List.of(new OnePieceGameModeProvider(), new PokemonGameModeProvider()), mode);
+        var dataLoader = new DataLoader(registry, "");
+        dataLoader.loadData();
+
+        var simulator = new BalanceSimulator(
+                dataLoader.getAllUnits(), dataLoader.getTraitDefinitions(), registry.getActiveProvider());
+        var report = simulator.run(
+                new BalanceSimulationConfig(seed, fights, teamSize, compositionMode, parallelism, 0, batchKernel));
+
+        System.out.printf(
+                "%d fights (%d draws) in %.2fs, %.0f fights/s%n",
+                report.fights(), report.draws(), report.elapsedNanos() / 1_000_000_000.0, report.fightsPerSecond());
+        print("Units", report.unitStats());
+        print("Trait breakpoints", report.traitStats());
+    }
+
+    private static void print(String title, Map<String, BalanceReport.Stats> stats) {
+        System.out.printf("%n%-24s %10s %8s %10s %10s%n", title, "fights", "win%", "avg dmg", "avg ttk");
+        stats.forEach((key, s) -> System.out.printf(
+                "%-24s %10d %7.1f%% %10.1f %9.1fs%n",
+                key, s.fights(), s.winRate() * 100, s.averageDamage(), s.averageTimeToKillMs() / 1000.0));
+    }
+}
@@ -0,0 +1,51 @@
+package net.lwenstrom.tft.backend;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.GameModeRegistry;
+import net.lwenstrom.tft.backend.core.journal.JournalReplayer;
+import net.lwenstrom.tft.backend.game.onepiece.OnePieceGameModeProvider;
+import net.lwenstrom.tft.backend.game.pokemon.PokemonGameModeProvider;
+
+// Offline replay of a room journal written with game.journal.dir, runs without the Spring context.
+// Repeating the replay keeps the JVM busy long enough to attach a profiler.
+// Usage: JournalReplayRunner <journal> [repeat]
+public class JournalReplayRunner {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JournalReplayRunner <journal> [repeat]");
+            System.exit(1);
+        }
+        var file = Path.of(args[0]);
+        var repeat = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        var registry = new GameModeRegistry(
+                List.of(new OnePieceGameModeProvider(), new PokemonGameModeProvider()), "onepiece");
+        var dataLoader = new DataLoader(registry, "");
+        dataLoader.loadData();
+        var replayer = new JournalReplayer(dataLoader);
+
+        JournalReplayer.Result result = null;
+        for (var i = 0; i < repeat; i++) {
+            result = replayer.replay(file);
+            System.out.printf(
+                    "Replayed %d ticks and %d inputs in %.3fs, %.0f ticks/s%s%n",
+                    result.ticks(),
+                    result.inputs(),
+                    result.elapsedNanos() / 1_000_000_000.0,
+                    result.ticks() / (result.elapsedNanos() / 1_000_000_000.0),
+                    result.truncated() ? " (journal cut short)" : "");
+        }
+
+        var state = result.room().getState();
+        System.out.printf(
+                "%nRoom %s (%s): %s, round %d%n", state.roomId(), state.gameMode(), state.phase(), state.round());
+        state.players()
+                .values()
+                .forEach(p -> System.out.printf(
+                        "%-24s %4d hp %4d gold  level %d%n", p.name(), p.health(), p.gold(), p.level()));
+    }
+}
@@ -0,0 +1,62 @@
+package net.lwenstrom.tft.backend.api;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.GameModeRegistry;
+import net.lwenstrom.tft.backend.core.combat.CombatTrace;
+import net.lwenstrom.tft.backend.core.engine.GameEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+// Operator endpoints. Only registered with game.admin.enabled=true, so they answer 404 by default, and kept off
+// the CORS-open controllers so a browser on another origin cannot call them.
+@RestController
+@RequestMapping("/api/admin")
+@ConditionalOnBooleanProperty("game.admin.enabled")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final DataLoader dataLoader;
+    private final GameModeRegistry gameModeRegistry;
+    private final GameEngine gameEngine;
+
+    // Re-reads the unit and trait files on this request thread; the game loop only sees the swapped reference.
+    // Rooms that are already running keep the version they started with.
+    @PostMapping("/reload")
+    public Map<String, Object> reloadCatalog(@RequestParam(required = false) String mode) {
+        var snapshot = dataLoader.reload(gameModeRegistry.resolve(mode));
+        return Map.of(
+                "version", snapshot.version(),
+                "units", snapshot.units().size(),
+                "traits", snapshot.traits().size());
+    }
+
+    // Switches one room's combat trace at runtime; other rooms keep their level and sampling
+    @PostMapping("/rooms/{roomId}/trace")
+    public Map<String, Object> setTrace(
+            @PathVariable String roomId,
+            @RequestParam CombatTrace.Level level,
+            @RequestParam(defaultValue = "1") int sampleEvery) {
+        var room = gameEngine.getRoom(roomId);
+        if (room == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown room: " + roomId);
+        room.getTrace().configure(level, sampleEvery);
+        return Map.of(
+                "roomId", roomId, "level", level, "sampleEvery", room.getTrace().getSampleEvery());
+    }
+
+    // An unknown mode is a bad request, not a server error
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
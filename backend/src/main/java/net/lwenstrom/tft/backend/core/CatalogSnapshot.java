@@ -0,0 +1,30 @@
+package net.lwenstrom.tft.backend.core;
+
+import java.util.List;
+import net.lwenstrom.tft.backend.core.engine.TraitManager;
+import net.lwenstrom.tft.backend.core.engine.UnitCatalog;
+import net.lwenstrom.tft.backend.core.model.TraitDefinition;
+
+// One published version of a mode's unit and trait data. A room keeps the snapshot it was created with, so a
+// reload only affects rooms created after it. The trait manager is compiled once per version and only read
+// afterwards, so every room of the mode shares it.
+public record CatalogSnapshot(
+        long version, UnitCatalog units, List<TraitDefinition> traits, TraitManager traitManager) {
+
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, UnitCatalog.EMPTY, List.of());
+
+    public CatalogSnapshot {
+        traits = List.copyOf(traits);
+    }
+
+    // Plain breakpoint tables, without any custom effects of a mode provider
+    public CatalogSnapshot(long version, UnitCatalog units, List<TraitDefinition> traits) {
+        this(version, units, traits, compile(traits));
+    }
+
+    static TraitManager compile(List<TraitDefinition> traits) {
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(traits);
+        return traitManager;
+    }
+}
@@ -4,75 +4,143 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import net.lwenstrom.tft.backend.core.engine.UnitCatalog;
 import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
 import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.model.TraitDefinition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class DataLoader {
 
     private final GameModeRegistry gameModeRegistry;
     private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    // One published snapshot per registered mode, each loaded once and shared by every room of that mode
+    private final Map<GameMode, AtomicReference<CatalogSnapshot>> snapshots = new EnumMap<>(GameMode.class);
 
-    private Map<String, UnitDefinition> unitRegistry;
-    private List<Object> traitMetadata;
+    // Optional directory holding the modes' JSON files, so they can be edited and reloaded without a build.
+    // Paths are the provider's resource paths resolved against it; blank reads from the classpath.
+    private final String dataDir;
+
+    public DataLoader(GameModeRegistry gameModeRegistry, @Value("${game.data-dir:}") String dataDir) {
+        this.gameModeRegistry = gameModeRegistry;
+        this.dataDir = dataDir;
+    }
 
     @PostConstruct
     public void loadData() {
-        GameModeProvider provider = gameModeRegistry.getActiveProvider();
-        loadUnits(provider.getUnitsPath());
-        loadTraits(provider.getTraitsPath());
+        for (var provider : gameModeRegistry.getProviders()) {
+            var units = read(provider.getUnitsPath(), new TypeReference<List<UnitDefinition>>() {});
+            var traits = read(provider.getTraitsPath(), new TypeReference<List<TraitDefinition>>() {});
+            var snapshot = build(
+                    provider,
+                    1,
+                    new UnitCatalog(units != null ? units : List.of()),
+                    traits != null ? traits : List.of());
+            snapshots.put(provider.getMode(), new AtomicReference<>(snapshot));
+            log.info(
+                    "Loaded {} units and {} traits for {}",
+                    snapshot.units().size(),
+                    snapshot.traits().size(),
+                    provider.getMode());
+        }
     }
 
-    private void loadUnits(String path) {
-        try {
-            var is = getClass().getResourceAsStream(path);
-            if (is != null) {
-                List<UnitDefinition> units = jsonMapper.readValue(is, new TypeReference<>() {});
-                unitRegistry = units.stream().collect(Collectors.toMap(UnitDefinition::id, u -> u));
-                System.out.println("Loaded " + unitRegistry.size() + " units from " + path);
-            } else {
-                System.err.println("Could not find units at " + path);
-                unitRegistry = Map.of();
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load unit data: " + path, e);
+    public CatalogSnapshot reload() {
+        return reload(getGameMode());
+    }
+
+    // Parses and validates the files on the calling thread, then publishes them in one atomic swap. Readers
+    // never wait; a file that is missing or invalid fails the reload and leaves the current version in place.
+    public synchronized CatalogSnapshot reload(GameMode mode) {
+        var provider = gameModeRegistry.getProvider(mode);
+        var units = read(provider.getUnitsPath(), new TypeReference<List<UnitDefinition>>() {});
+        var traits = read(provider.getTraitsPath(), new TypeReference<List<TraitDefinition>>() {});
+        if (units == null || units.isEmpty()) {
+            throw new IllegalStateException("No units at " + provider.getUnitsPath());
         }
+        if (traits == null) throw new IllegalStateException("No traits at " + provider.getTraitsPath());
+
+        // Building the catalog and compiling every breakpoint table rejects duplicate ids and broken tables
+        var current = snapshots.computeIfAbsent(mode, m -> new AtomicReference<>(CatalogSnapshot.EMPTY));
+        var next = build(provider, current.get().version() + 1, new UnitCatalog(units), traits);
+        current.set(next);
+        log.info(
+                "Reloaded {} catalog version {}: {} units, {} traits",
+                mode,
+                next.version(),
+                next.units().size(),
+                traits.size());
+        return next;
+    }
+
+    private static CatalogSnapshot build(
+            GameModeProvider provider, long version, UnitCatalog units, List<TraitDefinition> traits) {
+        var traitManager = CatalogSnapshot.compile(traits);
+        provider.registerTraitEffects(traitManager);
+        return new CatalogSnapshot(version, units, traits, traitManager);
     }
 
-    private void loadTraits(String path) {
-        try {
-            var is = getClass().getResourceAsStream(path);
-            if (is != null) {
-                traitMetadata = jsonMapper.readValue(is, new TypeReference<>() {});
-                System.out.println("Loaded trait metadata from " + path);
-            } else {
-                System.err.println("Could not find traits at " + path);
-                traitMetadata = List.of();
+    private <T> T read(String path, TypeReference<T> type) {
+        try (var is = open(path)) {
+            if (is == null) {
+                log.warn("Could not find {}", path);
+                return null;
             }
+            return jsonMapper.readValue(is, type);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to load trait data: " + path, e);
+            throw new RuntimeException("Failed to load data: " + path, e);
         }
     }
 
+    private InputStream open(String path) throws IOException {
+        if (dataDir.isBlank()) return getClass().getResourceAsStream(path);
+        var file = Path.of(dataDir, path);
+        return Files.exists(file) ? Files.newInputStream(file) : null;
+    }
+
+    // The latest published version for a mode; rooms hold on to the one they were created with
+    public CatalogSnapshot getSnapshot(GameMode mode) {
+        var snapshot = snapshots.get(mode);
+        return snapshot != null ? snapshot.get() : CatalogSnapshot.EMPTY;
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        return getSnapshot(getGameMode());
+    }
+
+    public UnitCatalog getCatalog() {
+        return getSnapshot().units();
+    }
+
     public UnitDefinition getUnitDefinition(String id) {
-        return unitRegistry.get(id);
+        return getCatalog().byId(id);
     }
 
     public List<UnitDefinition> getAllUnits() {
-        return List.copyOf(unitRegistry.values());
+        return getCatalog().units();
     }
 
+    // The default mode, used by rooms and endpoints that do not name one
     public GameMode getGameMode() {
         return gameModeRegistry.getActiveMode();
     }
 
-    public List<Object> getTraitMetadata() {
-        return traitMetadata;
+    public List<TraitDefinition> getTraitDefinitions() {
+        return getTraitDefinitions(getGameMode());
+    }
+
+    public List<TraitDefinition> getTraitDefinitions(GameMode mode) {
+        return getSnapshot(mode).traits();
     }
 }
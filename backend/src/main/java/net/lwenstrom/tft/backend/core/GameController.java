@@ -1,5 +1,6 @@
 package net.lwenstrom.tft.backend.core;
 
+import jakarta.annotation.PostConstruct;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +10,7 @@ import net.lwenstrom.tft.backend.core.engine.GameRoom;
 import net.lwenstrom.tft.backend.core.engine.Player;
 import net.lwenstrom.tft.backend.core.model.GameAction;
 import net.lwenstrom.tft.backend.core.model.GameMode;
-import net.lwenstrom.tft.backend.core.model.GamePhase;
+import net.lwenstrom.tft.backend.core.model.TraitDefinition;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -17,6 +18,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @CrossOrigin(origins = "*")
@@ -39,23 +41,37 @@ public class GameController {
     }
 
     @GetMapping("/api/traits")
-    public List<Object> getTraits() {
-        return dataLoader.getTraitMetadata();
+    public List<TraitDefinition> getTraits(@RequestParam(required = false) String mode) {
+        return dataLoader.getTraitDefinitions(gameModeRegistry.resolve(mode));
     }
 
+    // The mode of a room when one is named, otherwise the default mode
     @GetMapping("/api/mode")
-    public GameMode getMode() {
-        return gameModeRegistry.getActiveMode();
+    public GameMode getMode(@RequestParam(required = false) String roomId) {
+        GameRoom room = roomId != null ? gameEngine.getRoom(roomId) : null;
+        return room != null ? room.getMode() : gameModeRegistry.getActiveMode();
     }
 
     @MessageMapping("/create")
     public void createRoom(@Payload RoomRequest request) {
-        GameRoom room = gameEngine.createRoom(request.roomId());
+        GameRoom room;
+        try {
+            room = gameEngine.createRoom(request.roomId(), gameModeRegistry.resolve(request.mode()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Room not created: {}", e.getMessage());
+            return;
+        }
         configureCombatResultListener(room);
 
         joinRoom(new RoomRequest(room.getId(), request.playerName()));
     }
 
+    // Rooms restored from snapshots at startup never went through /create
+    @PostConstruct
+    public void attachRestoredRooms() {
+        gameEngine.getActiveRooms().forEach(this::configureCombatResultListener);
+    }
+
     private void configureCombatResultListener(GameRoom room) {
         room.setCombatResultListener((roomId, winnerId, loserId, participantIds, damageLog) -> {
             var damageMap = damageLog.entrySet().stream()
@@ -146,44 +162,17 @@ public class GameController {
     public void handleAction(@DestinationVariable String id, @Payload GameAction action) {
         GameRoom room = gameEngine.getRoom(id);
         if (room != null) {
-            Player p = room.getPlayer(action.playerId());
-            if (p == null) {
+            if (!room.handleAction(action)) {
                 log.warn("Player not found in room.");
                 return;
             }
-
-            switch (action.type()) {
-                case BUY -> {
-                    p.buyUnit(action.shopIndex());
-                }
-                case REROLL -> {
-                    p.refreshShop();
-                }
-                case EXP -> {
-                    if (p.getGold() >= 4) {
-                        p.gainGold(-4);
-                        p.gainXp(4);
-                    }
-                }
-                case MOVE -> {
-                    if (room.getState().phase() == GamePhase.PLANNING) {
-                        room.moveUnit(action.playerId(), action.unitId(), action.targetX(), action.targetY());
-                    }
-                }
-                case SELL -> {
-                    // Allow selling bench units anytime, but board units only during PLANNING
-                    p.sellUnit(action.unitId(), room.getState().phase() == GamePhase.PLANNING);
-                }
-                case LOCK -> {
-                    // TODO: Implement
-                }
-                case COLLECT_ORB -> {
-                    room.collectOrb(action.playerId(), action.orbId());
-                }
-            }
             messagingTemplate.convertAndSend("/topic/room/" + room.getId(), room.getState());
         }
     }
 
-    public record RoomRequest(String roomId, String playerName) {}
+    public record RoomRequest(String roomId, String playerName, String mode) {
+        public RoomRequest(String roomId, String playerName) {
+            this(roomId, playerName, null);
+        }
+    }
 }
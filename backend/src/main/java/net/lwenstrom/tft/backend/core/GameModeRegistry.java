@@ -1,5 +1,6 @@
 package net.lwenstrom.tft.backend.core;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -19,14 +20,33 @@ public class GameModeRegistry {
     }
 
     public GameModeProvider getActiveProvider() {
-        GameModeProvider provider = providers.get(activeMode);
+        return getProvider(activeMode);
+    }
+
+    public GameModeProvider getProvider(GameMode mode) {
+        GameModeProvider provider = providers.get(mode);
         if (provider == null) {
-            throw new IllegalStateException("No provider found for game mode: " + activeMode);
+            throw new IllegalStateException("No provider found for game mode: " + mode);
         }
         return provider;
     }
 
+    public Collection<GameModeProvider> getProviders() {
+        return providers.values();
+    }
+
+    // The mode from game.mode, used when a room or request does not pick one
     public GameMode getActiveMode() {
         return activeMode;
     }
+
+    // Blank picks the default mode; anything else must name a registered mode
+    public GameMode resolve(String mode) {
+        if (mode == null || mode.isBlank()) return activeMode;
+        var resolved = GameMode.fromString(mode);
+        if (!resolved.getValue().equalsIgnoreCase(mode) || !providers.containsKey(resolved)) {
+            throw new IllegalArgumentException("Unknown game mode: " + mode);
+        }
+        return resolved;
+    }
 }
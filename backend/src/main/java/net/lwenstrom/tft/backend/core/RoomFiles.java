@@ -0,0 +1,25 @@
+package net.lwenstrom.tft.backend.core;
+
+import java.nio.charset.StandardCharsets;
+
+// Names of the per-room files on disk (journals, snapshots)
+public final class RoomFiles {
+
+    private RoomFiles() {}
+
+    // Room ids come from clients, so only letters, digits and '-' reach the file name as they are; every other
+    // UTF-8 byte, '_' included, becomes '_' and two hex digits. Distinct ids never share a file: "a/b", "a_b"
+    // and "a.b" are "a_2fb", "a_5fb" and "a_2eb".
+    public static String safeName(String roomId) {
+        var name = new StringBuilder(roomId.length());
+        for (var b : roomId.getBytes(StandardCharsets.UTF_8)) {
+            var c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-') {
+                name.append(c);
+            } else {
+                name.append('_').append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xf, 16));
+            }
+        }
+        return name.toString();
+    }
+}
@@ -4,12 +4,18 @@ import java.util.List;
 import net.lwenstrom.tft.backend.core.model.GameUnit;
 
 public interface AbilityCaster {
-    void castAbility(GameUnit source, List<GameUnit> allUnits, TargetSelector targetSelector);
+    void castAbility(
+            GameUnit source, List<GameUnit> allUnits, TargetSelector targetSelector, StatusEffects statusEffects);
 
-    void castAbility(GameUnit source, List<GameUnit> allUnits, TargetSelector targetSelector, DamageCallback callback);
+    void castAbility(
+            GameUnit source,
+            List<GameUnit> allUnits,
+            TargetSelector targetSelector,
+            StatusEffects statusEffects,
+            DamageCallback callback);
 
     @FunctionalInterface
     interface DamageCallback {
-        void onDamage(String unitId, String unitName, String targetId, int damage);
+        void onDamage(GameUnit source, GameUnit target, int damage);
     }
 }
@@ -0,0 +1,69 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import net.lwenstrom.tft.backend.core.engine.Grid;
+
+// Ability areas as cell bitmasks over the combat board, bit y * COLS + x.
+// The 7x8 board is 56 cells and fits in a long, so hit-testing an area is a single AND with the occupied cells.
+// Every mask is precomputed per origin, range and (for LINE) direction.
+public final class AreaMasks {
+
+    public static final int CELLS = Grid.COLS * Grid.COMBAT_ROWS;
+    // Larger ranges cover the same cells as this one
+    public static final int MAX_RANGE = Math.max(Grid.COLS, Grid.COMBAT_ROWS) - 1;
+
+    private static final long[][] SQUARES = new long[CELLS][MAX_RANGE + 1];
+    private static final long[][][] LINES = new long[9][CELLS][MAX_RANGE + 1]; // by direction (dx + 1) * 3 + dy + 1
+
+    static {
+        for (var origin = 0; origin < CELLS; origin++) {
+            var ox = origin % Grid.COLS;
+            var oy = origin / Grid.COLS;
+            for (var r = 0; r <= MAX_RANGE; r++) {
+                var square = 0L;
+                for (var dx = -r; dx <= r; dx++) {
+                    for (var dy = -r; dy <= r; dy++) {
+                        square |= bit(ox + dx, oy + dy);
+                    }
+                }
+                SQUARES[origin][r] = square;
+            }
+            for (var dx = -1; dx <= 1; dx++) {
+                for (var dy = -1; dy <= 1; dy++) {
+                    if (dx == 0 && dy == 0) continue;
+                    var line = 0L;
+                    for (var r = 1; r <= MAX_RANGE; r++) {
+                        line |= bit(ox + dx * r, oy + dy * r);
+                        LINES[(dx + 1) * 3 + dy + 1][origin][r] = line;
+                    }
+                }
+            }
+        }
+    }
+
+    private AreaMasks() {}
+
+    public static boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < Grid.COLS && y >= 0 && y < Grid.COMBAT_ROWS;
+    }
+
+    public static int cell(int x, int y) {
+        return y * Grid.COLS + x;
+    }
+
+    // Single cell, empty when (x, y) is off the board
+    public static long bit(int x, int y) {
+        return isOnBoard(x, y) ? 1L << cell(x, y) : 0L;
+    }
+
+    // Every cell within Chebyshev distance range of (x, y), the origin included
+    public static long square(int x, int y, int range) {
+        if (range < 0 || !isOnBoard(x, y)) return 0L;
+        return SQUARES[cell(x, y)][Math.min(range, MAX_RANGE)];
+    }
+
+    // The first range cells stepping from (x, y) by (dx, dy), each -1, 0 or 1; the origin is not part of the line
+    public static long line(int x, int y, int dx, int dy, int range) {
+        if (range < 1 || !isOnBoard(x, y)) return 0L;
+        return LINES[(Integer.signum(dx) + 1) * 3 + Integer.signum(dy) + 1][cell(x, y)][Math.min(range, MAX_RANGE)];
+    }
+}
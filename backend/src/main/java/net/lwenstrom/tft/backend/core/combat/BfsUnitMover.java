@@ -32,7 +32,8 @@ public class BfsUnitMover implements UnitMover {
         }
     }
 
-    private Point findNextStep(GameUnit start, GameUnit target, List<GameUnit> allUnits) {
+    // Package-private so the JMH suite can measure pathfinding without the move cooldown
+    Point findNextStep(GameUnit start, GameUnit target, List<GameUnit> allUnits) {
         int rows = Grid.COMBAT_ROWS;
         int cols = Grid.COLS;
 
@@ -95,5 +96,5 @@ public class BfsUnitMover implements UnitMover {
         return null;
     }
 
-    private record Point(int x, int y) {}
+    record Point(int x, int y) {}
 }
@@ -0,0 +1,209 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Structured combat trace of one room. Recording writes into a bounded ring of primitive columns and returns;
+// a single daemon thread drains every open trace and writes the lines through SLF4J, so the tick never waits on
+// log I/O. Below the configured level a call costs one volatile read. When the ring is full, events are dropped
+// and counted instead of blocking the tick.
+public final class CombatTrace {
+
+    public enum Level {
+        OFF,
+        /** Combat start and end. */
+        INFO,
+        /** Every unit placed into arena position. */
+        DEBUG,
+        /** Every attack, subject to sampling. */
+        TRACE
+    }
+
+    private enum Kind {
+        RESTORE(Level.INFO),
+        PLACE(Level.DEBUG),
+        ATTACK(Level.TRACE);
+
+        private final Level level;
+
+        Kind(Level level) {
+            this.level = level;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger("net.lwenstrom.tft.backend.combat.trace");
+    private static final Kind[] KINDS = Kind.values();
+    private static final int CAPACITY = 4096;
+    private static final long DRAIN_INTERVAL_MS = 50;
+
+    // Traces of rooms that have tracing switched on, drained by one shared thread
+    private static final Set<CombatTrace> OPEN = ConcurrentHashMap.newKeySet();
+    private static ScheduledExecutorService drainer;
+
+    public static final CombatTrace DISABLED = new CombatTrace("-", 2);
+
+    private final String roomId;
+    private volatile Level level = Level.OFF;
+    private volatile int sampleEvery = 1;
+    private final AtomicLong attacks = new AtomicLong();
+
+    // Multi-producer ring: matchups of a room record concurrently; a slot is readable once published holds seq + 1
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLongArray published;
+    private volatile long drained;
+    private final AtomicLong dropped = new AtomicLong();
+    private final long[] times;
+    private final byte[] kinds;
+    private final String[] subjects;
+    private final String[] others;
+    private final int[] firsts;
+    private final int[] seconds;
+
+    public CombatTrace(String roomId) {
+        this(roomId, CAPACITY);
+    }
+
+    CombatTrace(String roomId, int capacity) {
+        this.roomId = roomId;
+        var size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        this.times = new long[size];
+        this.kinds = new byte[size];
+        this.subjects = new String[size];
+        this.others = new String[size];
+        this.firsts = new int[size];
+        this.seconds = new int[size];
+    }
+
+    // Only attacks are sampled: with sampleEvery n, the first of every n attacks is kept. The counter is the
+    // room's own, so which attacks are traced does not depend on other rooms.
+    public void configure(Level level, int sampleEvery) {
+        if (this == DISABLED) throw new IllegalStateException("The shared disabled trace cannot be configured");
+        setLevel(level, sampleEvery);
+        if (level == Level.OFF) {
+            close();
+        } else if (OPEN.add(this)) {
+            startDrainer();
+        }
+    }
+
+    // Changes what is recorded without registering the trace with the drain thread
+    void setLevel(Level level, int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.level = level;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() <= this.level.ordinal();
+    }
+
+    public void placed(long time, String unit, String side, int x, int y) {
+        if (isEnabled(Level.DEBUG)) record(Kind.PLACE, time, unit, side, x, y);
+    }
+
+    public void attacked(long time, String unit, String target, int damage, int targetHealth) {
+        if (!isEnabled(Level.TRACE)) return;
+        var every = sampleEvery;
+        if (every > 1 && attacks.getAndIncrement() % every != 0) return;
+        record(Kind.ATTACK, time, unit, target, damage, targetHealth);
+    }
+
+    public void restored(long time, int players) {
+        if (isEnabled(Level.INFO)) record(Kind.RESTORE, time, null, null, players, 0);
+    }
+
+    private void record(Kind kind, long time, String subject, String other, int first, int second) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - drained > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+        var i = (int) (seq & mask);
+        times[i] = time;
+        kinds[i] = (byte) kind.ordinal();
+        subjects[i] = subject;
+        others[i] = other;
+        firsts[i] = first;
+        seconds[i] = second;
+        published.set(i, seq + 1);
+    }
+
+    // Hands out every published entry in recording order; only ever called by one thread at a time
+    synchronized int drain(Consumer<String> out) {
+        var seq = drained;
+        var count = 0;
+        while (true) {
+            var i = (int) (seq & mask);
+            if (published.get(i) != seq + 1) break;
+            out.accept(format(i));
+            subjects[i] = null;
+            others[i] = null;
+            seq++;
+            count++;
+            drained = seq;
+        }
+        var lost = dropped.getAndSet(0);
+        if (lost > 0) out.accept("room=" + roomId + " event=DROPPED count=" + lost);
+        return count;
+    }
+
+    private String format(int i) {
+        var prefix = "room=" + roomId + " t=" + times[i] + " event=" + KINDS[kinds[i]];
+        return switch (KINDS[kinds[i]]) {
+            case PLACE ->
+                prefix + " unit=" + subjects[i] + " side=" + others[i] + " x=" + firsts[i] + " y=" + seconds[i];
+            case ATTACK ->
+                prefix + " unit=" + subjects[i] + " target=" + others[i] + " damage=" + firsts[i] + " targetHealth="
+                        + seconds[i];
+            case RESTORE -> prefix + " players=" + firsts[i];
+        };
+    }
+
+    // Stops draining this room after writing what is still buffered
+    public void close() {
+        if (OPEN.remove(this)) drain(log::info);
+    }
+
+    private static synchronized void startDrainer() {
+        if (drainer != null) return;
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "combat-trace");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(
+                () -> {
+                    for (var trace : OPEN) {
+                        try {
+                            trace.drain(log::info);
+                        } catch (RuntimeException e) {
+                            log.warn("Draining the combat trace failed", e);
+                        }
+                    }
+                },
+                DRAIN_INTERVAL_MS,
+                DRAIN_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+}
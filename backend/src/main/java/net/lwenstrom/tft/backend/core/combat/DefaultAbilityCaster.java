@@ -2,40 +2,40 @@ package net.lwenstrom.tft.backend.core.combat;
 
 import java.util.List;
 import net.lwenstrom.tft.backend.core.model.AbilityDefinition;
-import net.lwenstrom.tft.backend.core.model.ConditionalModifier;
-import net.lwenstrom.tft.backend.core.model.ExecuteModifier;
+import net.lwenstrom.tft.backend.core.model.AbilityPlan;
 import net.lwenstrom.tft.backend.core.model.GameUnit;
-import net.lwenstrom.tft.backend.core.model.LifestealModifier;
-import net.lwenstrom.tft.backend.core.model.ScalingModifier;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DefaultAbilityCaster implements AbilityCaster {
 
     @Override
-    public void castAbility(GameUnit source, List<GameUnit> allUnits, TargetSelector targetSelector) {
-        castAbility(source, allUnits, targetSelector, (id, name, tId, dmg) -> {
+    public void castAbility(
+            GameUnit source, List<GameUnit> allUnits, TargetSelector targetSelector, StatusEffects statusEffects) {
+        castAbility(source, allUnits, targetSelector, statusEffects, (caster, target, dmg) -> {
         });
     }
 
     @Override
     public void castAbility(
-            GameUnit source, List<GameUnit> allUnits, TargetSelector targetSelector, DamageCallback callback) {
+            GameUnit source,
+            List<GameUnit> allUnits,
+            TargetSelector targetSelector,
+            StatusEffects statusEffects,
+            DamageCallback callback) {
         AbilityDefinition ability = source.getAbility();
         if (ability == null)
             return;
 
         source.setActiveAbility(ability.name());
 
-        var abilityType = ability.type();
-        int value = ability.getValueForLevel(source.getStarLevel());
-
-        switch (abilityType) {
-            case DAMAGE -> castDamageAbility(source, allUnits, targetSelector, ability, value, callback);
-            case STUN -> castStunAbility(source, allUnits, targetSelector, ability, value);
-            case HEAL -> castHealAbility(source, allUnits, ability, value, callback);
-            case BUFF_ATK -> castBuffAtkAbility(source, allUnits, ability, value);
-            case BUFF_SPD -> castBuffSpdAbility(source, allUnits, ability, value);
+        var plan = ability.plan(source.getStarLevel());
+        switch (plan.type()) {
+            case DAMAGE -> castDamageAbility(source, allUnits, targetSelector, plan, callback);
+            case STUN -> castStunAbility(source, allUnits, targetSelector, plan, statusEffects);
+            case HEAL -> castHealAbility(source, allUnits, plan, callback);
+            case BUFF_ATK -> castBuffAbility(source, allUnits, plan, statusEffects, StatusEffects.Kind.ATTACK_BUFF);
+            case BUFF_SPD -> castBuffAbility(source, allUnits, plan, statusEffects, StatusEffects.Kind.SPEED_BUFF);
         }
     }
 
@@ -43,154 +43,114 @@ public class DefaultAbilityCaster implements AbilityCaster {
             GameUnit source,
             List<GameUnit> allUnits,
             TargetSelector targetSelector,
-            AbilityDefinition ability,
-            int damage,
+            AbilityPlan plan,
             DamageCallback callback) {
         var target = targetSelector.findTarget(source, allUnits);
         if (target == null)
             return;
 
         // Check conditional modifiers before applying damage
-        if (!checkConditionalModifiers(source, target, ability)) {
+        if (!plan.conditionsMet(source, target)) {
             return;
         }
 
-        // Apply scaling modifiers
-        int scaledDamage = applyScalingModifiers(source, target, ability, damage);
-
-        // Apply execute modifier bonus damage
-        int finalDamage = applyExecuteModifier(source, target, ability, scaledDamage);
+        // Apply scaling modifiers, then execute bonus damage
+        int finalDamage = plan.damageAgainst(source, target);
 
         // Track total damage dealt for lifesteal
         var totalDamageDealt = new int[] { 0 };
 
-        applyToTargets(source, allUnits, target, ability, u -> {
+        applyToTargets(source, allUnits, target, plan, u -> {
             u.takeDamage(finalDamage);
             totalDamageDealt[0] += finalDamage;
-            callback.onDamage(source.getId(), source.getName(), u.getId(), finalDamage);
+            callback.onDamage(source, u, finalDamage);
         });
 
         // Apply lifesteal modifier
-        applyLifestealModifier(source, ability, totalDamageDealt[0], callback);
+        applyLifesteal(source, plan, totalDamageDealt[0], callback);
     }
 
     private void castStunAbility(
             GameUnit source,
             List<GameUnit> allUnits,
             TargetSelector targetSelector,
-            AbilityDefinition ability,
-            int stunTicks) {
+            AbilityPlan plan,
+            StatusEffects statusEffects) {
         var target = targetSelector.findTarget(source, allUnits);
         if (target == null)
             return;
 
-        applyToTargets(source, allUnits, target, ability, u -> {
-            u.setStunTicksRemaining(u.getStunTicksRemaining() + stunTicks);
+        applyToTargets(source, allUnits, target, plan, u -> {
+            statusEffects.apply(u, StatusEffects.Kind.STUN, 1.0f, plan.durationMs(), plan.stacking());
         });
     }
 
     private void castHealAbility(
-            GameUnit source,
-            List<GameUnit> allUnits,
-            AbilityDefinition ability,
-            int healAmount,
-            DamageCallback callback) {
-        int starLevel = source.getStarLevel();
+            GameUnit source, List<GameUnit> allUnits, AbilityPlan plan, DamageCallback callback) {
+        int healAmount = plan.value();
         // HEAL targets allies (including self)
-        switch (ability.pattern()) {
-            case "SINGLE" -> {
+        switch (plan.pattern()) {
+            case SINGLE -> {
                 // Heal lowest-health ally
                 var target = findLowestHealthAlly(source, allUnits);
                 if (target != null) {
                     healUnit(target, healAmount);
-                    callback.onDamage(source.getId(), source.getName(), target.getId(), -healAmount); // Negative for
+                    callback.onDamage(source, target, -healAmount); // Negative for
                     // heal
                 }
             }
-            case "SURROUND" -> {
+            case SURROUND -> {
                 // Heal all allies in range
-                int r = ability.getRangeForLevel(starLevel);
-                allUnits.stream()
-                        .filter(u -> u.getCurrentHealth() > 0)
-                        .filter(u -> CombatUtils.isAlly(source, u))
-                        .filter(u -> Math.abs(u.getX() - source.getX()) <= r && Math.abs(u.getY() - source.getY()) <= r)
-                        .forEach(u -> {
-                            healUnit(u, healAmount);
-                            callback.onDamage(source.getId(), source.getName(), u.getId(), -healAmount);
-                        });
+                var area = AreaMasks.square(source.getX(), source.getY(), plan.range());
+                new OccupancyIndex(allUnits).forEachIn(area, u -> CombatUtils.isAlly(source, u), u -> {
+                    healUnit(u, healAmount);
+                    callback.onDamage(source, u, -healAmount);
+                });
             }
-            default -> {
+            case LINE, SELF -> {
                 // Default: heal self
                 healUnit(source, healAmount);
-                callback.onDamage(source.getId(), source.getName(), source.getId(), -healAmount);
+                callback.onDamage(source, source, -healAmount);
             }
         }
     }
 
-    private void castBuffAtkAbility(
-            GameUnit source, List<GameUnit> allUnits, AbilityDefinition ability, int buffPercent) {
-        // Buff all allies' ATK by value percent
-        float multiplier = 1.0f + (buffPercent / 100.0f);
-        allUnits.stream()
-                .filter(u -> u.getCurrentHealth() > 0)
-                .filter(u -> CombatUtils.isAlly(source, u))
-                .forEach(u -> u.setAtkBuff(u.getAtkBuff() * multiplier));
-    }
-
-    private void castBuffSpdAbility(
-            GameUnit source, List<GameUnit> allUnits, AbilityDefinition ability, int buffPercent) {
-        // Buff all allies' attack speed by value percent
-        float multiplier = 1.0f + (buffPercent / 100.0f);
+    private void castBuffAbility(
+            GameUnit source,
+            List<GameUnit> allUnits,
+            AbilityPlan plan,
+            StatusEffects statusEffects,
+            StatusEffects.Kind kind) {
+        // Buff all allies by value percent
+        float multiplier = plan.buffMultiplier();
         allUnits.stream()
                 .filter(u -> u.getCurrentHealth() > 0)
                 .filter(u -> CombatUtils.isAlly(source, u))
-                .forEach(u -> u.setSpdBuff(u.getSpdBuff() * multiplier));
+                .forEach(u -> statusEffects.apply(u, kind, multiplier, plan.durationMs(), plan.stacking()));
     }
 
     private void applyToTargets(
             GameUnit source,
             List<GameUnit> allUnits,
             GameUnit target,
-            AbilityDefinition ability,
+            AbilityPlan plan,
             java.util.function.Consumer<GameUnit> effect) {
-        int starLevel = source.getStarLevel();
-        int range = ability.getRangeForLevel(starLevel);
+        int range = plan.range();
 
-        switch (ability.pattern()) {
-            case "SINGLE" -> effect.accept(target);
-            case "LINE" -> {
+        switch (plan.pattern()) {
+            case SINGLE -> effect.accept(target);
+            case LINE -> {
                 int dx = Integer.compare(target.getX(), source.getX());
                 int dy = Integer.compare(target.getY(), source.getY());
-                for (int i = 1; i <= range; i++) {
-                    int tx = source.getX() + dx * i;
-                    int ty = source.getY() + dy * i;
-                    final int fX = tx;
-                    final int fY = ty;
-
-                    allUnits.stream()
-                            .filter(u -> u.getX() == fX && u.getY() == fY && u.getCurrentHealth() > 0)
-                            .filter(u -> CombatUtils.isEnemy(source, u))
-                            .forEach(effect);
-                }
+                var area = AreaMasks.line(source.getX(), source.getY(), dx, dy, range);
+                new OccupancyIndex(allUnits).forEachIn(area, u -> CombatUtils.isEnemy(source, u), effect);
             }
-            case "SURROUND" -> {
-                int r = range;
-                for (int dx = -r; dx <= r; dx++) {
-                    for (int dy = -r; dy <= r; dy++) {
-                        if (dx == 0 && dy == 0)
-                            continue;
-                        int tx = source.getX() + dx;
-                        int ty = source.getY() + dy;
-                        final int fX = tx;
-                        final int fY = ty;
-
-                        allUnits.stream()
-                                .filter(u -> u.getX() == fX && u.getY() == fY && u.getCurrentHealth() > 0)
-                                .filter(u -> CombatUtils.isEnemy(source, u))
-                                .forEach(effect);
-                    }
-                }
+            case SURROUND -> {
+                var area = AreaMasks.square(source.getX(), source.getY(), range)
+                        & ~AreaMasks.bit(source.getX(), source.getY());
+                new OccupancyIndex(allUnits).forEachIn(area, u -> CombatUtils.isEnemy(source, u), effect);
             }
+            case SELF -> {}
         }
     }
 
@@ -209,57 +169,14 @@ public class DefaultAbilityCaster implements AbilityCaster {
         unit.setCurrentHealth(newHealth);
     }
 
-    // Check all conditional modifiers. Returns false if any condition is not met.
-    private boolean checkConditionalModifiers(GameUnit source, GameUnit target, AbilityDefinition ability) {
-        for (var modifier : ability.modifiers()) {
-            if (modifier instanceof ConditionalModifier conditionalModifier) {
-                if (!conditionalModifier.isMet(source, target, source.getStarLevel())) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    // Apply scaling modifiers to the base damage/heal value.
-    private int applyScalingModifiers(GameUnit source, GameUnit target, AbilityDefinition ability, int baseValue) {
-        var scaledValue = (float) baseValue;
-
-        for (var modifier : ability.modifiers()) {
-            if (modifier instanceof ScalingModifier scalingModifier) {
-                var multiplier = scalingModifier.calculateMultiplier(source, target, source.getStarLevel());
-                scaledValue *= multiplier;
-            }
-        }
-
-        return (int) scaledValue;
-    }
-
-    // Apply execute modifier bonus damage if target is below HP threshold.
-    private int applyExecuteModifier(GameUnit source, GameUnit target, AbilityDefinition ability, int baseDamage) {
-        var totalDamage = baseDamage;
-
-        for (var modifier : ability.modifiers()) {
-            if (modifier instanceof ExecuteModifier executeModifier) {
-                var bonusDamage = executeModifier.calculateBonusDamage(target, baseDamage, source.getStarLevel());
-                totalDamage += bonusDamage;
-            }
-        }
-
-        return totalDamage;
-    }
-
-    // Apply lifesteal modifier healing to the caster.
-    private void applyLifestealModifier(
-            GameUnit source, AbilityDefinition ability, int damageDealt, DamageCallback callback) {
-        for (var modifier : ability.modifiers()) {
-            if (modifier instanceof LifestealModifier lifestealModifier) {
-                var healAmount = lifestealModifier.calculateHealing(damageDealt, source.getStarLevel());
-                if (healAmount > 0) {
-                    healUnit(source, healAmount);
-                    // Report healing as negative damage
-                    callback.onDamage(source.getId(), source.getName(), source.getId(), -healAmount);
-                }
+    // Heal the caster for a share of the damage dealt, once per lifesteal modifier.
+    private void applyLifesteal(GameUnit source, AbilityPlan plan, int damageDealt, DamageCallback callback) {
+        for (var k = 0; k < plan.lifestealCount(); k++) {
+            var healAmount = (int) (damageDealt * plan.lifesteal(k));
+            if (healAmount > 0) {
+                healUnit(source, healAmount);
+                // Report healing as negative damage
+                callback.onDamage(source, source, -healAmount);
             }
         }
     }
@@ -0,0 +1,48 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+
+// Living units by board cell, built in one pass over the combat's units.
+// Units keep moving during a tick, so the caster indexes the board at cast time instead of caching it.
+final class OccupancyIndex {
+
+    private final List<GameUnit> units;
+    private final int[] head = new int[AreaMasks.CELLS]; // first unit per cell, -1 if empty
+    private final int[] next; // next unit on the same cell, in list order
+    private long occupied;
+
+    OccupancyIndex(List<GameUnit> allUnits) {
+        units = allUnits;
+        next = new int[allUnits.size()];
+        Arrays.fill(head, -1);
+        // Walk backwards so each cell's chain ends up in list order
+        for (var i = allUnits.size() - 1; i >= 0; i--) {
+            var unit = allUnits.get(i);
+            if (unit.getCurrentHealth() <= 0 || !AreaMasks.isOnBoard(unit.getX(), unit.getY())) continue;
+            var cell = AreaMasks.cell(unit.getX(), unit.getY());
+            next[i] = head[cell];
+            head[cell] = i;
+            occupied |= 1L << cell;
+        }
+    }
+
+    long occupied() {
+        return occupied;
+    }
+
+    // Applies effect to the matching units inside area, cell by cell
+    void forEachIn(long area, Predicate<GameUnit> filter, Consumer<GameUnit> effect) {
+        for (var cells = area & occupied; cells != 0; cells &= cells - 1) {
+            for (var i = head[Long.numberOfTrailingZeros(cells)]; i >= 0; i = next[i]) {
+                var unit = units.get(i);
+                if (unit.getCurrentHealth() > 0 && filter.test(unit)) {
+                    effect.accept(unit);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.model.StackRule;
+import net.lwenstrom.tft.backend.core.time.Clock;
+
+// Timed status effects of one combat. Expiring effects wait in a min-heap and are only touched again when due,
+// so a tick costs one peek plus the effects that actually run out. The resulting stun flag and buff multipliers
+// are mirrored onto the units, which keeps the per-attack reads plain field loads.
+public final class StatusEffects {
+
+    public enum Kind {
+        STUN,
+        ATTACK_BUFF,
+        SPEED_BUFF
+    }
+
+    private final Clock clock;
+    // Earliest expiry first, application order on ties so expiry is deterministic
+    private final PriorityQueue<Expiry> expiries =
+            new PriorityQueue<>(Comparator.comparingLong(Expiry::at).thenComparingLong(Expiry::sequence));
+    // Live effects per unit in application order, buff products are recomputed in that order
+    private final Map<GameUnit, List<Effect>> active = new IdentityHashMap<>();
+    private long sequence;
+
+    public StatusEffects(Clock clock) {
+        this.clock = clock;
+    }
+
+    // durationMs <= 0 keeps a buff until the combat ends and is no stun at all; multiplier is ignored for stuns
+    public void apply(GameUnit unit, Kind kind, float multiplier, int durationMs, StackRule stacking) {
+        if (kind == Kind.STUN && durationMs <= 0) return;
+        var now = clock.currentTimeMillis();
+        var expiresAt = durationMs > 0 ? now + durationMs : Long.MAX_VALUE;
+        var effects = active.computeIfAbsent(unit, u -> new ArrayList<>());
+        var existing = kind == Kind.STUN || stacking == StackRule.REFRESH ? find(effects, kind) : null;
+
+        if (existing == null) {
+            var effect = new Effect(unit, kind, multiplier, expiresAt);
+            effects.add(effect);
+            schedule(effect);
+        } else {
+            var previous = existing.expiresAt;
+            if (stacking == StackRule.STACK) {
+                // Only stuns get here: a second stun extends the one still running
+                existing.expiresAt = previous + durationMs;
+            } else {
+                existing.multiplier = multiplier;
+                existing.expiresAt = Math.max(previous, expiresAt);
+            }
+            if (existing.expiresAt != previous) schedule(existing);
+        }
+        refresh(unit, kind);
+    }
+
+    // Drops every effect that is due at the current time, called once at the start of each combat tick
+    public void expire() {
+        var now = clock.currentTimeMillis();
+        while (!expiries.isEmpty() && expiries.peek().at() <= now) {
+            var due = expiries.poll();
+            var effect = due.effect();
+            // Extended effects leave their earlier entry behind, the later one is still queued
+            if (effect.expiresAt != due.at()) continue;
+            active.get(effect.unit).remove(effect);
+            refresh(effect.unit, effect.kind);
+        }
+    }
+
+    public int size() {
+        var size = 0;
+        for (var effects : active.values()) {
+            size += effects.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        expiries.clear();
+        active.clear();
+    }
+
+    private void schedule(Effect effect) {
+        if (effect.expiresAt != Long.MAX_VALUE) expiries.add(new Expiry(effect.expiresAt, sequence++, effect));
+    }
+
+    private static Effect find(List<Effect> effects, Kind kind) {
+        for (var effect : effects) {
+            if (effect.kind == kind) return effect;
+        }
+        return null;
+    }
+
+    private void refresh(GameUnit unit, Kind kind) {
+        var effects = active.get(unit);
+        switch (kind) {
+            case STUN -> unit.setStunned(find(effects, Kind.STUN) != null);
+            case ATTACK_BUFF -> unit.setAtkBuff(product(effects, kind));
+            case SPEED_BUFF -> unit.setSpdBuff(product(effects, kind));
+        }
+    }
+
+    private static float product(List<Effect> effects, Kind kind) {
+        var product = 1.0f;
+        for (var effect : effects) {
+            if (effect.kind == kind) product *= effect.multiplier;
+        }
+        return product;
+    }
+
+    private static final class Effect {
+        private final GameUnit unit;
+        private final Kind kind;
+        private float multiplier;
+        private long expiresAt;
+
+        private Effect(GameUnit unit, Kind kind, float multiplier, long expiresAt) {
+            this.unit = unit;
+            this.kind = kind;
+            this.multiplier = multiplier;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record Expiry(long at, long sequence, Effect effect) {}
+}
@@ -1,20 +1,29 @@
 package net.lwenstrom.tft.backend.core.engine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 import lombok.NonNull;
 import net.lwenstrom.tft.backend.core.model.AbilityDefinition;
 import net.lwenstrom.tft.backend.core.model.GameItem;
 import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.model.StatLayer;
+import net.lwenstrom.tft.backend.core.model.UnitStat;
 
 public abstract class AbstractGameUnit implements GameUnit {
-    private final String id = UUID.randomUUID().toString();
-    private final String definitionId;
-    private final String name;
-    private final int cost;
-    private final AbilityDefinition ability;
+    private final String id;
+    // Shared flyweights: everything that is the same for every copy of a definition at a star level.
+    // The fields below only hold what a unit can change, so bench-heavy nodes pay little per instance.
+    private final UnitDefinition definition;
+    private final StarStats stats;
+
+    // Stat pipeline: base by star level plus the StatLayer deltas, indexed by UnitStat ordinal. The sums are
+    // cached in the stat fields below whenever the base or a layer changes, so reads stay plain field loads.
+    // base starts as the shared StarStats row and is never written in place; layers stay null until first set.
+    private float[] base;
+    private float[] layers;
 
     private int maxHealth;
     private int maxMana;
@@ -23,17 +32,16 @@ public abstract class AbstractGameUnit implements GameUnit {
     private int armor;
     private int magicResist;
     private float attackSpeed;
-    private final int range;
-    private final Set<String> traits;
 
-    public AbstractGameUnit(
-            String definitionId, String name, int cost, AbilityDefinition ability, int range, Set<String> traits) {
-        this.definitionId = definitionId;
-        this.name = name;
-        this.cost = cost;
-        this.ability = ability;
-        this.range = range;
-        this.traits = traits;
+    protected AbstractGameUnit(UnitDefinition definition, int starLevel, long id) {
+        this.id = IdAllocator.format(id);
+        this.definition = definition;
+        this.stats = definition.stats(starLevel);
+        this.starLevel = starLevel;
+        this.base = stats.sharedBase();
+        this.maxMana = stats.maxMana();
+        refreshStats();
+        this.currentHealth = maxHealth;
     }
 
     private int starLevel = 1;
@@ -41,7 +49,7 @@ public abstract class AbstractGameUnit implements GameUnit {
     private int mana = 0;
     private int x = -1;
     private int y = -1;
-    private final List<GameItem> items = new ArrayList<>();
+    private List<GameItem> items = List.of();
 
     @Override
     public String getId() {
@@ -50,22 +58,22 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public String getDefinitionId() {
-        return definitionId;
+        return definition.id();
     }
 
     @Override
     public String getName() {
-        return name;
+        return definition.name();
     }
 
     @Override
     public int getCost() {
-        return cost;
+        return definition.cost();
     }
 
     @Override
     public AbilityDefinition getAbility() {
-        return ability;
+        return definition.ability();
     }
 
     @Override
@@ -75,7 +83,7 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public void setMaxHealth(int maxHealth) {
-        this.maxHealth = maxHealth;
+        setBase(UnitStat.MAX_HEALTH, maxHealth);
     }
 
     @Override
@@ -95,7 +103,7 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public void setAttackDamage(int attackDamage) {
-        this.attackDamage = attackDamage;
+        setBase(UnitStat.ATTACK_DAMAGE, attackDamage);
     }
 
     @Override
@@ -105,7 +113,7 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public void setAbilityPower(int abilityPower) {
-        this.abilityPower = abilityPower;
+        setBase(UnitStat.ABILITY_POWER, abilityPower);
     }
 
     @Override
@@ -115,7 +123,7 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public void setArmor(int armor) {
-        this.armor = armor;
+        setBase(UnitStat.ARMOR, armor);
     }
 
     @Override
@@ -125,7 +133,7 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public void setMagicResist(int magicResist) {
-        this.magicResist = magicResist;
+        setBase(UnitStat.MAGIC_RESIST, magicResist);
     }
 
     @Override
@@ -135,18 +143,18 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public void setAttackSpeed(float attackSpeed) {
-        this.attackSpeed = attackSpeed;
+        setBase(UnitStat.ATTACK_SPEED, attackSpeed);
     }
 
     @Override
     public int getRange() {
-        return range;
+        return stats.range();
     }
 
     @Override
     @NonNull
     public Set<String> getTraits() {
-        return traits;
+        return definition.traitSet();
     }
 
     @Override
@@ -191,7 +199,59 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     @Override
     public List<GameItem> getItems() {
-        return items;
+        return Collections.unmodifiableList(items);
+    }
+
+    @Override
+    public void equipItem(GameItem item) {
+        if (items.isEmpty()) items = new ArrayList<>();
+        items.add(item);
+        var deltas = new float[UnitStat.COUNT];
+        for (var equipped : items) {
+            equipped.getStatBonuses().forEach((key, bonus) -> {
+                var stat = UnitStat.byKey(key);
+                if (stat != null && stat != UnitStat.MANA) deltas[stat.ordinal()] += bonus;
+            });
+        }
+        setStatLayer(StatLayer.ITEM, deltas);
+    }
+
+    @Override
+    public void setStatLayer(StatLayer layer, float[] deltas) {
+        var previousMaxHealth = maxHealth;
+        if (layers == null) layers = new float[StatLayer.COUNT * UnitStat.COUNT];
+        System.arraycopy(deltas, 0, layers, layer.ordinal() * UnitStat.COUNT, UnitStat.COUNT);
+        refreshStats();
+        this.currentHealth += maxHealth - previousMaxHealth;
+    }
+
+    // Setters keep the layers and move the base so that the effective value becomes the given one
+    private void setBase(UnitStat stat, float value) {
+        var layered = 0f;
+        for (var layer = 0; layers != null && layer < StatLayer.COUNT; layer++) {
+            layered += layers[layer * UnitStat.COUNT + stat.ordinal()];
+        }
+        var updated = base.clone();
+        updated[stat.ordinal()] = value - layered;
+        this.base = updated;
+        refreshStats();
+    }
+
+    private void refreshStats() {
+        this.maxHealth = (int) effective(UnitStat.MAX_HEALTH);
+        this.attackDamage = (int) effective(UnitStat.ATTACK_DAMAGE);
+        this.abilityPower = (int) effective(UnitStat.ABILITY_POWER);
+        this.armor = (int) effective(UnitStat.ARMOR);
+        this.magicResist = (int) effective(UnitStat.MAGIC_RESIST);
+        this.attackSpeed = effective(UnitStat.ATTACK_SPEED);
+    }
+
+    private float effective(UnitStat stat) {
+        var value = base[stat.ordinal()];
+        for (var layer = 0; layers != null && layer < StatLayer.COUNT; layer++) {
+            value += layers[layer * UnitStat.COUNT + stat.ordinal()];
+        }
+        return value;
     }
 
     @Override
@@ -212,21 +272,23 @@ public abstract class AbstractGameUnit implements GameUnit {
 
     private int planningX = -1;
     private int planningY = -1;
-    private int savedMaxHealth;
-    private float savedAttackSpeed;
+    private boolean planningSaved;
+    private int planningMana;
+    // Custom trait effects write through the setters, so the base is reverted along with the trait layer
+    private float[] savedBase;
 
-    private int stunTicksRemaining = 0;
+    private boolean stunned;
     private float atkBuff = 1.0f;
     private float spdBuff = 1.0f;
 
     @Override
-    public int getStunTicksRemaining() {
-        return stunTicksRemaining;
+    public boolean isStunned() {
+        return stunned;
     }
 
     @Override
-    public void setStunTicksRemaining(int ticks) {
-        this.stunTicksRemaining = ticks;
+    public void setStunned(boolean stunned) {
+        this.stunned = stunned;
     }
 
     @Override
@@ -253,8 +315,9 @@ public abstract class AbstractGameUnit implements GameUnit {
     public void savePlanningPosition() {
         this.planningX = x;
         this.planningY = y;
-        this.savedMaxHealth = maxHealth;
-        this.savedAttackSpeed = attackSpeed;
+        this.savedBase = base;
+        this.planningMana = mana;
+        this.planningSaved = true;
     }
 
     @Override
@@ -263,14 +326,18 @@ public abstract class AbstractGameUnit implements GameUnit {
             this.x = planningX;
             this.y = planningY;
         }
-        if (savedMaxHealth > 0) {
-            this.maxHealth = savedMaxHealth;
+        if (planningSaved) {
+            this.base = savedBase;
+            if (layers != null) {
+                var trait = StatLayer.TRAIT.ordinal() * UnitStat.COUNT;
+                Arrays.fill(layers, trait, trait + UnitStat.COUNT, 0f);
+            }
+            refreshStats();
             this.currentHealth = this.maxHealth;
+            // Mana gained in combat, including the trait bonus, does not carry into planning
+            this.mana = planningMana;
         }
-        if (savedAttackSpeed > 0) {
-            this.attackSpeed = savedAttackSpeed;
-        }
-        this.stunTicksRemaining = 0;
+        this.stunned = false;
         this.atkBuff = 1.0f;
         this.spdBuff = 1.0f;
     }
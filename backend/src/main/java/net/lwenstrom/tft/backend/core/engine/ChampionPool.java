@@ -0,0 +1,165 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import net.lwenstrom.tft.backend.core.random.AliasTable;
+import net.lwenstrom.tft.backend.core.random.RandomProvider;
+
+// The finite copies of every unit that all players of a room draw their shops from. Offered units leave the
+// pool until they are rerolled away or sold again. Counts are CAS-updated so shops of different players can
+// be rolled and bought from concurrently, and a roll allocates nothing.
+public final class ChampionPool {
+
+    public static final int TIERS = 5; // Cost 1..5, higher costs share the last tier
+    private static final int[] COPIES_PER_UNIT = {29, 22, 18, 12, 10};
+    // Shop odds in percent per player level (row) and cost tier (column); higher levels use the last row
+    private static final int[][] TIER_ODDS = {
+        {100, 0, 0, 0, 0},
+        {100, 0, 0, 0, 0},
+        {75, 25, 0, 0, 0},
+        {55, 30, 15, 0, 0},
+        {45, 33, 20, 2, 0},
+        {30, 40, 25, 5, 0},
+        {19, 35, 35, 10, 1},
+        {18, 25, 36, 18, 3},
+        {10, 20, 25, 35, 10}
+    };
+    // Random picks inside a tier before falling back to walking its counts, only reached when it is nearly empty
+    private static final int MAX_REJECTIONS = 8;
+    private static final AliasTable[] ODDS_BY_LEVEL = compileOdds();
+
+    private final UnitCatalog catalog;
+    private final int[] tierOf; // Indexed by catalog index, like the counts
+    private final int[][] unitsByTier;
+    private final AtomicIntegerArray remaining;
+    private final AtomicIntegerArray tierRemaining = new AtomicIntegerArray(TIERS);
+
+    public ChampionPool(UnitCatalog catalog) {
+        this.catalog = catalog;
+        tierOf = new int[catalog.size()];
+        remaining = new AtomicIntegerArray(catalog.size());
+
+        var byTier = new ArrayList<List<Integer>>();
+        for (var tier = 0; tier < TIERS; tier++) byTier.add(new ArrayList<>());
+        for (var i = 0; i < catalog.size(); i++) {
+            var tier = tierOf(catalog.get(i));
+            tierOf[i] = tier;
+            byTier.get(tier).add(i);
+            remaining.set(i, COPIES_PER_UNIT[tier]);
+            tierRemaining.addAndGet(tier, COPIES_PER_UNIT[tier]);
+        }
+        unitsByTier = new int[TIERS][];
+        for (var tier = 0; tier < TIERS; tier++) {
+            unitsByTier[tier] =
+                    byTier.get(tier).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public UnitCatalog catalog() {
+        return catalog;
+    }
+
+    // Takes one copy out of the pool for a shop slot, or returns null once the whole pool is drained
+    public UnitDefinition roll(int level, RandomProvider random) {
+        var row = Math.clamp(level, 1, TIER_ODDS.length) - 1;
+        var tier = stockedTier(ODDS_BY_LEVEL[row].sample(random));
+        while (tier >= 0) {
+            var unit = pick(tier, random);
+            if (unit >= 0) return catalog.get(unit);
+            // Another shop drained the tier meanwhile
+            tier = stockedTier(tier);
+        }
+        return null;
+    }
+
+    // Puts copies back, e.g. unbought shop offers or a sold 2-star (3 copies). Never exceeds the initial count.
+    public void release(String definitionId, int copies) {
+        var index = catalog.indexOf(definitionId);
+        if (index < 0 || copies <= 0) return;
+        var max = COPIES_PER_UNIT[tierOf[index]];
+        while (true) {
+            var current = remaining.get(index);
+            var added = Math.min(copies, max - current);
+            if (added <= 0) return;
+            if (remaining.compareAndSet(index, current, current + added)) {
+                tierRemaining.addAndGet(tierOf[index], added);
+                return;
+            }
+        }
+    }
+
+    // Takes one copy of a given unit, e.g. for a loot orb, so selling it later returns a copy that was taken
+    public boolean take(String definitionId) {
+        var index = catalog.indexOf(definitionId);
+        return index >= 0 && take(index);
+    }
+
+    // Sets a unit's copies left, e.g. from a room snapshot, clamped to its initial count
+    void restoreRemaining(String definitionId, int copies) {
+        var index = catalog.indexOf(definitionId);
+        if (index < 0) return;
+        var count = Math.clamp(copies, 0, COPIES_PER_UNIT[tierOf[index]]);
+        tierRemaining.addAndGet(tierOf[index], count - remaining.getAndSet(index, count));
+    }
+
+    public int remaining(String definitionId) {
+        var index = catalog.indexOf(definitionId);
+        return index >= 0 ? remaining.get(index) : 0;
+    }
+
+    // Weighted by copies left: a uniformly drawn unit is kept with probability remaining / initial copies
+    private int pick(int tier, RandomProvider random) {
+        var candidates = unitsByTier[tier];
+        for (var attempt = 0; attempt < MAX_REJECTIONS; attempt++) {
+            var unit = candidates[random.nextInt(candidates.length)];
+            if (random.nextInt(COPIES_PER_UNIT[tier]) < remaining.get(unit) && take(unit)) return unit;
+        }
+        var target = random.nextInt(Math.max(1, tierRemaining.get(tier)));
+        for (var unit : candidates) {
+            var left = remaining.get(unit);
+            if (target < left && take(unit)) return unit;
+            target -= left;
+        }
+        for (var unit : candidates) {
+            if (take(unit)) return unit;
+        }
+        return -1;
+    }
+
+    private boolean take(int unit) {
+        while (true) {
+            var current = remaining.get(unit);
+            if (current <= 0) return false;
+            if (remaining.compareAndSet(unit, current, current - 1)) {
+                tierRemaining.decrementAndGet(tierOf[unit]);
+                return true;
+            }
+        }
+    }
+
+    // An empty or missing tier hands its odds to the nearest cheaper tier with copies left, else the nearest dearer
+    private int stockedTier(int tier) {
+        for (var t = tier; t >= 0; t--) {
+            if (tierRemaining.get(t) > 0) return t;
+        }
+        for (var t = tier + 1; t < TIERS; t++) {
+            if (tierRemaining.get(t) > 0) return t;
+        }
+        return -1;
+    }
+
+    private static int tierOf(UnitDefinition def) {
+        return Math.clamp(def.cost(), 1, TIERS) - 1;
+    }
+
+    private static AliasTable[] compileOdds() {
+        var tables = new AliasTable[TIER_ODDS.length];
+        for (var level = 0; level < TIER_ODDS.length; level++) {
+            var weights = new double[TIERS];
+            for (var tier = 0; tier < TIERS; tier++) weights[tier] = TIER_ODDS[level][tier];
+            tables[level] = new AliasTable(weights);
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,100 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.lwenstrom.tft.backend.core.combat.StatusEffects;
+import net.lwenstrom.tft.backend.core.model.GameState;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.time.Clock;
+
+// Everything one matchup mutates while it is fought: the roster taken when it starts, the status effects, the
+// events of the current tick and the damage dealt per unit. Matchups share nothing through the CombatSystem,
+// so each can be stepped on its own.
+public final class CombatContext {
+
+    // Two full boards attacking every tick, with room for ability splashes
+    private static final int EVENT_CAPACITY = 256;
+
+    private final List<Player> participants;
+    private final List<GameUnit> units;
+    private final StatusEffects statusEffects;
+    private final Map<GameUnit, Integer> slots = new IdentityHashMap<>();
+    private final CombatEventLog events = new CombatEventLog(EVENT_CAPACITY);
+    // Damage dealt by the unit in the same slot of units; changed marks slots not yet handed out by collectDamage
+    private final int[] damage;
+    private final boolean[] dealt;
+    private final boolean[] changed;
+
+    CombatContext(List<Player> participants, Clock clock) {
+        this.participants = List.copyOf(participants);
+        var units = new ArrayList<GameUnit>();
+        for (var player : this.participants) {
+            units.addAll(player.getBoardUnits());
+        }
+        this.units = units;
+        for (var slot = 0; slot < units.size(); slot++) {
+            slots.put(units.get(slot), slot);
+        }
+        this.statusEffects = new StatusEffects(clock);
+        this.damage = new int[units.size()];
+        this.dealt = new boolean[units.size()];
+        this.changed = new boolean[units.size()];
+    }
+
+    public List<Player> participants() {
+        return participants;
+    }
+
+    List<GameUnit> units() {
+        return units;
+    }
+
+    StatusEffects statusEffects() {
+        return statusEffects;
+    }
+
+    CombatEventLog events() {
+        return events;
+    }
+
+    int slotOf(GameUnit unit) {
+        return slots.get(unit);
+    }
+
+    // Builds the records of this tick's events, only when a frame for clients is put together
+    public void encodeEvents(List<GameState.CombatEvent> into) {
+        events.encodeTick(units, into);
+    }
+
+    void addDamage(int slot, int amount) {
+        damage[slot] += amount;
+        dealt[slot] = true;
+        changed[slot] = true;
+    }
+
+    // Damage per unit id for every unit that has hit (or healed) anything
+    public Map<String, CombatSystem.DamageEntry> getDamageLog() {
+        var log = new LinkedHashMap<String, CombatSystem.DamageEntry>();
+        for (var slot = 0; slot < damage.length; slot++) {
+            if (dealt[slot]) log.put(units.get(slot).getId(), entry(slot));
+        }
+        return log;
+    }
+
+    // Puts the entries that changed since the last call, so a live damage meter is not rebuilt every tick
+    public void collectDamage(Map<String, CombatSystem.DamageEntry> into) {
+        for (var slot = 0; slot < damage.length; slot++) {
+            if (!changed[slot]) continue;
+            changed[slot] = false;
+            into.put(units.get(slot).getId(), entry(slot));
+        }
+    }
+
+    private CombatSystem.DamageEntry entry(int slot) {
+        var unit = units.get(slot);
+        return new CombatSystem.DamageEntry(unit.getName(), unit.getDefinitionId(), unit.getOwnerId(), damage[slot]);
+    }
+}
@@ -0,0 +1,68 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.List;
+import net.lwenstrom.tft.backend.core.model.GameState;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+
+// Events of one combat as parallel primitive columns in a ring. Recording a hit only writes array slots; the
+// CombatEvent records clients receive are built when a frame is encoded. Units are referenced by their slot in
+// the combat roster. Once more events than the capacity are recorded in one tick, the oldest of them are lost.
+final class CombatEventLog {
+
+    enum Type {
+        DAMAGE,
+        SKILL
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private final int mask;
+    private final long[] times;
+    private final byte[] types;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] values;
+    private long written;
+    private long tickStart;
+
+    CombatEventLog(int capacity) {
+        var size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.times = new long[size];
+        this.types = new byte[size];
+        this.sources = new int[size];
+        this.targets = new int[size];
+        this.values = new int[size];
+    }
+
+    void beginTick() {
+        tickStart = written;
+    }
+
+    void add(long time, Type type, int source, int target, int value) {
+        var i = (int) (written++ & mask);
+        times[i] = time;
+        types[i] = (byte) type.ordinal();
+        sources[i] = source;
+        targets[i] = target;
+        values[i] = value;
+    }
+
+    // Events recorded since beginTick that are still in the ring
+    int tickSize() {
+        return (int) (written - Math.max(tickStart, written - times.length));
+    }
+
+    // Encodes this tick's events, oldest first, resolving slots against the roster they were recorded with
+    void encodeTick(List<GameUnit> units, List<GameState.CombatEvent> into) {
+        for (var seq = written - tickSize(); seq < written; seq++) {
+            var i = (int) (seq & mask);
+            into.add(new GameState.CombatEvent(
+                    times[i],
+                    TYPES[types[i]].name(),
+                    units.get(sources[i]).getId(),
+                    units.get(targets[i]).getId(),
+                    values[i]));
+        }
+    }
+}
@@ -2,27 +2,29 @@ package net.lwenstrom.tft.backend.core.engine;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import net.lwenstrom.tft.backend.core.combat.AbilityCaster;
+import net.lwenstrom.tft.backend.core.combat.CombatTrace;
 import net.lwenstrom.tft.backend.core.combat.CombatUtils;
 import net.lwenstrom.tft.backend.core.combat.TargetSelector;
 import net.lwenstrom.tft.backend.core.combat.UnitMover;
-import net.lwenstrom.tft.backend.core.model.GameState;
-import net.lwenstrom.tft.backend.core.model.GameUnit;
 import net.lwenstrom.tft.backend.core.time.Clock;
 
+// The combat rules. It holds no state of its own; whatever a matchup changes lives in its CombatContext, so one
+// instance serves every matchup of a room.
 public class CombatSystem {
 
+    private static final CombatResult ONGOING = new CombatResult(false, null, Map.of());
+
     private final TraitManager traitManager;
     private final Clock clock;
     private final TargetSelector targetSelector;
     private final UnitMover unitMover;
     private final AbilityCaster abilityCaster;
-
-    private Map<String, DamageEntry> damageLog = new HashMap<>();
-    private List<GameState.CombatEvent> recentEvents = new ArrayList<>();
+    private final CombatTrace trace;
 
     public record DamageEntry(String unitName, String definitionId, String ownerId, int damage) {}
 
@@ -32,41 +34,43 @@ public class CombatSystem {
             TargetSelector targetSelector,
             UnitMover unitMover,
             AbilityCaster abilityCaster) {
+        this(traitManager, clock, targetSelector, unitMover, abilityCaster, CombatTrace.DISABLED);
+    }
+
+    public CombatSystem(
+            TraitManager traitManager,
+            Clock clock,
+            TargetSelector targetSelector,
+            UnitMover unitMover,
+            AbilityCaster abilityCaster,
+            CombatTrace trace) {
         this.traitManager = traitManager;
         this.clock = clock;
         this.targetSelector = targetSelector;
         this.unitMover = unitMover;
         this.abilityCaster = abilityCaster;
+        this.trace = trace;
     }
 
-    private void accumulateDamage(String unitId, String unitName, String defId, String ownerId, int damage) {
-        damageLog.compute(
-                unitId,
-                (k, v) -> v == null
-                        ? new DamageEntry(unitName, defId, ownerId, damage)
-                        : new DamageEntry(unitName, defId, ownerId, v.damage() + damage));
+    // A context over the boards as they are, for fights whose units are already in combat position
+    public CombatContext newContext(List<Player> participants) {
+        return new CombatContext(participants, clock);
     }
 
-    public Map<String, DamageEntry> getDamageLog() {
-        return new HashMap<>(damageLog);
-    }
-
-    public void startCombat(java.util.Collection<Player> players) {
-        damageLog.clear();
-        recentEvents.clear();
-
+    // Moves both boards into arena position, applies traits and returns the matchup's context
+    public CombatContext startCombat(java.util.Collection<Player> players) {
         var sortedPlayers = new ArrayList<Player>(players);
         sortedPlayers.sort(Comparator.comparing(Player::getId));
 
         if (sortedPlayers.isEmpty()) {
-            return;
+            return newContext(List.of());
         }
 
         for (var player : players) {
             for (var unit : player.getBoardUnits()) {
                 unit.savePlanningPosition();
             }
-            traitManager.applyTraits(player.getBoardUnits());
+            traitManager.applyTraits(player.getTraitCounter().counts(), player.getBoardUnits());
         }
 
         if (sortedPlayers.size() > 1) {
@@ -76,7 +80,7 @@ public class CombatSystem {
                 int newX = unit.getX();
                 int newY = (Grid.PLAYER_ROWS - 1) - unit.getY();
                 unit.setPosition(newX, newY);
-                System.out.println("CombatPos: " + unit.getName() + " (TOP) -> " + newX + "," + newY);
+                trace.placed(clock.currentTimeMillis(), unit.getName(), "TOP", newX, newY);
             }
 
             var p2 = sortedPlayers.get(1);
@@ -84,7 +88,7 @@ public class CombatSystem {
             for (var u : p2.getBoardUnits()) {
                 int newY = Grid.PLAYER_ROWS + u.getY();
                 u.setPosition(u.getX(), newY);
-                System.out.println("CombatPos: " + u.getName() + " (BOT) -> " + u.getX() + "," + newY);
+                trace.placed(clock.currentTimeMillis(), u.getName(), "BOTTOM", u.getX(), newY);
             }
         } else {
             var p1 = sortedPlayers.get(0);
@@ -92,12 +96,14 @@ public class CombatSystem {
             for (var unit : p1.getBoardUnits()) {
                 int newY = Grid.PLAYER_ROWS + unit.getY();
                 unit.setPosition(unit.getX(), newY);
+                trace.placed(clock.currentTimeMillis(), unit.getName(), "BOTTOM", unit.getX(), newY);
             }
         }
+        return newContext(List.copyOf(players));
     }
 
     public void endCombat(java.util.Collection<Player> players) {
-        System.out.println("Restoring units for " + players.size() + " players.");
+        trace.restored(clock.currentTimeMillis(), players.size());
         for (var player : players) {
             player.setCombatSide(null);
             for (var unit : player.getBoardUnits()) {
@@ -106,22 +112,39 @@ public class CombatSystem {
         }
     }
 
-    public CombatResult simulateTick(List<Player> participants) {
-        var currentTime = clock.currentTimeMillis();
-        var allUnits = new ArrayList<GameUnit>();
-        participants.forEach(p -> allUnits.addAll(p.getBoardUnits()));
-        recentEvents.clear();
-
-        var snapshot = new ArrayList<>(allUnits);
+    // Steps every matchup once, as one task each on the work-stealing pool. Contexts share no mutable state, so
+    // the order the pool runs them in cannot change the outcome. Returns once all have ticked, in matchup order.
+    public List<CombatResult> simulateTicks(List<CombatContext> contexts, ForkJoinPool pool) {
+        if (contexts.isEmpty()) return List.of();
+        if (contexts.size() == 1) return List.of(simulateTick(contexts.getFirst()));
+        var tasks = new ArrayList<ForkJoinTask<CombatResult>>(contexts.size());
+        for (var context : contexts) {
+            tasks.add(ForkJoinTask.adapt(() -> simulateTick(context)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        var results = new ArrayList<CombatResult>(tasks.size());
+        for (var task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
 
-        for (var unit : snapshot) {
+    public CombatResult simulateTick(CombatContext context) {
+        var currentTime = clock.currentTimeMillis();
+        var allUnits = context.units();
+        var events = context.events();
+        var statusEffects = context.statusEffects();
+        events.beginTick();
+        statusEffects.expire();
+
+        for (var slot = 0; slot < allUnits.size(); slot++) {
+            var unit = allUnits.get(slot);
             if (unit.getCurrentHealth() <= 0) {
                 continue;
             }
 
-            // Handle stunned units - skip their turn and decrement stun counter
-            if (unit.getStunTicksRemaining() > 0) {
-                unit.setStunTicksRemaining(unit.getStunTicksRemaining() - 1);
+            // Stunned units skip their turn until the stun expires
+            if (unit.isStunned()) {
                 continue;
             }
 
@@ -132,9 +155,10 @@ public class CombatSystem {
             unit.setActiveAbility(null);
 
             if (unit.getMaxMana() > 0 && unit.getMana() >= unit.getMaxMana()) {
-                abilityCaster.castAbility(unit, allUnits, targetSelector, (uId, uName, tId, dmg) -> {
-                    accumulateDamage(uId, uName, unit.getDefinitionId(), unit.getOwnerId(), dmg);
-                    recentEvents.add(new GameState.CombatEvent(currentTime, "SKILL", uId, tId, dmg));
+                var caster = slot;
+                abilityCaster.castAbility(unit, allUnits, targetSelector, statusEffects, (source, hit, dmg) -> {
+                    context.addDamage(caster, dmg);
+                    events.add(currentTime, CombatEventLog.Type.SKILL, caster, context.slotOf(hit), dmg);
                 });
                 unit.setMana(0);
                 unit.setNextAttackTime(currentTime + 1000);
@@ -148,12 +172,11 @@ public class CombatSystem {
                     // Apply ATK buff multiplier to damage
                     int baseDamage = unit.getAttackDamage();
                     int effectiveDamage = (int) (baseDamage * unit.getAtkBuff());
-                    System.out.println(unit.getName() + " attacks " + target.getName() + " for " + effectiveDamage);
                     target.takeDamage(effectiveDamage);
-                    accumulateDamage(
-                            unit.getId(), unit.getName(), unit.getDefinitionId(), unit.getOwnerId(), effectiveDamage);
-                    recentEvents.add(new GameState.CombatEvent(
-                            currentTime, "DAMAGE", unit.getId(), target.getId(), effectiveDamage));
+                    trace.attacked(
+                            currentTime, unit.getName(), target.getName(), effectiveDamage, target.getCurrentHealth());
+                    context.addDamage(slot, effectiveDamage);
+                    events.add(currentTime, CombatEventLog.Type.DAMAGE, slot, context.slotOf(target), effectiveDamage);
                     unit.gainMana(10);
                     // Apply SPD buff to attack cooldown
                     float as = Math.max(0.1f, unit.getAttackSpeed());
@@ -166,22 +189,29 @@ public class CombatSystem {
             }
         }
 
-        long playersWithUnits = participants.stream()
-                .filter(p -> p.getBoardUnits().stream().anyMatch(u -> u.getCurrentHealth() > 0))
-                .count();
+        Player winner = null;
+        var playersWithUnits = 0;
+        for (var player : context.participants()) {
+            if (!hasLivingUnit(player)) continue;
+            playersWithUnits++;
+            if (winner == null) winner = player;
+        }
 
         if (playersWithUnits <= 1) {
-            Player winner = participants.stream()
-                    .filter(p -> p.getBoardUnits().stream().anyMatch(u -> u.getCurrentHealth() > 0))
-                    .findFirst()
-                    .orElse(null);
-
-            return new CombatResult(true, winner != null ? winner.getId() : null, getDamageLog(), List.of());
+            return new CombatResult(true, winner != null ? winner.getId() : null, context.getDamageLog());
         }
 
-        return new CombatResult(false, null, Map.of(), new ArrayList<>(recentEvents));
+        // This tick's events stay in the context until a frame is encoded
+        return ONGOING;
+    }
+
+    private static boolean hasLivingUnit(Player player) {
+        var board = player.getBoardUnits();
+        for (var i = 0; i < board.size(); i++) {
+            if (board.get(i).getCurrentHealth() > 0) return true;
+        }
+        return false;
     }
 
-    public record CombatResult(
-            boolean ended, String winnerId, Map<String, DamageEntry> damageLog, List<GameState.CombatEvent> events) {}
+    public record CombatResult(boolean ended, String winnerId, Map<String, DamageEntry> damageLog) {}
 }
@@ -0,0 +1,47 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import net.lwenstrom.tft.backend.core.combat.CombatTrace;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// The game.trace, game.journal, game.snapshot and game.wal settings of GameEngine. A blank directory turns that
+// store off, so by default rooms live in memory only.
+@ConfigurationProperties("game")
+public record EngineProperties(
+        @DefaultValue Trace trace,
+        @DefaultValue Journal journal,
+        @DefaultValue Snapshot snapshot,
+        @DefaultValue Wal wal) {
+
+    public static final EngineProperties DEFAULTS = new EngineProperties(
+            new Trace(CombatTrace.Level.OFF, 1), new Journal(""), new Snapshot("", 1000), new Wal("", 4, 64 << 20));
+
+    // Level and attack sampling that new rooms start with
+    public record Trace(
+            @DefaultValue("OFF") CombatTrace.Level level,
+            @DefaultValue("1") int sampleEvery) {}
+
+    // Directory for one input journal per room, replayable with JournalReplayRunner
+    public record Journal(String dir) {
+        public Journal {
+            if (dir == null) dir = "";
+        }
+    }
+
+    // Directory for the latest binary snapshot of every room, restored at startup
+    public record Snapshot(String dir, @DefaultValue("1000") long intervalMs) {
+        public Snapshot {
+            if (dir == null) dir = "";
+        }
+    }
+
+    // Directory for the write-ahead log of all rooms, replayed onto their snapshots at startup
+    public record Wal(
+            String dir,
+            @DefaultValue("4") int shards,
+            @DefaultValue("67108864") int segmentBytes) {
+        public Wal {
+            if (dir == null) dir = "";
+        }
+    }
+}
@@ -1,36 +1,177 @@
 package net.lwenstrom.tft.backend.core.engine;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import net.lwenstrom.tft.backend.core.DataLoader;
 import net.lwenstrom.tft.backend.core.GameModeRegistry;
+import net.lwenstrom.tft.backend.core.RoomFiles;
+import net.lwenstrom.tft.backend.core.combat.CombatTrace;
+import net.lwenstrom.tft.backend.core.journal.RoomJournal;
+import net.lwenstrom.tft.backend.core.journal.WriteAheadLog;
+import net.lwenstrom.tft.backend.core.model.GameMode;
 import net.lwenstrom.tft.backend.core.random.RandomProvider;
+import net.lwenstrom.tft.backend.core.random.RoomRandom;
+import net.lwenstrom.tft.backend.core.snapshot.RoomSnapshotStore;
 import net.lwenstrom.tft.backend.core.time.Clock;
+import net.lwenstrom.tft.backend.core.time.RecoveredClock;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class GameEngine {
 
     private final DataLoader dataLoader;
     private final GameModeRegistry gameModeRegistry;
     private final Clock clock;
     private final RandomProvider randomProvider;
+    private final EngineProperties properties;
     private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
 
+    private RoomSnapshotStore snapshots;
+    private WriteAheadLog wal;
+    private final Map<String, Long> snapshotChanges = new ConcurrentHashMap<>(); // Change count last saved
+    private long lastSnapshotSweep;
+
+    // A room brought back at startup, on its own clock until its log tail is applied
+    private record Recovered(GameRoom room, RecoveredClock clock, long sequence) {}
+
+    // Runs before the web server starts, so no client reaches a room before every saved one is back. Each room
+    // starts from its snapshot, or from its seed when the log still has its opening, and then applies what the
+    // log holds after that; rooms the log saw end stay gone.
+    @PostConstruct
+    public void restoreRooms() throws IOException {
+        var snapshotConfig = properties.snapshot();
+        var walConfig = properties.wal();
+        if (!snapshotConfig.dir().isBlank()) snapshots = new RoomSnapshotStore(Path.of(snapshotConfig.dir()));
+        if (!walConfig.dir().isBlank())
+            wal = WriteAheadLog.open(Path.of(walConfig.dir()), walConfig.shards(), walConfig.segmentBytes());
+        if (snapshots == null && wal == null) return;
+        var start = System.nanoTime();
+        var tails = wal != null ? wal.recovered() : Map.<String, WriteAheadLog.RoomTail>of();
+        var saved = snapshots != null ? snapshots.loadAll() : List.<byte[]>of();
+        var recovered = new ConcurrentHashMap<String, Recovered>();
+        saved.parallelStream()
+                .map(this::decode)
+                .filter(Objects::nonNull)
+                .forEach(r -> recovered.put(r.room().getId(), r));
+        tails.forEach((id, tail) -> {
+            if (recovered.containsKey(id) || !tail.created()) return;
+            var roomClock = new RecoveredClock(clock, tail.createdAt());
+            var room = new GameRoom(id, dataLoader, tail.mode(), roomClock, RoomRandom.fromSeed(tail.seed()));
+            recovered.put(id, new Recovered(room, roomClock, 0));
+        });
+
+        var replayed = recovered.values().parallelStream()
+                .map(r -> replay(r, tails.get(r.room().getId())))
+                .filter(Objects::nonNull)
+                .toList();
+        for (var r : replayed) {
+            var room = r.room();
+            var tail = tails.get(room.getId());
+            if ((tail != null && tail.closed()) || room.isEnded()) {
+                room.close();
+                if (snapshots != null) snapshots.delete(room.getId());
+                continue;
+            }
+            rooms.put(room.getId(), room);
+            configureTrace(room);
+            if (wal != null) {
+                // The log continues the room's numbering; the next sweep snapshots it, so the old segments can go
+                room.setWal(wal.attach(room.getId(), room.getMode(), room.getSeed(), r.sequence(), room.time()));
+            } else {
+                snapshotChanges.put(room.getId(), room.getChangeCount());
+            }
+        }
+        log.info("Restored {} rooms in {} ms", rooms.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Recovered decode(byte[] snapshot) {
+        try {
+            var header = RoomSnapshotCodec.header(snapshot);
+            var capturedAt = header.capturedAt() >= 0 ? header.capturedAt() : clock.currentTimeMillis();
+            var roomClock = new RecoveredClock(clock, capturedAt);
+            return new Recovered(
+                    RoomSnapshotCodec.decode(snapshot, dataLoader, roomClock), roomClock, header.sequence());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping room snapshot that does not decode", e);
+            return null;
+        }
+    }
+
+    private Recovered replay(Recovered recovered, WriteAheadLog.RoomTail tail) {
+        var sequence = recovered.sequence();
+        try {
+            if (tail != null)
+                sequence = Math.max(tail.replay(recovered.room(), recovered.clock(), sequence), tail.lastSequence());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not replay the log of room {}", recovered.room().getId(), e);
+            return null;
+        }
+        recovered.clock().resume();
+        return new Recovered(recovered.room(), recovered.clock(), sequence);
+    }
+
+    // Saves every room that can still be saved, then waits for the writes, so a deploy keeps the running games
+    @PreDestroy
+    public void shutdown() {
+        if (snapshots != null) {
+            saveSnapshots();
+            snapshots.close();
+        }
+        if (wal != null) wal.close();
+    }
+
     public GameRoom createRoom() {
         return createRoom(UUID.randomUUID().toString());
     }
 
     public GameRoom createRoom(String id) {
-        var room = new GameRoom(id, dataLoader, gameModeRegistry, clock, randomProvider);
+        return createRoom(id, gameModeRegistry.getActiveMode());
+    }
+
+    // Rooms of different modes run side by side; each shares its mode's catalog and traits with the others.
+    // The shared provider is only touched here for the room seed; the room then draws from its own streams.
+    public GameRoom createRoom(String id, GameMode mode) {
+        return createRoom(id, mode, randomProvider.getRandom().nextLong());
+    }
+
+    // A taken id is refused: the live room owns the journal file, trace and log state kept under that id.
+    // Synchronized so two creates of one id cannot both pass the check.
+    public synchronized GameRoom createRoom(String id, GameMode mode, long seed) {
+        if (rooms.containsKey(id)) throw new IllegalArgumentException("Room already exists: " + id);
+        var room = new GameRoom(id, dataLoader, mode, clock, RoomRandom.fromSeed(seed));
+        configureTrace(room);
+        if (!properties.journal().dir().isBlank()) openJournal(room, mode, seed);
+        if (wal != null) room.setWal(wal.open(room.getId(), mode, seed, room.time()));
         rooms.put(room.getId(), room);
         return room;
     }
 
+    private void configureTrace(GameRoom room) {
+        var trace = properties.trace();
+        if (trace.level() != CombatTrace.Level.OFF) room.getTrace().configure(trace.level(), trace.sampleEvery());
+    }
+
+    private void openJournal(GameRoom room, GameMode mode, long seed) {
+        var file = Path.of(properties.journal().dir(), RoomFiles.safeName(room.getId()) + ".journal");
+        try {
+            room.setJournal(RoomJournal.create(file, room.getId(), mode, seed, clock.currentTimeMillis()));
+        } catch (IOException e) {
+            log.warn("Could not open journal {} for room {}", file, room.getId(), e);
+        }
+    }
+
     public GameRoom getRoom(String id) {
         return rooms.get(id);
     }
@@ -40,12 +181,63 @@ public class GameEngine {
     }
 
     public void removeRoom(String id) {
-        rooms.remove(id);
+        var room = rooms.remove(id);
+        if (room != null) drop(room);
     }
 
     public void tick() {
         rooms.values().forEach(GameRoom::tick);
         // Remove ended games
-        rooms.entrySet().removeIf(entry -> entry.getValue().isEnded());
+        rooms.entrySet().removeIf(entry -> {
+            if (!entry.getValue().isEnded()) return false;
+            drop(entry.getValue());
+            return true;
+        });
+
+        // Group commit: one flush of the log per tick for everything every room did
+        if (wal != null) wal.commit();
+
+        var now = clock.currentTimeMillis();
+        if (snapshots != null
+                && now - lastSnapshotSweep >= properties.snapshot().intervalMs()) {
+            lastSnapshotSweep = now;
+            saveSnapshots();
+        }
+    }
+
+    // Encodes the rooms that changed since their last snapshot on this thread, which only takes memory; the
+    // store writes the files on its own thread. The room's lock keeps its state and log sequence in step.
+    private void saveSnapshots() {
+        for (var room : rooms.values()) {
+            var changes = room.getChangeCount();
+            var saved = snapshotChanges.get(room.getId());
+            if (saved != null && saved == changes) continue;
+            try {
+                byte[] snapshot;
+                long sequence;
+                synchronized (room) {
+                    if (!room.isSnapshottable()) continue;
+                    sequence = wal != null ? wal.sequence(room.getId()) : 0;
+                    snapshot = RoomSnapshotCodec.encode(room, sequence);
+                }
+                if (wal != null) {
+                    snapshots.save(room.getId(), snapshot, () -> wal.snapshotted(room.getId(), sequence));
+                } else {
+                    snapshots.save(room.getId(), snapshot);
+                }
+                snapshotChanges.put(room.getId(), changes);
+            } catch (RuntimeException e) {
+                log.warn("Could not snapshot room {}", room.getId(), e);
+            }
+        }
+    }
+
+    private void drop(GameRoom room) {
+        room.close();
+        if (wal != null) wal.closeRoom(room.getId(), room.time());
+        if (snapshots != null) {
+            snapshots.delete(room.getId());
+            snapshotChanges.remove(room.getId());
+        }
     }
 }
@@ -7,13 +7,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import net.lwenstrom.tft.backend.core.CatalogSnapshot;
 import net.lwenstrom.tft.backend.core.DataLoader;
 import net.lwenstrom.tft.backend.core.GameModeRegistry;
 import net.lwenstrom.tft.backend.core.combat.BfsUnitMover;
+import net.lwenstrom.tft.backend.core.combat.CombatTrace;
 import net.lwenstrom.tft.backend.core.combat.DefaultAbilityCaster;
 import net.lwenstrom.tft.backend.core.combat.NearestEnemyTargetSelector;
+import net.lwenstrom.tft.backend.core.journal.RoomInputLog;
+import net.lwenstrom.tft.backend.core.journal.RoomJournal;
+import net.lwenstrom.tft.backend.core.model.GameAction;
+import net.lwenstrom.tft.backend.core.model.GameMode;
 import net.lwenstrom.tft.backend.core.model.GamePhase;
 import net.lwenstrom.tft.backend.core.model.GameState;
 import net.lwenstrom.tft.backend.core.model.GameState.PlayerState;
@@ -21,6 +29,8 @@ import net.lwenstrom.tft.backend.core.model.GameUnit;
 import net.lwenstrom.tft.backend.core.model.LootOrb;
 import net.lwenstrom.tft.backend.core.model.LootType;
 import net.lwenstrom.tft.backend.core.random.RandomProvider;
+import net.lwenstrom.tft.backend.core.random.RoomRandom;
+import net.lwenstrom.tft.backend.core.random.SplittableRandomProvider;
 import net.lwenstrom.tft.backend.core.time.Clock;
 
 @Slf4j
@@ -32,7 +42,7 @@ public class GameRoom {
     private final DataLoader dataLoader;
     private final Map<String, Player> players = new ConcurrentHashMap<>();
     private final Map<String, String> currentMatchups = new ConcurrentHashMap<>();
-    private final List<List<Player>> activeCombats = new ArrayList<>();
+    private final List<CombatContext> activeCombats = new ArrayList<>();
 
     private GamePhase phase = GamePhase.LOBBY;
     private long phaseEndTime;
@@ -40,11 +50,20 @@ public class GameRoom {
 
     private long currentPhaseDuration;
 
-    private final GameModeRegistry gameModeRegistry;
+    private final GameMode mode;
     private final Clock clock;
-    private final RandomProvider randomProvider;
+    private final RoomRandom random;
     private final TraitManager traitManager;
+    private final IdAllocator ids = new IdAllocator();
+    private final CatalogSnapshot catalog; // Pinned at creation; a reload only reaches rooms created after it
+    private final ChampionPool championPool;
+    private final CombatTrace trace;
+    private RoomJournal journal = RoomJournal.DISABLED;
+    private RoomInputLog wal = RoomInputLog.NONE;
+    private RoomInputLog inputs = RoomInputLog.NONE; // The journal and the write-ahead log, when set
+    private final AtomicLong changes = new AtomicLong(); // Inputs and phase changes, tells a snapshot what is new
     private final CombatSystem combatSystem;
+    private final ForkJoinPool combatPool = ForkJoinPool.commonPool();
     private final List<GameState.CombatEvent> lastTickEvents = new ArrayList<>();
     private final Map<String, CombatSystem.DamageEntry> currentRoundDamageLog = new ConcurrentHashMap<>();
 
@@ -60,6 +79,48 @@ public class GameRoom {
                 Map<String, CombatSystem.DamageEntry> damageLog);
     }
 
+    public GameMode getMode() {
+        return mode;
+    }
+
+    public long getCatalogVersion() {
+        return catalog.version();
+    }
+
+    public long getSeed() {
+        return random.seed();
+    }
+
+    public CombatTrace getTrace() {
+        return trace;
+    }
+
+    public RoomJournal getJournal() {
+        return journal;
+    }
+
+    // Records every input from here on; set before the first player joins to get a journal that replays
+    public synchronized void setJournal(RoomJournal journal) {
+        this.journal = journal;
+        updateInputs();
+    }
+
+    public synchronized void setWal(RoomInputLog wal) {
+        this.wal = wal;
+        updateInputs();
+    }
+
+    // The shared disabled journal synchronizes on itself, so it must never sit in the input path of a room
+    private void updateInputs() {
+        this.inputs = RoomInputLog.both(journal == RoomJournal.DISABLED ? RoomInputLog.NONE : journal, wal);
+    }
+
+    // Stops tracing and journaling once the room is dropped
+    public void close() {
+        trace.close();
+        journal.close();
+    }
+
     public void setCombatResultListener(CombatResultListener listener) {
         this.combatResultListener = listener;
     }
@@ -70,20 +131,31 @@ public class GameRoom {
             GameModeRegistry gameModeRegistry,
             Clock clock,
             RandomProvider randomProvider) {
+        this(id, dataLoader, gameModeRegistry.getActiveMode(), clock, randomProvider);
+    }
+
+    public GameRoom(String id, DataLoader dataLoader, GameMode mode, Clock clock, RandomProvider randomProvider) {
+        this(id, dataLoader, mode, clock, RoomRandom.shared(randomProvider));
+    }
+
+    public GameRoom(String id, DataLoader dataLoader, GameMode mode, Clock clock, RoomRandom random) {
         this.id = id;
         this.dataLoader = dataLoader;
-        this.gameModeRegistry = gameModeRegistry;
+        this.mode = mode;
         this.clock = clock;
-        this.randomProvider = randomProvider;
+        this.random = random;
 
-        this.traitManager = new TraitManager();
-        gameModeRegistry.getActiveProvider().registerTraitEffects(this.traitManager);
+        this.catalog = dataLoader.getSnapshot(mode);
+        this.championPool = new ChampionPool(catalog.units());
+        this.traitManager = catalog.traitManager(); // Compiled once per mode and version, only read by rooms
+        this.trace = new CombatTrace(id);
         this.combatSystem = new CombatSystem(
                 traitManager,
                 clock,
                 new NearestEnemyTargetSelector(),
                 new BfsUnitMover(clock),
-                new DefaultAbilityCaster());
+                new DefaultAbilityCaster(),
+                trace);
 
         this.round = 0;
 
@@ -98,7 +170,7 @@ public class GameRoom {
                 new HashMap<>(),
                 new ArrayList<>(),
                 new HashMap<>(),
-                gameModeRegistry.getActiveMode());
+                mode);
 
         // In LOBBY, no timer runs until startMatch is called
         this.phaseEndTime = Long.MAX_VALUE;
@@ -108,6 +180,68 @@ public class GameRoom {
         return id;
     }
 
+    public long getChangeCount() {
+        return changes.get();
+    }
+
+    // Only rooms outside combat are snapshotted; a combat restarts from the board it began with
+    public boolean isSnapshottable() {
+        return phase != GamePhase.COMBAT && random.shop() instanceof SplittableRandomProvider;
+    }
+
+    // State a snapshot reads and restores, for RoomSnapshotCodec
+    RoomRandom random() {
+        return random;
+    }
+
+    IdAllocator ids() {
+        return ids;
+    }
+
+    ChampionPool championPool() {
+        return championPool;
+    }
+
+    GamePhase phase() {
+        return phase;
+    }
+
+    int round() {
+        return round;
+    }
+
+    String hostId() {
+        return hostId;
+    }
+
+    long phaseDuration() {
+        return currentPhaseDuration;
+    }
+
+    // Time left in the phase, or -1 while the lobby waits for the start
+    long phaseRemaining() {
+        return phaseEndTime == Long.MAX_VALUE ? -1 : Math.max(0, phaseEndTime - clock.currentTimeMillis());
+    }
+
+    // The room's own time, which is behind wall time after a restore
+    long time() {
+        return clock.currentTimeMillis();
+    }
+
+    Player newPlayer(String playerId, String name) {
+        return new Player(playerId, name, dataLoader, random.shop(), ids, championPool);
+    }
+
+    void restore(GamePhase phase, int round, long remaining, long duration, String hostId, List<Player> restored) {
+        this.phase = phase;
+        this.round = round;
+        this.currentPhaseDuration = duration;
+        this.phaseEndTime = remaining < 0 ? Long.MAX_VALUE : clock.currentTimeMillis() + remaining;
+        this.hostId = hostId;
+        restored.forEach(p -> players.put(p.getId(), p));
+        updateGameState(Math.max(0, remaining));
+    }
+
     public GameState getState() {
         return currentState;
     }
@@ -117,7 +251,15 @@ public class GameRoom {
     }
 
     public Player addPlayer(String name) {
-        Player player = new Player(name, dataLoader, randomProvider);
+        // Player ids stay random: actions carry nothing else to tell clients apart
+        return addPlayer(UUID.randomUUID().toString(), name);
+    }
+
+    // Joins with a given id, as a replay does to reproduce the ids the journal recorded
+    public synchronized Player addPlayer(String id, String name) {
+        inputs.joined(clock.currentTimeMillis(), id, name);
+        changes.incrementAndGet();
+        Player player = newPlayer(id, name);
         players.put(player.getId(), player);
 
         if (hostId == null) {
@@ -129,8 +271,11 @@ public class GameRoom {
         return player;
     }
 
-    public void removePlayer(String playerId) {
-        players.remove(playerId);
+    public synchronized void removePlayer(String playerId) {
+        inputs.left(clock.currentTimeMillis(), playerId);
+        changes.incrementAndGet();
+        var player = players.remove(playerId);
+        if (player != null) releaseToPool(player);
         if (playerId.equals(hostId)) {
             // Assign new host
             hostId = players.isEmpty() ? null : players.keySet().iterator().next();
@@ -138,23 +283,31 @@ public class GameRoom {
         updateGameState(0);
     }
 
-    public void startMatch() {
+    public synchronized void startMatch() {
         if (phase != GamePhase.LOBBY) {
             return;
         }
+        inputs.started(clock.currentTimeMillis());
+        changes.incrementAndGet();
 
         // Fill with bots if needed (up to 8)
         int currentCount = players.size();
         for (int i = 0; i < 8 - currentCount; i++) {
-            addBot();
+            spawnBot();
         }
 
         startPhase(GamePhase.PLANNING);
     }
 
-    public void addBot() {
-        String botId = "Bot-" + UUID.randomUUID().toString().substring(0, 4);
-        Player bot = new Player(botId, dataLoader, randomProvider);
+    public synchronized void addBot() {
+        inputs.botAdded(clock.currentTimeMillis());
+        changes.incrementAndGet();
+        spawnBot();
+    }
+
+    private void spawnBot() {
+        String botId = ids.nextId();
+        Player bot = newPlayer(botId, "Bot-" + botId);
         players.put(bot.getId(), bot);
         bot.refreshShop();
         refreshBotRoster(bot);
@@ -169,6 +322,47 @@ public class GameRoom {
         return players.values();
     }
 
+    // Applies a client action; false when the player is not in this room
+    public synchronized boolean handleAction(GameAction action) {
+        inputs.action(clock.currentTimeMillis(), action);
+        changes.incrementAndGet();
+        Player p = players.get(action.playerId());
+        if (p == null) {
+            return false;
+        }
+
+        switch (action.type()) {
+            case BUY -> {
+                p.buyUnit(action.shopIndex());
+            }
+            case REROLL -> {
+                p.refreshShop();
+            }
+            case EXP -> {
+                if (p.getGold() >= 4) {
+                    p.gainGold(-4);
+                    p.gainXp(4);
+                }
+            }
+            case MOVE -> {
+                if (phase == GamePhase.PLANNING) {
+                    moveUnit(action.playerId(), action.unitId(), action.targetX(), action.targetY());
+                }
+            }
+            case SELL -> {
+                // Allow selling bench units anytime, but board units only during PLANNING
+                p.sellUnit(action.unitId(), phase == GamePhase.PLANNING);
+            }
+            case LOCK -> {
+                // TODO: Implement
+            }
+            case COLLECT_ORB -> {
+                collectOrb(action.playerId(), action.orbId());
+            }
+        }
+        return true;
+    }
+
     public void moveUnit(String playerId, String unitId, int x, int y) {
         Player p = players.get(playerId);
         if (p != null && phase == GamePhase.PLANNING) {
@@ -183,32 +377,35 @@ public class GameRoom {
         }
     }
 
-    public void tick() {
+    public synchronized void tick() {
         if (phase == GamePhase.LOBBY) {
             return;
         }
 
         long now = clock.currentTimeMillis();
+        inputs.tick(now);
         if (now >= phaseEndTime) {
             nextPhase();
         }
 
         lastTickEvents.clear();
         if (phase == GamePhase.COMBAT) {
-            var it = activeCombats.iterator();
-            while (it.hasNext()) {
-                var pair = it.next();
-                var result = combatSystem.simulateTick(pair);
-                if (result.events() != null) {
-                    lastTickEvents.addAll(result.events());
-                }
+            // Matchups step in parallel; everything they feed into the room is applied afterwards, in matchup
+            // order, so the state is the same as if they had run one after another
+            var results = combatSystem.simulateTicks(activeCombats, combatPool);
+            var ended = new ArrayList<CombatContext>();
+            for (var i = 0; i < results.size(); i++) {
+                var combat = activeCombats.get(i);
+                var result = results.get(i);
+                combat.encodeEvents(lastTickEvents);
+                // Update live damage log with the units that dealt damage this tick
+                combat.collectDamage(currentRoundDamageLog);
                 if (result.ended()) {
-                    handleCombatEnd(false, result, pair);
-                    it.remove();
+                    handleCombatEnd(false, result, combat.participants());
+                    ended.add(combat);
                 }
             }
-            // Update live damage log
-            currentRoundDamageLog.putAll(combatSystem.getDamageLog());
+            activeCombats.removeAll(ended);
         }
 
         updateGameState(phaseEndTime - now);
@@ -217,8 +414,8 @@ public class GameRoom {
     private void nextPhase() {
         // Handle timeout: force-end any remaining combats before phase change
         if (phase == GamePhase.COMBAT && !activeCombats.isEmpty()) {
-            for (var pair : activeCombats) {
-                handleCombatEnd(true, null, pair);
+            for (var combat : activeCombats) {
+                handleCombatEnd(true, null, combat.participants());
             }
             activeCombats.clear();
         }
@@ -231,6 +428,7 @@ public class GameRoom {
     }
 
     private void startPhase(GamePhase newPhase) {
+        changes.incrementAndGet();
         this.phase = newPhase;
         log.info("Starting phase: {}", newPhase);
 
@@ -257,6 +455,11 @@ public class GameRoom {
 
             round++;
             players.values().forEach(p -> {
+                if (p.getHealth() <= 0) {
+                    // Knocked out: no more shops, and everything it held goes back for the players still in
+                    releaseToPool(p);
+                    return;
+                }
                 p.gainGold(5 + Math.min(p.getGold() / 10, 5));
                 p.gainXp(2);
                 p.refreshShop();
@@ -283,23 +486,26 @@ public class GameRoom {
             activeCombats.clear();
             currentMatchups.clear();
             var shuffled = new ArrayList<Player>(players.values());
-            randomProvider.shuffle(shuffled);
+            random.matchmaking().shuffle(shuffled);
             for (int i = 0; i < shuffled.size() - 1; i += 2) {
                 Player p1 = shuffled.get(i);
                 Player p2 = shuffled.get(i + 1);
-                activeCombats.add(List.of(p1, p2));
+                // Each matchup gets its own context, so damage and events never mix between pairs
+                activeCombats.add(combatSystem.startCombat(List.of(p1, p2)));
                 currentMatchups.put(p1.getId(), p2.getId());
                 currentMatchups.put(p2.getId(), p1.getId());
             }
-
-            // Reset combat system log before starting combat for all pairs
-            combatSystem.startCombat(List.of()); // This clears the internal log
-            activeCombats.forEach(combatSystem::startCombat);
         }
 
         updateGameState(currentPhaseDuration);
     }
 
+    private void releaseToPool(Player player) {
+        // Bot boards are drawn outside the pool, so only their shop offers go back
+        if (player.getName().startsWith("Bot-")) player.removeAllUnits();
+        player.releaseToPool();
+    }
+
     private void refreshBotRoster(Player bot) {
         bot.removeAllUnits();
 
@@ -310,14 +516,14 @@ public class GameRoom {
         // Unit count scales with round: round 1 → 2 units, round 2 → 3 units, etc.
         // Capped by bot level and max 7 (first row limit)
         var unitCount = Math.min(Math.min(round + 1, botLevel), 7);
-        var available = dataLoader.getAllUnits();
+        var units = catalog.units();
         for (var i = 0; i < unitCount; i++) {
-            var def = available.get(randomProvider.nextInt(available.size()));
+            var def = units.get(random.matchmaking().nextInt(units.size()));
             bot.addUnitToBoard(def, i, 3);
         }
     }
 
-    private void updateGameState(long timeLeft) {
+    void updateGameState(long timeLeft) {
         Map<String, PlayerState> playerStates = players.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toState()));
 
@@ -332,13 +538,14 @@ public class GameRoom {
                 new HashMap<>(currentMatchups),
                 new ArrayList<>(lastTickEvents),
                 new HashMap<>(currentRoundDamageLog),
-                gameModeRegistry.getActiveMode());
+                mode);
     }
 
     private void spawnLootOrbsForPlayer(Player player) {
+        var randomProvider = random.loot();
         int orbCount = 1 + randomProvider.nextInt(3); // 1-3 orbs
         for (int i = 0; i < orbCount; i++) {
-            String orbId = UUID.randomUUID().toString();
+            String orbId = ids.nextId();
             // Random position in the top half of the grid (visual rows 0-3)
             int x = randomProvider.nextInt(7);
             int y = randomProvider.nextInt(4);
@@ -350,7 +557,7 @@ public class GameRoom {
             if (type == LootType.GOLD) {
                 amount = 3 + randomProvider.nextInt(6); // 3-8 Gold
             } else {
-                var units = dataLoader.getAllUnits();
+                var units = catalog.units();
                 contentId = units.get(randomProvider.nextInt(units.size())).name();
             }
 
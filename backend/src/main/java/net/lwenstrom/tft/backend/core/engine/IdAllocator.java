@@ -0,0 +1,38 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sequential ids for the units, bots and loot orbs of one room. On the wire they are the id in base 36, so they
+// stay a few characters long instead of 36-char UUIDs drawn from the shared SecureRandom.
+public final class IdAllocator {
+
+    // For units and players built outside a room: tests, balance simulation and benchmarks
+    private static final IdAllocator SHARED = new IdAllocator();
+
+    private final AtomicLong next = new AtomicLong(1);
+
+    public static IdAllocator shared() {
+        return SHARED;
+    }
+
+    public long next() {
+        return next.getAndIncrement();
+    }
+
+    // The id the next call hands out, for a room snapshot
+    long peek() {
+        return next.get();
+    }
+
+    void restore(long next) {
+        this.next.set(next);
+    }
+
+    public String nextId() {
+        return format(next());
+    }
+
+    public static String format(long id) {
+        return Long.toString(id, Character.MAX_RADIX);
+    }
+}
@@ -1,8 +1,11 @@
 package net.lwenstrom.tft.backend.core.engine;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import net.lwenstrom.tft.backend.core.DataLoader;
@@ -27,13 +30,28 @@ public class Player {
 
     // Limits
     private static final int MAX_BENCH_SIZE = 9;
+    private static final int MAX_BOARD_SIZE = Grid.COLS * Grid.PLAYER_ROWS;
+    private static final int COPIES_TO_UPGRADE = 3;
 
     private final RandomProvider randomProvider;
     private final Grid grid = new Grid();
 
-    private final List<GameUnit> bench = new ArrayList<>();
-    private final List<GameUnit> boardUnits = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final UnitSlots bench = new UnitSlots(MAX_BENCH_SIZE);
+
+    @Getter(AccessLevel.NONE)
+    private final UnitSlots boardUnits = new UnitSlots(MAX_BOARD_SIZE);
+
+    // Definition ID -> owned copies per star level, bench and board together, so a buy knows at once whether it
+    // completes a merge
+    @Getter(AccessLevel.NONE)
+    private final Map<String, int[]> copies = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final GameUnit[] mergeScratch = new GameUnit[COPIES_TO_UPGRADE];
+
     private final List<LootOrb> lootOrbs = new ArrayList<>();
+    private final TraitCounter traitCounter = new TraitCounter(); // Kept in sync with boardUnits
 
     private List<UnitDefinition> shop = new ArrayList<>();
     private boolean shopLocked = false;
@@ -41,15 +59,36 @@ public class Player {
     private boolean inCombat = false;
     private final List<PendingUpgrade> pendingUpgrades = new ArrayList<>();
 
-    private record PendingUpgrade(String unitName, int starLevel) {}
+    private record PendingUpgrade(UnitDefinition def, int starLevel) {}
 
     private final DataLoader dataLoader;
+    private final IdAllocator ids; // Shared by every player of the room, unit ids must not collide in combat
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ChampionPool pool; // The room's pool; a player outside a room gets its own on the first reroll
 
     public Player(String name, DataLoader dataLoader, RandomProvider randomProvider) {
-        this.id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), name, dataLoader, randomProvider);
+    }
+
+    public Player(String id, String name, DataLoader dataLoader, RandomProvider randomProvider) {
+        this(id, name, dataLoader, randomProvider, IdAllocator.shared(), null);
+    }
+
+    public Player(
+            String id,
+            String name,
+            DataLoader dataLoader,
+            RandomProvider randomProvider,
+            IdAllocator ids,
+            ChampionPool pool) {
+        this.id = id;
         this.name = name;
         this.dataLoader = dataLoader;
         this.randomProvider = randomProvider;
+        this.ids = ids;
+        this.pool = pool;
     }
 
     private static final int SHOP_SIZE = 5;
@@ -60,89 +99,88 @@ public class Player {
         }
         gold -= 2;
 
-        var allUnits = dataLoader.getAllUnits();
-        shop = new ArrayList<>();
+        var pool = pool();
+        // Unbought offers go back before the new ones are drawn; the slots are reused, a reroll allocates nothing
+        for (var offer : shop) {
+            if (offer != null) pool.release(offer.id(), 1);
+        }
+        while (shop.size() < SHOP_SIZE) shop.add(null);
         for (var i = 0; i < SHOP_SIZE; i++) {
-            var randomIndex = randomProvider.nextInt(allUnits.size());
-            shop.add(allUnits.get(randomIndex));
+            shop.set(i, pool.roll(level, randomProvider));
         }
     }
 
+    private ChampionPool pool() {
+        if (pool == null)
+            pool = new ChampionPool(
+                    dataLoader != null ? dataLoader.getSnapshot().units() : UnitCatalog.EMPTY);
+        return pool;
+    }
+
     public void buyUnit(int shopIndex) {
         if (shopIndex < 0 || shopIndex >= shop.size()) return;
         UnitDefinition def = shop.get(shopIndex);
 
         if (def == null) return;
         if (gold < def.cost()) return;
-        if (bench.size() >= MAX_BENCH_SIZE) return;
+        if (bench.isFull()) return;
 
         gold -= def.cost();
-        StandardGameUnit newUnit = new StandardGameUnit(def);
-        newUnit.setOwnerId(this.id);
-        bench.add(newUnit);
+        bench.append(createUnit(def, 1));
         shop.set(shopIndex, null);
         if (inCombat) {
             // Defer upgrade check until combat ends
-            pendingUpgrades.add(new PendingUpgrade(def.name(), 1));
+            pendingUpgrades.add(new PendingUpgrade(def, 1));
         } else {
-            checkUpgrade(def.name(), 1);
+            checkUpgrade(def, 1);
         }
     }
 
-    private void checkUpgrade(String unitName, int starLevel) {
-        var candidates = new ArrayList<GameUnit>();
-        candidates.addAll(bench.stream()
-                .filter(u -> u.getName().equals(unitName) && u.getStarLevel() == starLevel)
-                .toList());
-        candidates.addAll(boardUnits.stream()
-                .filter(u -> u.getName().equals(unitName) && u.getStarLevel() == starLevel)
-                .toList());
-
-        if (candidates.size() >= 3) {
-            var unitsToRemove = candidates.subList(0, 3);
-            var targetPosUnit = unitsToRemove.stream()
-                    .filter(u -> boardUnits.contains(u))
-                    .findFirst()
-                    .orElse(unitsToRemove.get(0));
-
-            int x = targetPosUnit.getX();
-            int y = targetPosUnit.getY();
-
-            // Clear from grid if necessary
-            for (var u : unitsToRemove) {
-                if (boardUnits.contains(u)) {
-                    grid.removeUnit(u);
-                }
-            }
-            bench.removeAll(unitsToRemove);
-            boardUnits.removeAll(unitsToRemove);
-
-            UnitDefinition def = dataLoader.getAllUnits().stream()
-                    .filter(d -> d.name().equals(unitName))
-                    .findFirst()
-                    .orElse(null);
-
-            if (def != null) {
-                var upgraded = new StandardGameUnit(def, starLevel + 1);
-                upgraded.setOwnerId(this.id);
-
-                // Place back logic
-                if (boardUnits.contains(targetPosUnit) || (y >= 0 && grid.isEmpty(x, y))) {
-                    // Try placing on board at target position
-                    if (grid.isValid(x, y) && grid.isEmpty(x, y)) {
-                        grid.placeUnit(upgraded, x, y);
-                        boardUnits.add(upgraded);
-                    } else {
-                        // Fallback to bench if grid somehow full/invalid
-                        bench.add(upgraded);
-                    }
-                } else {
-                    bench.add(upgraded);
-                }
+    private void checkUpgrade(UnitDefinition def, int starLevel) {
+        if (starLevel >= UnitDefinition.MAX_STAR_LEVEL || copies(def, starLevel) < COPIES_TO_UPGRADE) return;
+
+        // Bench copies merge first; the upgraded unit takes the cell of the first board copy, if any
+        var found = collectCopies(bench, def, starLevel, 0);
+        found = collectCopies(boardUnits, def, starLevel, found);
+        GameUnit boardCopy = null;
+        for (var i = found - 1; i >= 0; i--) {
+            if (boardUnits.contains(mergeScratch[i])) boardCopy = mergeScratch[i];
+        }
+        var x = boardCopy != null ? boardCopy.getX() : -1;
+        var y = boardCopy != null ? boardCopy.getY() : -1;
+
+        var upgraded = createUnit(def, starLevel + 1);
+        for (var i = 0; i < found; i++) {
+            var unit = mergeScratch[i];
+            mergeScratch[i] = null;
+            // Items of the merged copies move to the upgraded unit
+            unit.getItems().forEach(upgraded::equipItem);
+            if (!bench.removeUnit(unit)) removeFromBoard(unit);
+            disown(unit);
+        }
+
+        if (boardCopy != null && grid.isValid(x, y) && grid.isEmpty(x, y)) {
+            placeOnBoard(upgraded, x, y);
+        } else {
+            bench.append(upgraded);
+        }
+
+        checkUpgrade(def, starLevel + 1);
+    }
 
-                checkUpgrade(unitName, starLevel + 1);
+    private int collectCopies(UnitSlots slots, UnitDefinition def, int starLevel, int found) {
+        for (var i = 0; i < slots.size() && found < COPIES_TO_UPGRADE; i++) {
+            var unit = slots.get(i);
+            if (unit.getStarLevel() == starLevel && def.id().equals(unit.getDefinitionId())) {
+                mergeScratch[found++] = unit;
             }
         }
+        return found;
+    }
+
+    private int copies(UnitDefinition def, int starLevel) {
+        var counts = copies.get(def.id());
+        return counts != null ? counts[starLevel] : 0;
     }
 
     public void gainGold(int amount) {
@@ -151,11 +189,12 @@ public class Player {
 
     public void sellUnit(String unitId, boolean allowBoardSell) {
         // Try to find unit in bench first (always allowed)
-        var benchUnit =
-                bench.stream().filter(u -> u.getId().equals(unitId)).findFirst().orElse(null);
+        var benchUnit = bench.find(unitId);
         if (benchUnit != null) {
             var refund = calculateSellValue(benchUnit);
-            bench.remove(benchUnit);
+            bench.removeUnit(benchUnit);
+            disown(benchUnit);
+            returnToPool(benchUnit);
             gold += refund;
             return;
         }
@@ -164,18 +203,21 @@ public class Player {
         if (!allowBoardSell) {
             return;
         }
-        var boardUnit = boardUnits.stream()
-                .filter(u -> u.getId().equals(unitId))
-                .findFirst()
-                .orElse(null);
+        var boardUnit = boardUnits.find(unitId);
         if (boardUnit != null) {
             var refund = calculateSellValue(boardUnit);
-            grid.removeUnit(boardUnit);
-            boardUnits.remove(boardUnit);
+            removeFromBoard(boardUnit);
+            disown(boardUnit);
+            returnToPool(boardUnit);
             gold += refund;
         }
     }
 
+    // A sold unit frees every copy merged into it
+    private void returnToPool(GameUnit unit) {
+        pool().release(unit.getDefinitionId(), (int) Math.pow(3, unit.getStarLevel() - 1));
+    }
+
     public int calculateSellValue(GameUnit unit) {
         // Formula: cost × 3^(starLevel - 1)
         // 1-star, 1-cost → 1 gold
@@ -196,7 +238,7 @@ public class Player {
         var upgradesToProcess = new ArrayList<>(pendingUpgrades);
         pendingUpgrades.clear();
         for (var pending : upgradesToProcess) {
-            checkUpgrade(pending.unitName(), pending.starLevel());
+            checkUpgrade(pending.def(), pending.starLevel());
         }
     }
 
@@ -213,17 +255,13 @@ public class Player {
             if (orb.type() == LootType.GOLD) {
                 gainGold(orb.amount());
             } else if (orb.type() == LootType.UNIT) {
-                var def = dataLoader.getAllUnits().stream()
-                        .filter(u -> u.name().equals(orb.contentId()))
-                        .findFirst()
-                        .orElse(null);
-                if (def != null && bench.size() < MAX_BENCH_SIZE) {
-                    var unit = new StandardGameUnit(def);
-                    unit.setOwnerId(this.id);
-                    bench.add(unit);
-                    checkUpgrade(def.name(), 1);
+                var def = pool().catalog().byName(orb.contentId());
+                // The unit comes out of the pool like a bought one, so selling it puts back a copy that was taken
+                if (def != null && !bench.isFull() && pool().take(def.id())) {
+                    bench.append(createUnit(def, 1));
+                    checkUpgrade(def, 1);
                 } else if (def != null) {
-                    // Bench full, refund gold maybe? For now just sell it
+                    // Bench full or no copy left: sell it right away
                     gainGold(def.cost());
                 }
             }
@@ -273,44 +311,34 @@ public class Player {
         // Validation: Player grid check
         if (y >= 0 && !grid.isValid(x, y)) return;
 
-        var benchUnit =
-                bench.stream().filter(u -> u.getId().equals(unitId)).findFirst().orElse(null);
+        var benchUnit = bench.find(unitId);
         if (benchUnit != null) {
             // Bench -> Board
             if (y >= 0) {
                 var targetUnit = grid.getUnitAt(x, y).orElse(null);
                 if (targetUnit != null) {
-                    // Swap: Board unit goes to bench, bench unit goes to board
-                    grid.removeUnit(targetUnit);
-                    boardUnits.remove(targetUnit);
+                    // Swap: Board unit takes the bench slot, bench unit goes to board
+                    removeFromBoard(targetUnit);
                     targetUnit.setPosition(-1, -1);
-                    bench.add(targetUnit);
-
-                    bench.remove(benchUnit);
-                    grid.placeUnit(benchUnit, x, y);
-                    boardUnits.add(benchUnit);
+                    bench.replace(benchUnit, targetUnit);
+                    placeOnBoard(benchUnit, x, y);
                 } else {
                     // Empty cell - standard move
                     if (boardUnits.size() >= level) return; // Cap
 
-                    bench.remove(benchUnit);
-                    grid.placeUnit(benchUnit, x, y);
-                    boardUnits.add(benchUnit);
+                    bench.removeUnit(benchUnit);
+                    placeOnBoard(benchUnit, x, y);
                 }
             }
         } else {
-            var boardUnit = boardUnits.stream()
-                    .filter(u -> u.getId().equals(unitId))
-                    .findFirst()
-                    .orElse(null);
+            var boardUnit = boardUnits.find(unitId);
             if (boardUnit != null) {
                 // Board -> Bench
                 if (y < 0) {
-                    if (bench.size() >= MAX_BENCH_SIZE) return;
-                    grid.removeUnit(boardUnit); // Remove from grid
-                    boardUnits.remove(boardUnit);
+                    if (bench.isFull()) return;
+                    removeFromBoard(boardUnit);
                     boardUnit.setPosition(-1, -1);
-                    bench.add(boardUnit);
+                    bench.append(boardUnit);
                 } else if (grid.isValid(x, y)) {
                     // Board -> Board (Move or Swap)
                     int oldX = boardUnit.getX();
@@ -334,19 +362,91 @@ public class Player {
     }
 
     public void removeAllUnits() {
-        new ArrayList<>(boardUnits).forEach(u -> {
-            grid.removeUnit(u);
-            boardUnits.remove(u);
-        });
+        while (!boardUnits.isEmpty()) {
+            var unit = boardUnits.get(boardUnits.size() - 1);
+            removeFromBoard(unit);
+            disown(unit);
+        }
+    }
+
+    // Hands bench, board and shop offers back to the pool, for a player who left the room or was knocked out
+    public void releaseToPool() {
+        var pool = pool();
+        for (var i = 0; i < shop.size(); i++) {
+            var offer = shop.get(i);
+            if (offer != null) pool.release(offer.id(), 1);
+            shop.set(i, null);
+        }
+        while (!bench.isEmpty()) {
+            var unit = bench.get(bench.size() - 1);
+            bench.removeUnit(unit);
+            disown(unit);
+            returnToPool(unit);
+        }
+        while (!boardUnits.isEmpty()) {
+            var unit = boardUnits.get(boardUnits.size() - 1);
+            removeFromBoard(unit);
+            disown(unit);
+            returnToPool(unit);
+        }
     }
 
     public void addUnitToBoard(UnitDefinition def, int x, int y) {
         if (boardUnits.size() >= level) return;
-        var unit = new StandardGameUnit(def);
-        unit.setOwnerId(this.id);
         if (grid.isValid(x, y) && grid.isEmpty(x, y)) {
-            grid.placeUnit(unit, x, y);
-            boardUnits.add(unit);
+            placeOnBoard(createUnit(def, 1), x, y);
+        }
+    }
+
+    // Read-only views in slot order; they follow later changes, toState() copies them for the wire
+    public List<GameUnit> getBench() {
+        return bench;
+    }
+
+    public List<GameUnit> getBoardUnits() {
+        return boardUnits;
+    }
+
+    // Puts back a unit of a room snapshot with its old id, on the board when it has a cell, else on the bench.
+    // Like a unit from a loot orb it does not come out of the pool; the pool counts are restored separately.
+    void restoreUnit(UnitDefinition def, int starLevel, long unitId, int mana, int x, int y) {
+        var unit = createUnit(def, starLevel, unitId);
+        unit.setMana(mana);
+        if (grid.isValid(x, y) && grid.isEmpty(x, y)) {
+            placeOnBoard(unit, x, y);
+        } else if (!bench.append(unit)) {
+            disown(unit);
+        }
+    }
+
+    // Every unit is created here and dropped through disown(), so the per-star copy counts stay exact
+    private GameUnit createUnit(UnitDefinition def, int starLevel) {
+        return createUnit(def, starLevel, ids.next());
+    }
+
+    private GameUnit createUnit(UnitDefinition def, int starLevel, long unitId) {
+        var unit = new StandardGameUnit(def, starLevel, unitId);
+        unit.setOwnerId(this.id);
+        copies.computeIfAbsent(def.id(), k -> new int[UnitDefinition.MAX_STAR_LEVEL + 1])[starLevel]++;
+        return unit;
+    }
+
+    private void disown(GameUnit unit) {
+        var counts = copies.get(unit.getDefinitionId());
+        if (counts != null) counts[unit.getStarLevel()]--;
+    }
+
+    // Every board entry and exit goes through these two, so the trait counts stay exact
+    private void placeOnBoard(GameUnit unit, int x, int y) {
+        grid.placeUnit(unit, x, y);
+        boardUnits.append(unit);
+        traitCounter.add(unit);
+    }
+
+    private void removeFromBoard(GameUnit unit) {
+        grid.removeUnit(unit);
+        if (boardUnits.removeUnit(unit)) {
+            traitCounter.remove(unit);
         }
     }
 
@@ -363,7 +463,7 @@ public class Player {
                 combatSide,
                 new ArrayList<>(bench),
                 new ArrayList<>(boardUnits),
-                new ArrayList<>(), // TODO: Calculate active traits
+                traitCounter.activeTraits(),
                 new ArrayList<>(shop),
                 new ArrayList<>(lootOrbs));
     }
@@ -0,0 +1,231 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.model.GamePhase;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.model.LootOrb;
+import net.lwenstrom.tft.backend.core.model.LootType;
+import net.lwenstrom.tft.backend.core.random.RandomProvider;
+import net.lwenstrom.tft.backend.core.random.RoomRandom;
+import net.lwenstrom.tft.backend.core.random.SplittableRandomProvider;
+import net.lwenstrom.tft.backend.core.time.Clock;
+
+// Compact binary form of a room outside combat: timers, pool counts, random streams and every player with their
+// shop, units and loot orbs. Units and offers refer to their definition id, so a restored room uses the unit
+// data that is loaded then; ids that no longer exist are dropped. Planning units are at full health and carry
+// no combat state, so only their star level, mana and cell are kept. The header also holds the room's time and
+// the sequence of its last write-ahead log record the snapshot contains, where recovery picks up.
+public final class RoomSnapshotCodec {
+
+    private static final int MAGIC = 0x54465453; // "TFTS"
+    private static final int VERSION = 2;
+    private static final GamePhase[] PHASES = GamePhase.values();
+    private static final LootType[] LOOT_TYPES = LootType.values();
+
+    public record Header(String roomId, long sequence, long capturedAt) {}
+
+    private RoomSnapshotCodec() {}
+
+    public static byte[] encode(GameRoom room) {
+        return encode(room, 0);
+    }
+
+    // Call under the room's lock when sequence comes from its write-ahead log, so the two match
+    public static byte[] encode(GameRoom room, long sequence) {
+        if (!room.isSnapshottable()) throw new IllegalStateException("Room " + room.getId() + " is in combat");
+        var bytes = new ByteArrayOutputStream(4096);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(sequence);
+            out.writeLong(room.time());
+            out.writeUTF(room.getId());
+            out.writeUTF(room.getMode().name());
+            var random = room.random();
+            out.writeLong(random.seed());
+            writeStream(out, random.shop());
+            writeStream(out, random.loot());
+            writeStream(out, random.matchmaking());
+
+            out.writeByte(room.phase().ordinal());
+            out.writeInt(room.round());
+            out.writeLong(room.phaseRemaining());
+            out.writeLong(room.phaseDuration());
+            writeNullable(out, room.hostId());
+            out.writeLong(room.ids().peek());
+
+            var pool = room.championPool();
+            var catalog = pool.catalog();
+            out.writeInt(catalog.size());
+            for (var i = 0; i < catalog.size(); i++) {
+                var id = catalog.get(i).id();
+                out.writeUTF(id);
+                out.writeInt(pool.remaining(id));
+            }
+
+            var players = room.getPlayers();
+            out.writeInt(players.size());
+            for (var player : players) writePlayer(out, player);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Header header(byte[] snapshot) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        var version = readVersion(in);
+        if (version == 1) return new Header(in.readUTF(), 0, -1);
+        var sequence = in.readLong();
+        var capturedAt = in.readLong();
+        return new Header(in.readUTF(), sequence, capturedAt);
+    }
+
+    // The room runs on clock, which a restore after a crash sets to the header's capturedAt first
+    public static GameRoom decode(byte[] snapshot, DataLoader dataLoader, Clock clock) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if (readVersion(in) > 1) {
+            in.readLong(); // Sequence and time, see header()
+            in.readLong();
+        }
+        var roomId = in.readUTF();
+        var mode = GameMode.valueOf(in.readUTF());
+        var seed = in.readLong();
+        var random = new RoomRandom(seed, readStream(in), readStream(in), readStream(in));
+        var room = new GameRoom(roomId, dataLoader, mode, clock, random);
+
+        var phase = PHASES[in.readUnsignedByte()];
+        var round = in.readInt();
+        var remaining = in.readLong();
+        var duration = in.readLong();
+        var hostId = readNullable(in);
+        room.ids().restore(in.readLong());
+
+        var pool = room.championPool();
+        for (var i = in.readInt(); i > 0; i--) {
+            pool.restoreRemaining(in.readUTF(), in.readInt());
+        }
+
+        var count = in.readInt();
+        var players = new ArrayList<Player>(count);
+        for (var i = 0; i < count; i++) players.add(readPlayer(in, room));
+        room.restore(phase, round, remaining, duration, hostId, players);
+        return room;
+    }
+
+    // Version 1 snapshots have no sequence and time; they predate the write-ahead log
+    private static int readVersion(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a room snapshot");
+        var version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+        return version;
+    }
+
+    private static void writePlayer(DataOutput out, Player player) throws IOException {
+        out.writeUTF(player.getId());
+        out.writeUTF(player.getName());
+        out.writeInt(player.getPlace() != null ? player.getPlace() : -1);
+        out.writeInt(player.getHealth());
+        out.writeInt(player.getGold());
+        out.writeInt(player.getLevel());
+        out.writeInt(player.getXp());
+        out.writeBoolean(player.isShopLocked());
+        out.writeBoolean(player.isBoardLocked());
+
+        out.writeByte(player.getShop().size());
+        for (var offer : player.getShop()) writeNullable(out, offer != null ? offer.id() : null);
+
+        out.writeShort(player.getBench().size() + player.getBoardUnits().size());
+        for (var unit : player.getBench()) writeUnit(out, unit);
+        for (var unit : player.getBoardUnits()) writeUnit(out, unit);
+
+        out.writeShort(player.getLootOrbs().size());
+        for (var orb : player.getLootOrbs()) {
+            out.writeUTF(orb.id());
+            out.writeByte(orb.x());
+            out.writeByte(orb.y());
+            out.writeByte(orb.type().ordinal());
+            out.writeUTF(orb.contentId());
+            out.writeInt(orb.amount());
+        }
+    }
+
+    private static Player readPlayer(DataInput in, GameRoom room) throws IOException {
+        var units = room.championPool().catalog();
+        var player = room.newPlayer(in.readUTF(), in.readUTF());
+        var place = in.readInt();
+        player.setPlace(place >= 0 ? place : null);
+        player.setHealth(in.readInt());
+        player.setGold(in.readInt());
+        player.setLevel(in.readInt());
+        player.setXp(in.readInt());
+        player.setShopLocked(in.readBoolean());
+        player.setBoardLocked(in.readBoolean());
+
+        var shop = new ArrayList<UnitDefinition>();
+        for (var i = in.readUnsignedByte(); i > 0; i--) {
+            var id = readNullable(in);
+            shop.add(id != null ? units.byId(id) : null);
+        }
+        player.setShop(shop);
+
+        for (var i = in.readUnsignedShort(); i > 0; i--) {
+            var unitId = in.readLong();
+            var def = units.byId(in.readUTF());
+            var starLevel = in.readUnsignedByte();
+            var mana = in.readInt();
+            int x = in.readByte();
+            int y = in.readByte();
+            if (def != null) player.restoreUnit(def, starLevel, unitId, mana, x, y);
+        }
+
+        for (var i = in.readUnsignedShort(); i > 0; i--) {
+            player.addLootOrb(new LootOrb(
+                    in.readUTF(),
+                    in.readByte(),
+                    in.readByte(),
+                    LOOT_TYPES[in.readUnsignedByte()],
+                    in.readUTF(),
+                    in.readInt()));
+        }
+        return player;
+    }
+
+    private static void writeUnit(DataOutput out, GameUnit unit) throws IOException {
+        out.writeLong(Long.parseLong(unit.getId(), Character.MAX_RADIX));
+        out.writeUTF(unit.getDefinitionId());
+        out.writeByte(unit.getStarLevel());
+        out.writeInt(unit.getMana());
+        out.writeByte(unit.getX());
+        out.writeByte(unit.getY());
+    }
+
+    private static void writeStream(DataOutput out, RandomProvider random) throws IOException {
+        var stream = (SplittableRandomProvider) random;
+        out.writeLong(stream.state());
+        out.writeLong(stream.gamma());
+    }
+
+    private static SplittableRandomProvider readStream(DataInput in) throws IOException {
+        return SplittableRandomProvider.restore(in.readLong(), in.readLong());
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
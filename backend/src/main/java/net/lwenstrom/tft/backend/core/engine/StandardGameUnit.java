@@ -1,7 +1,5 @@
 package net.lwenstrom.tft.backend.core.engine;
 
-import java.util.HashSet;
-
 public class StandardGameUnit extends AbstractGameUnit {
 
     public StandardGameUnit(UnitDefinition def) {
@@ -9,16 +7,11 @@ public class StandardGameUnit extends AbstractGameUnit {
     }
 
     public StandardGameUnit(UnitDefinition def, int starLevel) {
-        super(def.id(), def.name(), def.cost(), def.ability(), def.getRange(starLevel), new HashSet<>(def.traits()));
-        setStarLevel(starLevel);
-        setMaxHealth(def.getMaxHealth(starLevel));
-        setMaxMana(def.getMaxMana(starLevel));
-        setAttackDamage(def.getAttackDamage(starLevel));
-        setAbilityPower(def.getAbilityPower(starLevel));
-        setArmor(def.getArmor(starLevel));
-        setMagicResist(def.getMagicResist(starLevel));
-        setAttackSpeed(def.getAttackSpeed(starLevel));
-        setCurrentHealth(def.getMaxHealth(starLevel));
+        this(def, starLevel, IdAllocator.shared().next());
+    }
+
+    public StandardGameUnit(UnitDefinition def, int starLevel, long id) {
+        super(def, starLevel, id);
     }
 
     public boolean isDead() {
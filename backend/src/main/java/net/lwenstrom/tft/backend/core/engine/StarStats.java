@@ -0,0 +1,57 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import net.lwenstrom.tft.backend.core.model.UnitStat;
+
+// Stats of one UnitDefinition at one star level, resolved to primitives once when the definition is built and
+// shared by every unit instance at that level. base is the row a unit's stat pipeline starts from, indexed by
+// UnitStat ordinal. The record keeps its own copy and hands out copies; units in this package share the row
+// through sharedBase() and copy it before a write.
+public record StarStats(
+        int maxHealth,
+        int maxMana,
+        int attackDamage,
+        int abilityPower,
+        int armor,
+        int magicResist,
+        float attackSpeed,
+        int range,
+        float[] base) {
+
+    public StarStats {
+        base = base.clone();
+    }
+
+    @Override
+    public float[] base() {
+        return base.clone();
+    }
+
+    public float base(UnitStat stat) {
+        return base[stat.ordinal()];
+    }
+
+    // The row itself, for AbstractGameUnit's copy-on-write pipeline; never written to
+    float[] sharedBase() {
+        return base;
+    }
+
+    static StarStats of(
+            int maxHealth,
+            int maxMana,
+            int attackDamage,
+            int abilityPower,
+            int armor,
+            int magicResist,
+            float attackSpeed,
+            int range) {
+        var base = new float[UnitStat.COUNT];
+        base[UnitStat.MAX_HEALTH.ordinal()] = maxHealth;
+        base[UnitStat.ATTACK_SPEED.ordinal()] = attackSpeed;
+        base[UnitStat.ATTACK_DAMAGE.ordinal()] = attackDamage;
+        base[UnitStat.ABILITY_POWER.ordinal()] = abilityPower;
+        base[UnitStat.ARMOR.ordinal()] = armor;
+        base[UnitStat.MAGIC_RESIST.ordinal()] = magicResist;
+        return new StarStats(
+                maxHealth, maxMana, attackDamage, abilityPower, armor, magicResist, attackSpeed, range, base);
+    }
+}
@@ -0,0 +1,83 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import net.lwenstrom.tft.backend.core.model.ActiveTrait;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+
+// Trait counts of one board, updated as units enter and leave it instead of being recounted every combat.
+// Traits count unique units by name, so a second copy of the same unit adds nothing.
+public class TraitCounter {
+
+    private final Map<String, Integer> copiesByName = new HashMap<>();
+    private final Map<String, Integer> counts = new TreeMap<>(); // Trait ID -> unique units
+    private final Map<String, String> displayNames = new HashMap<>();
+    private List<ActiveTrait> activeTraits = List.of();
+
+    public static TraitCounter of(Collection<GameUnit> units) {
+        var counter = new TraitCounter();
+        units.forEach(counter::add);
+        return counter;
+    }
+
+    public void add(GameUnit unit) {
+        if (copiesByName.merge(unit.getName(), 1, Integer::sum) > 1) return;
+        for (var traitName : unit.getTraits()) {
+            var id = TraitManager.normalizeTraitId(traitName);
+            counts.merge(id, 1, Integer::sum);
+            displayNames.putIfAbsent(id, traitName);
+        }
+        activeTraits = null;
+    }
+
+    public void remove(GameUnit unit) {
+        var copies = copiesByName.get(unit.getName());
+        if (copies == null) return;
+        if (copies > 1) {
+            copiesByName.put(unit.getName(), copies - 1);
+            return;
+        }
+        copiesByName.remove(unit.getName());
+        for (var traitName : unit.getTraits()) {
+            var id = TraitManager.normalizeTraitId(traitName);
+            if (counts.merge(id, -1, Integer::sum) <= 0) {
+                counts.remove(id);
+                displayNames.remove(id);
+            }
+        }
+        activeTraits = null;
+    }
+
+    public void clear() {
+        copiesByName.clear();
+        counts.clear();
+        displayNames.clear();
+        activeTraits = List.of();
+    }
+
+    // Read-only view, ordered by trait ID
+    public Map<String, Integer> counts() {
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public int count(String traitId) {
+        return counts.getOrDefault(traitId, 0);
+    }
+
+    // Highest count first; rebuilt only after the board changed
+    public List<ActiveTrait> activeTraits() {
+        if (activeTraits == null) {
+            var traits = new ArrayList<ActiveTrait>(counts.size());
+            counts.forEach((id, count) -> traits.add(new ActiveTrait(id, displayNames.get(id), count)));
+            traits.sort(Comparator.comparingInt(ActiveTrait::count).reversed());
+            activeTraits = List.copyOf(traits);
+        }
+        return activeTraits;
+    }
+}
@@ -1,47 +1,133 @@
 package net.lwenstrom.tft.backend.core.engine;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.core.model.StatLayer;
+import net.lwenstrom.tft.backend.core.model.TraitDefinition;
 import net.lwenstrom.tft.backend.core.model.TraitEffect;
+import net.lwenstrom.tft.backend.core.model.UnitStat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class TraitManager {
     private static final Logger log = LoggerFactory.getLogger(TraitManager.class);
 
+    // Trait ID -> bit in this manager's trait masks. Assigned while the catalog version is compiled and only read
+    // afterwards, so each mode and each reload has its own 64 bits.
+    private final Map<String, Integer> indices = new HashMap<>();
+    // A unit's trait set -> its mask; units of one definition share their set, so this stays at one entry per kind
+    private final Map<Set<String>, Long> masks = new ConcurrentHashMap<>();
+
+    private final Map<String, TraitTable> tables = new HashMap<>();
+    // Custom Java effects, for traits that cannot be expressed as stat breakpoints. They take precedence over tables.
     private final Map<String, TraitEffect> effects = new HashMap<>();
 
+    public void registerTraits(List<TraitDefinition> definitions) {
+        for (var definition : definitions) {
+            var id = normalizeTraitId(definition.id());
+            tables.put(id, TraitTable.compile(definition, indexOf(id)));
+        }
+    }
+
     public void registerEffect(String traitId, TraitEffect effect) {
         effects.put(normalizeTraitId(traitId), effect);
     }
 
     public void applyTraits(List<GameUnit> units) {
-        // Map Trait ID -> Count (Unique Units)
-        var traitCounts = new HashMap<String, Set<String>>();
+        applyTraits(TraitCounter.of(units).counts(), units);
+    }
 
-        for (var unit : units) {
-            for (var traitName : unit.getTraits()) {
-                var id = normalizeTraitId(traitName);
-                traitCounts.computeIfAbsent(id, k -> new HashSet<String>()).add(unit.getName());
+    // Trait ID -> Count (Unique Units), as maintained by the player's TraitCounter
+    public void applyTraits(Map<String, Integer> traitCounts, List<GameUnit> units) {
+        // Active breakpoint row per trait bit, so the board is walked once for all table traits
+        var activeMask = 0L;
+        var activeTables = new TraitTable[Long.SIZE];
+        var activeRows = new int[Long.SIZE];
+        for (var entry : traitCounts.entrySet()) {
+            var traitId = entry.getKey();
+            var effect = effects.get(traitId);
+            if (effect != null) {
+                effect.apply(entry.getValue(), units);
+                continue;
             }
+            var table = tables.get(traitId);
+            if (table == null) {
+                log.warn("No effect registered for trait: {}", traitId);
+                continue;
+            }
+            var row = table.activeRow(entry.getValue());
+            if (row < 0) continue;
+            activeMask |= 1L << table.traitIndex();
+            activeTables[table.traitIndex()] = table;
+            activeRows[table.traitIndex()] = row;
         }
+        if (activeMask == 0) return;
 
-        // Apply effects
-        traitCounts.forEach((traitId, uniqueUnits) -> {
-            var count = uniqueUnits.size();
-            if (effects.containsKey(traitId)) {
-                effects.get(traitId).apply(count, units);
-            } else {
-                log.warn("No effect registered for trait: {}", traitId);
+        var totals = new float[TraitTable.STATS];
+        for (var unit : units) {
+            var bits = traitMask(unit) & activeMask;
+            if (bits == 0) continue;
+            Arrays.fill(totals, 0f);
+            for (; bits != 0; bits &= bits - 1) {
+                var index = Long.numberOfTrailingZeros(bits);
+                var deltas = activeTables[index].deltas();
+                var row = activeRows[index];
+                for (var stat = 0; stat < TraitTable.STATS; stat++) {
+                    totals[stat] += deltas[row + stat];
+                }
             }
-        });
+            applyStats(unit, totals);
+        }
+    }
+
+    private static void applyStats(GameUnit unit, float[] totals) {
+        unit.setStatLayer(StatLayer.TRAIT, totals);
+        var mana = (int) totals[UnitStat.MANA.ordinal()];
+        if (mana != 0) unit.setMana(Math.min(unit.getMaxMana(), unit.getMana() + mana));
     }
 
     public static String normalizeTraitId(String name) {
         return name.toLowerCase().replace(" ", "_");
     }
+
+    private int indexOf(String id) {
+        var index = indices.get(id);
+        if (index != null) return index;
+        if (indices.size() >= Long.SIZE) {
+            throw new IllegalStateException("Trait masks hold at most " + Long.SIZE + " traits, cannot add " + id);
+        }
+        indices.put(id, indices.size());
+        return indices.size() - 1;
+    }
+
+    // Bit index of a registered trait, -1 for one this manager has no table for
+    public int traitIndex(String name) {
+        return indices.getOrDefault(normalizeTraitId(name), -1);
+    }
+
+    // Bits of the unit's traits that have tables here; the set is copied so a unit changing its traits later
+    // cannot corrupt the cache
+    public long traitMask(GameUnit unit) {
+        var traits = unit.getTraits();
+        if (traits == null || traits.isEmpty()) return 0L;
+        var mask = masks.get(traits);
+        if (mask != null) return mask;
+        mask = 0L;
+        for (var name : traits) {
+            var index = indices.get(normalizeTraitId(name));
+            if (index != null) mask |= 1L << index;
+        }
+        masks.put(Set.copyOf(traits), mask);
+        return mask;
+    }
+
+    public boolean hasTrait(GameUnit unit, String traitName) {
+        var index = traitIndex(traitName);
+        return index >= 0 && (traitMask(unit) & (1L << index)) != 0;
+    }
 }
@@ -0,0 +1,42 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.Comparator;
+import net.lwenstrom.tft.backend.core.model.TraitDefinition;
+import net.lwenstrom.tft.backend.core.model.UnitStat;
+
+// A trait's breakpoints compiled into flat arrays: thresholds ascending and one row of stat deltas per
+// breakpoint, indexed by UnitStat ordinal. Rows without any delta are kept so row numbers match the JSON.
+record TraitTable(int traitIndex, int[] minUnits, float[] deltas) {
+
+    static final int STATS = UnitStat.COUNT;
+
+    static TraitTable compile(TraitDefinition definition, int traitIndex) {
+        var breakpoints = definition.effects().stream()
+                .sorted(Comparator.comparingInt(TraitDefinition.Breakpoint::minUnits))
+                .toList();
+        var minUnits = new int[breakpoints.size()];
+        var deltas = new float[breakpoints.size() * STATS];
+        for (var row = 0; row < breakpoints.size(); row++) {
+            var breakpoint = breakpoints.get(row);
+            minUnits[row] = breakpoint.minUnits();
+            for (var stat : breakpoint.stats().entrySet()) {
+                deltas[row * STATS + stat.getKey().ordinal()] = stat.getValue();
+            }
+        }
+        return new TraitTable(traitIndex, minUnits, deltas);
+    }
+
+    // Offset into deltas of the highest breakpoint reached by count, -1 below the first one or if it changes nothing
+    int activeRow(int count) {
+        var row = minUnits.length - 1;
+        while (row >= 0 && count < minUnits[row]) {
+            row--;
+        }
+        if (row < 0) return -1;
+        var offset = row * STATS;
+        for (var i = offset; i < offset + STATS; i++) {
+            if (deltas[i] != 0) return offset;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,93 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Every unit definition of a game mode, indexed once when the data is loaded and then only read, so rooms
+// share it without locking. A definition's index is its position in the file and stays fixed for the
+// catalog's lifetime, which lets other structures keep per-unit state in plain arrays.
+public final class UnitCatalog {
+
+    public static final UnitCatalog EMPTY = new UnitCatalog(List.of());
+
+    private final List<UnitDefinition> units;
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final Map<String, Integer> indexByName = new HashMap<>();
+    private final List<List<UnitDefinition>> byCost; // Cost -> definitions, index 0 unused
+    private final Map<String, List<UnitDefinition>> byTrait; // Normalized trait ID -> definitions
+
+    public UnitCatalog(Collection<UnitDefinition> definitions) {
+        this.units = List.copyOf(definitions);
+
+        var maxCost = 0;
+        var traits = new HashMap<String, List<UnitDefinition>>();
+        for (var i = 0; i < units.size(); i++) {
+            var def = units.get(i);
+            if (indexById.putIfAbsent(def.id(), i) != null) {
+                throw new IllegalArgumentException("Duplicate unit id: " + def.id());
+            }
+            indexByName.putIfAbsent(def.name(), i);
+            maxCost = Math.max(maxCost, def.cost());
+            for (var trait : def.traitSet()) {
+                traits.computeIfAbsent(TraitManager.normalizeTraitId(trait), k -> new ArrayList<>())
+                        .add(def);
+            }
+        }
+
+        var costs = new ArrayList<List<UnitDefinition>>();
+        for (var cost = 0; cost <= maxCost; cost++) {
+            var withCost = new ArrayList<UnitDefinition>();
+            for (var def : units) {
+                if (def.cost() == cost) withCost.add(def);
+            }
+            costs.add(List.copyOf(withCost));
+        }
+        this.byCost = List.copyOf(costs);
+
+        var frozen = new HashMap<String, List<UnitDefinition>>();
+        traits.forEach((trait, defs) -> frozen.put(trait, List.copyOf(defs)));
+        this.byTrait = Map.copyOf(frozen);
+    }
+
+    // Catalog order; the same list on every call
+    public List<UnitDefinition> units() {
+        return units;
+    }
+
+    public int size() {
+        return units.size();
+    }
+
+    public UnitDefinition get(int index) {
+        return units.get(index);
+    }
+
+    // -1 for unknown ids
+    public int indexOf(String id) {
+        var index = indexById.get(id);
+        return index != null ? index : -1;
+    }
+
+    public UnitDefinition byId(String id) {
+        var index = indexById.get(id);
+        return index != null ? units.get(index) : null;
+    }
+
+    // Names are expected to be unique; should two definitions share one, the first wins
+    public UnitDefinition byName(String name) {
+        var index = indexByName.get(name);
+        return index != null ? units.get(index) : null;
+    }
+
+    public List<UnitDefinition> byCost(int cost) {
+        return cost >= 0 && cost < byCost.size() ? byCost.get(cost) : List.of();
+    }
+
+    // Accepts display names ("Straw Hat") as well as trait ids ("straw_hat")
+    public List<UnitDefinition> byTrait(String trait) {
+        return byTrait.getOrDefault(TraitManager.normalizeTraitId(trait), List.of());
+    }
+}
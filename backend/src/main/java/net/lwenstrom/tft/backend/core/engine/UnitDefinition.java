@@ -1,7 +1,13 @@
 package net.lwenstrom.tft.backend.core.engine;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import net.lwenstrom.tft.backend.core.model.AbilityDefinition;
 
 public record UnitDefinition(
@@ -17,84 +23,148 @@ public record UnitDefinition(
         List<Float> attackSpeed,
         List<Integer> range,
         List<String> traits,
-        AbilityDefinition ability) {
+        AbilityDefinition ability,
+        @JsonIgnore Set<String> traitSet, // Shared by every unit instance, like the stars
+        @JsonIgnore List<StarStats> stars) { // Flyweight stat blocks [lvl1, lvl2, lvl3], derived from the lists above
+
+    public static final int MAX_STAR_LEVEL = 3;
+
+    public UnitDefinition {
+        if (traits == null) traits = List.of();
+        if (traitSet == null) traitSet = Collections.unmodifiableSet(new LinkedHashSet<>(traits));
+        if (stars == null) {
+            var compiled = new ArrayList<StarStats>(MAX_STAR_LEVEL);
+            for (var level = 1; level <= MAX_STAR_LEVEL; level++) {
+                compiled.add(StarStats.of(
+                        valueAt(maxHealth, level).intValue(),
+                        valueAt(maxMana, level).intValue(),
+                        valueAt(attackDamage, level).intValue(),
+                        valueAt(abilityPower, level).intValue(),
+                        valueAt(armor, level).intValue(),
+                        valueAt(magicResist, level).intValue(),
+                        valueAt(attackSpeed, level).floatValue(),
+                        valueAt(range, level).intValue()));
+            }
+            stars = List.copyOf(compiled);
+        }
+    }
+
+    // Used by Jackson; the canonical constructor derives the trait set and star stats
+    @JsonCreator
+    public UnitDefinition(
+            @JsonProperty("id") String id,
+            @JsonProperty("name") String name,
+            @JsonProperty("cost") int cost,
+            @JsonProperty("maxHealth") List<Integer> maxHealth,
+            @JsonProperty("maxMana") List<Integer> maxMana,
+            @JsonProperty("attackDamage") List<Integer> attackDamage,
+            @JsonProperty("abilityPower") List<Integer> abilityPower,
+            @JsonProperty("armor") List<Integer> armor,
+            @JsonProperty("magicResist") List<Integer> magicResist,
+            @JsonProperty("attackSpeed") List<Float> attackSpeed,
+            @JsonProperty("range") List<Integer> range,
+            @JsonProperty("traits") List<String> traits,
+            @JsonProperty("ability") AbilityDefinition ability) {
+        this(
+                id,
+                name,
+                cost,
+                maxHealth,
+                maxMana,
+                attackDamage,
+                abilityPower,
+                armor,
+                magicResist,
+                attackSpeed,
+                range,
+                traits,
+                ability,
+                null,
+                null);
+    }
+
+    // Stat block for a star level, clamped to the levels that exist
+    public StarStats stats(int level) {
+        return stars.get(Math.clamp(level - 1, 0, MAX_STAR_LEVEL - 1));
+    }
 
     public int getMaxHealth(int level) {
-        return getVal(maxHealth, level);
+        return stats(level).maxHealth();
     }
 
     public int getMaxMana(int level) {
-        return getVal(maxMana, level);
+        return stats(level).maxMana();
     }
 
     public int getAttackDamage(int level) {
-        return getVal(attackDamage, level);
+        return stats(level).attackDamage();
     }
 
     public int getAbilityPower(int level) {
-        return getVal(abilityPower, level);
+        return stats(level).abilityPower();
     }
 
     public int getArmor(int level) {
-        return getVal(armor, level);
+        return stats(level).armor();
     }
 
     public int getMagicResist(int level) {
-        return getVal(magicResist, level);
+        return stats(level).magicResist();
     }
 
     public float getAttackSpeed(int level) {
-        return getVal(attackSpeed, level);
+        return stats(level).attackSpeed();
     }
 
     public int getRange(int level) {
-        return getVal(range, level);
+        return stats(level).range();
     }
 
-    private <T> T getVal(List<T> list, int level) {
-        if (list == null || list.isEmpty()) return null;
+    // Missing stats are 0, levels beyond the list repeat its last value
+    private static Number valueAt(List<? extends Number> list, int level) {
+        if (list == null || list.isEmpty()) return 0;
         return list.get(Math.min(level - 1, list.size() - 1));
     }
 
     // Compatibility getters for Shop Tooltip (always shows 1-star stats)
     @JsonProperty("maxHealth")
     public int baseMaxHealth() {
-        return getMaxHealth(1);
+        return stars.get(0).maxHealth();
     }
 
     @JsonProperty("maxMana")
     public int baseMaxMana() {
-        return getMaxMana(1);
+        return stars.get(0).maxMana();
     }
 
     @JsonProperty("attackDamage")
     public int baseAttackDamage() {
-        return getAttackDamage(1);
+        return stars.get(0).attackDamage();
     }
 
     @JsonProperty("abilityPower")
     public int baseAbilityPower() {
-        return getAbilityPower(1);
+        return stars.get(0).abilityPower();
     }
 
     @JsonProperty("armor")
     public int baseArmor() {
-        return getArmor(1);
+        return stars.get(0).armor();
     }
 
     @JsonProperty("magicResist")
     public int baseMagicResist() {
-        return getMagicResist(1);
+        return stars.get(0).magicResist();
     }
 
     @JsonProperty("attackSpeed")
     public float baseAttackSpeed() {
-        return getAttackSpeed(1);
+        return stars.get(0).attackSpeed();
     }
 
     @JsonProperty("range")
     public int baseRange() {
-        return getRange(1);
+        return stars.get(0).range();
     }
 
     @JsonProperty("formattedAbilityDescription")
@@ -0,0 +1,76 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+
+// Fixed slots for the units of a bench or board, with an id -> slot index. Removing a unit closes the gap,
+// so the list clients render stays in insertion order. As a List it is a read-only view, never a copy.
+final class UnitSlots extends AbstractList<GameUnit> implements RandomAccess {
+
+    private final GameUnit[] units;
+    private final Map<String, Integer> slotById;
+    private int size;
+
+    UnitSlots(int capacity) {
+        this.units = new GameUnit[capacity];
+        this.slotById = new HashMap<>(capacity * 2);
+    }
+
+    @Override
+    public GameUnit get(int index) {
+        Objects.checkIndex(index, size);
+        return units[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GameUnit unit && find(unit.getId()) == unit;
+    }
+
+    boolean isFull() {
+        return size == units.length;
+    }
+
+    GameUnit find(String id) {
+        var slot = slotById.get(id);
+        return slot != null ? units[slot] : null;
+    }
+
+    boolean append(GameUnit unit) {
+        if (isFull()) return false;
+        units[size] = unit;
+        slotById.put(unit.getId(), size++);
+        modCount++;
+        return true;
+    }
+
+    // Puts a unit into the slot of one that is leaving, e.g. when a bench unit is swapped with a board unit
+    void replace(GameUnit leaving, GameUnit unit) {
+        var slot = slotById.remove(leaving.getId());
+        units[slot] = unit;
+        slotById.put(unit.getId(), slot);
+    }
+
+    boolean removeUnit(GameUnit unit) {
+        var slot = slotById.get(unit.getId());
+        if (slot == null || units[slot] != unit) return false;
+        slotById.remove(unit.getId());
+        size--;
+        for (var i = slot; i < size; i++) {
+            units[i] = units[i + 1];
+            slotById.put(units[i].getId(), i);
+        }
+        units[size] = null;
+        modCount++;
+        return true;
+    }
+}
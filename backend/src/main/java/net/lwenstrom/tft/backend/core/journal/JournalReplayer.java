@@ -0,0 +1,79 @@
+package net.lwenstrom.tft.backend.core.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.engine.GameRoom;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.random.RoomRandom;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+
+// Feeds a room journal through a fresh GameRoom on a SimulatedClock, as fast as the CPU allows. The room is
+// rebuilt from the journaled mode and seed with the journaled player ids, so on the same unit and trait data it
+// goes through the same states as the original did.
+public final class JournalReplayer {
+
+    private static final RoomJournal.Entry[] ENTRIES = RoomJournal.Entry.values();
+
+    public record Result(GameRoom room, int ticks, int inputs, boolean truncated, long elapsedNanos) {}
+
+    private final DataLoader dataLoader;
+
+    public JournalReplayer(DataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
+    public Result replay(Path file) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != RoomJournal.MAGIC) throw new IOException("Not a room journal: " + file);
+            var version = in.readUnsignedByte();
+            if (version != RoomJournal.VERSION) throw new IOException("Unsupported journal version " + version);
+            var roomId = in.readUTF();
+            var mode = GameMode.valueOf(in.readUTF());
+            var seed = in.readLong();
+            var time = in.readLong();
+
+            var clock = new SimulatedClock(time);
+            var room = new GameRoom(roomId, dataLoader, mode, clock, RoomRandom.fromSeed(seed));
+            var ticks = 0;
+            var inputs = 0;
+            var truncated = false;
+            var start = System.nanoTime();
+            int type;
+            while ((type = in.read()) >= 0) {
+                try {
+                    time += RoomJournal.readVarLong(in);
+                    clock.setTime(time);
+                    apply(room, ENTRIES[type], in);
+                } catch (EOFException e) {
+                    // A crash can cut the last entry short; everything before it is still replayed
+                    truncated = true;
+                    break;
+                }
+                if (type == RoomJournal.Entry.TICK.ordinal()) {
+                    ticks++;
+                } else {
+                    inputs++;
+                }
+            }
+            return new Result(room, ticks, inputs, truncated, System.nanoTime() - start);
+        }
+    }
+
+    // Applies one entry whose payload follows in in; shared with the write-ahead log, which stores the same payloads
+    static void apply(GameRoom room, RoomJournal.Entry entry, DataInput in) throws IOException {
+        switch (entry) {
+            case TICK -> room.tick();
+            case JOIN -> room.addPlayer(in.readUTF(), in.readUTF());
+            case LEAVE -> room.removePlayer(in.readUTF());
+            case ADD_BOT -> room.addBot();
+            case START -> room.startMatch();
+            case ACTION -> room.handleAction(RoomJournal.readAction(in));
+        }
+    }
+}
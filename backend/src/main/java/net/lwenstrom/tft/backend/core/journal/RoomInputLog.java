@@ -0,0 +1,65 @@
+package net.lwenstrom.tft.backend.core.journal;
+
+import net.lwenstrom.tft.backend.core.model.GameAction;
+
+// What a GameRoom reports of everything that drives it, in the order it applies it. Implemented by the
+// per-room journal and the write-ahead log; replaying the calls on a room with the same seed rebuilds it.
+public interface RoomInputLog {
+
+    RoomInputLog NONE = new RoomInputLog() {};
+
+    default void tick(long time) {}
+
+    default void joined(long time, String playerId, String name) {}
+
+    default void left(long time, String playerId) {}
+
+    default void botAdded(long time) {}
+
+    default void started(long time) {}
+
+    default void action(long time, GameAction action) {}
+
+    // Reports to both, first then second
+    static RoomInputLog both(RoomInputLog first, RoomInputLog second) {
+        if (first == NONE) return second;
+        if (second == NONE) return first;
+        return new RoomInputLog() {
+            @Override
+            public void tick(long time) {
+                first.tick(time);
+                second.tick(time);
+            }
+
+            @Override
+            public void joined(long time, String playerId, String name) {
+                first.joined(time, playerId, name);
+                second.joined(time, playerId, name);
+            }
+
+            @Override
+            public void left(long time, String playerId) {
+                first.left(time, playerId);
+                second.left(time, playerId);
+            }
+
+            @Override
+            public void botAdded(long time) {
+                first.botAdded(time);
+                second.botAdded(time);
+            }
+
+            @Override
+            public void started(long time) {
+                first.started(time);
+                second.started(time);
+            }
+
+            @Override
+            public void action(long time, GameAction action) {
+                first.action(time, action);
+                second.action(time, action);
+            }
+        };
+    }
+}
@@ -0,0 +1,222 @@
+package net.lwenstrom.tft.backend.core.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import net.lwenstrom.tft.backend.core.model.ActionType;
+import net.lwenstrom.tft.backend.core.model.GameAction;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+
+// Append-only binary journal of everything that drives one room: its mode and seed, then joins, leaves, bots,
+// the match start, player actions and the time of every tick. Times are varint deltas, so a tick costs two bytes.
+// Writes are buffered and flushed once per second of room time and on close; a failing disk stops the journal,
+// never the room.
+@Slf4j
+public final class RoomJournal implements RoomInputLog, Closeable {
+
+    static final int MAGIC = 0x54465452; // "TFTR"
+    static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    enum Entry {
+        TICK,
+        JOIN,
+        LEAVE,
+        ADD_BOT,
+        START,
+        ACTION
+    }
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    // Presence bits of an action's optional fields
+    private static final int HAS_PLAYER = 1;
+    private static final int HAS_UNIT = 1 << 1;
+    private static final int HAS_ORB = 1 << 2;
+    private static final int HAS_X = 1 << 3;
+    private static final int HAS_Y = 1 << 4;
+    private static final int HAS_SHOP_INDEX = 1 << 5;
+
+    public static final RoomJournal DISABLED = new RoomJournal(null, null, 0);
+
+    private final Path file;
+    private DataOutputStream out;
+    private long lastTime;
+    private long lastFlush;
+
+    private RoomJournal(Path file, DataOutputStream out, long startTime) {
+        this.file = file;
+        this.out = out;
+        this.lastTime = startTime;
+        this.lastFlush = startTime;
+    }
+
+    // Starts a new journal at file, replacing any older one
+    public static RoomJournal create(Path file, String roomId, GameMode mode, long seed, long startTime)
+            throws IOException {
+        var dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(roomId);
+        out.writeUTF(mode.name());
+        out.writeLong(seed);
+        out.writeLong(startTime);
+        return new RoomJournal(file, out, startTime);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized boolean isOpen() {
+        return out != null;
+    }
+
+    @Override
+    public synchronized void tick(long time) {
+        if (!begin(Entry.TICK, time)) return;
+        if (time - lastFlush >= FLUSH_INTERVAL_MS) {
+            lastFlush = time;
+            try {
+                out.flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void joined(long time, String playerId, String name) {
+        if (!begin(Entry.JOIN, time)) return;
+        try {
+            out.writeUTF(playerId);
+            out.writeUTF(name);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void left(long time, String playerId) {
+        if (!begin(Entry.LEAVE, time)) return;
+        try {
+            out.writeUTF(playerId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void botAdded(long time) {
+        begin(Entry.ADD_BOT, time);
+    }
+
+    @Override
+    public synchronized void started(long time) {
+        begin(Entry.START, time);
+    }
+
+    @Override
+    public synchronized void action(long time, GameAction action) {
+        if (!begin(Entry.ACTION, time)) return;
+        try {
+            writeAction(out, action);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Closing room journal {} failed", file, e);
+        }
+        out = null;
+    }
+
+    // Writes the entry type and the time since the previous entry; false when the journal is not open
+    private boolean begin(Entry entry, long time) {
+        if (out == null) return false;
+        try {
+            out.writeByte(entry.ordinal());
+            writeVarLong(out, time - lastTime);
+            lastTime = time;
+            return true;
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+    }
+
+    private void fail(IOException e) {
+        log.warn("Room journal {} stopped", file, e);
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // Already failing
+        }
+        out = null;
+    }
+
+    static void writeAction(DataOutput out, GameAction action) throws IOException {
+        var flags = (action.playerId() != null ? HAS_PLAYER : 0)
+                | (action.unitId() != null ? HAS_UNIT : 0)
+                | (action.orbId() != null ? HAS_ORB : 0)
+                | (action.targetX() != null ? HAS_X : 0)
+                | (action.targetY() != null ? HAS_Y : 0)
+                | (action.shopIndex() != null ? HAS_SHOP_INDEX : 0);
+        out.writeByte(action.type().ordinal());
+        out.writeByte(flags);
+        if (action.playerId() != null) out.writeUTF(action.playerId());
+        if (action.unitId() != null) out.writeUTF(action.unitId());
+        if (action.orbId() != null) out.writeUTF(action.orbId());
+        if (action.targetX() != null) writeVarLong(out, action.targetX());
+        if (action.targetY() != null) writeVarLong(out, action.targetY());
+        if (action.shopIndex() != null) writeVarLong(out, action.shopIndex());
+    }
+
+    static GameAction readAction(DataInput in) throws IOException {
+        var type = ACTION_TYPES[in.readUnsignedByte()];
+        var flags = in.readUnsignedByte();
+        var playerId = (flags & HAS_PLAYER) != 0 ? in.readUTF() : null;
+        var unitId = (flags & HAS_UNIT) != 0 ? in.readUTF() : null;
+        var orbId = (flags & HAS_ORB) != 0 ? in.readUTF() : null;
+        var x = (flags & HAS_X) != 0 ? (Integer) (int) readVarLong(in) : null;
+        var y = (flags & HAS_Y) != 0 ? (Integer) (int) readVarLong(in) : null;
+        var shopIndex = (flags & HAS_SHOP_INDEX) != 0 ? (Integer) (int) readVarLong(in) : null;
+        return new GameAction(type, playerId, unitId, orbId, x, y, shopIndex);
+    }
+
+    // Zigzag varint: small values of either sign take one byte
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        var v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        var v = 0L;
+        for (var shift = 0; ; shift += 7) {
+            var b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            if (shift > 63) throw new IOException("Malformed varint");
+        }
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,626 @@
+package net.lwenstrom.tft.backend.core.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+import net.lwenstrom.tft.backend.core.engine.GameRoom;
+import net.lwenstrom.tft.backend.core.model.GameAction;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.time.RecoveredClock;
+
+// Write-ahead log of what drives every room, so a crash loses at most one tick of it. Rooms are spread over
+// shards by id; each shard appends to preallocated, memory-mapped segment files under its own lock, so a record
+// costs a copy into the page cache and no system call. commit() runs once per engine tick and has a background
+// thread force what was written since, one msync per shard for all rooms. Records carry a CRC32C and recovery
+// stops at the first that is torn. Each room numbers its records; a snapshot remembers the number it contains,
+// recovery applies only what came after, and segments whose rooms are all covered by a snapshot are deleted.
+@Slf4j
+public final class WriteAheadLog implements Closeable {
+
+    static final int MAGIC = 0x54465457; // "TFTW"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32; // Magic, version, segment number, time of the first record
+    private static final int RECORD_HEADER_BYTES = 8; // Payload length and its CRC32C
+    private static final int MAX_PREFIX_BYTES = 1 + 10 + 10; // Type, room handle, time delta
+    private static final String SUFFIX = ".wal";
+    private static final RoomJournal.Entry[] ENTRIES = RoomJournal.Entry.values();
+
+    // Record types beside the journal entries: a room's id, mode and seed for the handle its records use in this
+    // segment, written when it opens and again at the start of every later segment; and its end
+    private static final int ROOM = 0x80;
+    private static final int CLOSE = 0x81;
+
+    @FunctionalInterface
+    private interface Body {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private final Shard[] shards;
+    private final int shardCount; // Shards that take new rooms; the others only hold segments of an earlier run
+    private final int segmentBytes;
+    private final Map<String, RoomLog> open = new ConcurrentHashMap<>();
+    private final Map<String, Long> snapshotted = new ConcurrentHashMap<>(); // Sequence in a durable snapshot
+    private Map<String, RoomTail> recovered;
+    private final AtomicBoolean commitPending = new AtomicBoolean();
+    private final ExecutorService committer = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "wal-commit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private WriteAheadLog(Shard[] shards, int shardCount, int segmentBytes, Map<String, RoomTail> recovered) {
+        this.shards = shards;
+        this.shardCount = shardCount;
+        this.segmentBytes = segmentBytes;
+        this.recovered = recovered;
+    }
+
+    // Opens the log in dir and reads what an earlier run left there; rooms are spread over shardCount shards, and
+    // shard directories of an earlier run with more shards are still read and cleaned up
+    public static WriteAheadLog open(Path dir, int shardCount, int segmentBytes) throws IOException {
+        if (shardCount < 1) throw new IllegalArgumentException("At least one shard");
+        if (segmentBytes < 4096) throw new IllegalArgumentException("Segments need at least 4096 bytes");
+        Files.createDirectories(dir);
+        var existing = 0;
+        try (Stream<Path> dirs = Files.list(dir)) {
+            for (var shardDir : dirs.toList()) {
+                var name = shardDir.getFileName().toString();
+                if (name.matches("shard-\\d+")) existing = Math.max(existing, Integer.parseInt(name.substring(6)) + 1);
+            }
+        }
+        var shards = new Shard[Math.max(shardCount, existing)];
+        var tails = new HashMap<String, RoomTail>();
+        for (var i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(Files.createDirectories(dir.resolve("shard-" + i)));
+            read(shards[i], tails);
+        }
+        tails.values().forEach(tail -> tail.records.sort(Comparator.comparingLong(Record::sequence)));
+        return new WriteAheadLog(shards, shardCount, segmentBytes, tails);
+    }
+
+    // What the earlier run left of each room; handed out once, for the restore at startup
+    public synchronized Map<String, RoomTail> recovered() {
+        var tails = recovered;
+        recovered = Map.of();
+        return tails;
+    }
+
+    // Starts the log of a new room; recovery rebuilds it from its seed if no snapshot of it exists
+    public RoomLog open(String roomId, GameMode mode, long seed, long time) {
+        return register(roomId, mode, seed, 0, time, true);
+    }
+
+    // Continues the log of a restored room, whose state contains everything up to sequence
+    public RoomLog attach(String roomId, GameMode mode, long seed, long sequence, long time) {
+        return register(roomId, mode, seed, sequence, time, false);
+    }
+
+    private RoomLog register(String roomId, GameMode mode, long seed, long sequence, long time, boolean created) {
+        var shard = shards[Math.floorMod(roomId.hashCode(), shardCount)];
+        var room = new RoomLog(shard, roomId, mode, seed, sequence);
+        synchronized (shard) {
+            var previous = open.put(roomId, room);
+            if (previous != null) previous.shard.remove(previous);
+            shard.open.put(roomId, room);
+            append(room, ROOM, time, out -> writeRoom(out, room, created));
+        }
+        return room;
+    }
+
+    // Number of the room's last record, 0 before the first; a snapshot taken under the room's lock contains it
+    public long sequence(String roomId) {
+        var room = open.get(roomId);
+        return room != null ? room.sequence : 0;
+    }
+
+    // Marks the room as ended, so recovery does not bring it back, and lets its segments go
+    public void closeRoom(String roomId, long time) {
+        var room = open.remove(roomId);
+        if (room == null) return;
+        synchronized (room.shard) {
+            append(room, CLOSE, time, null);
+            room.shard.remove(room);
+        }
+        snapshotted.remove(roomId);
+        retain();
+    }
+
+    // Called once a snapshot of the room with everything up to sequence is on disk
+    public void snapshotted(String roomId, long sequence) {
+        if (!open.containsKey(roomId)) return;
+        snapshotted.merge(roomId, sequence, Math::max);
+        retain();
+    }
+
+    // Group commit: forces everything appended so far on the commit thread. Calls while one is queued are folded
+    // into it, so a slow disk makes commits larger, not the ticks longer.
+    public void commit() {
+        if (commitPending.compareAndSet(false, true)) {
+            committer.execute(() -> {
+                commitPending.set(false);
+                force();
+            });
+        }
+    }
+
+    // Forces what is left and stops the commit thread; rooms still open are recovered from this state
+    @Override
+    public void close() {
+        committer.shutdown();
+        try {
+            if (!committer.awaitTermination(30, TimeUnit.SECONDS)) log.warn("Write-ahead log commit still running");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force();
+        for (var shard : shards) {
+            synchronized (shard) {
+                shard.failed = true;
+            }
+        }
+    }
+
+    // Appends one record; a failing disk stops the shard, never the room. A record that does not encode or fit a
+    // segment, e.g. a name too long for writeUTF, is dropped before it is numbered; a room whose opening is
+    // dropped is not logged at all.
+    private void append(RoomLog room, int type, long time, Body body) {
+        var shard = room.shard;
+        synchronized (shard) {
+            if (room.closed || shard.failed) return;
+            shard.body.reset();
+            try {
+                if (body != null) body.write(shard.body.out);
+                if (HEADER_BYTES + RECORD_HEADER_BYTES + MAX_PREFIX_BYTES + shard.body.size() > segmentBytes) {
+                    throw new IOException("Record of " + shard.body.size() + " bytes too large");
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Dropping a write-ahead log record of room {} that does not encode", room.roomId, e);
+                if (type == ROOM) shard.remove(room);
+                return;
+            }
+            try {
+                var needed = RECORD_HEADER_BYTES + MAX_PREFIX_BYTES + shard.body.size();
+                if (shard.active == null || shard.active.capacity - shard.active.position < needed) {
+                    roll(shard, time, needed);
+                }
+                if (type < ROOM) room.sequence++;
+                write(shard, room, type, time, shard.body);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Write-ahead log {} stopped", shard.dir, e);
+                shard.failed = true;
+            }
+        }
+    }
+
+    // Starts the next segment and names every open room of the shard in it, so it can be read on its own. With
+    // many open rooms the segment grows past segmentBytes, so those names and the record that rolled always fit.
+    private void roll(Shard shard, long time, int needed) throws IOException {
+        var rooms = List.copyOf(shard.open.values());
+        var headers = new Scratch[rooms.size()];
+        var size = HEADER_BYTES + needed;
+        for (var i = 0; i < headers.length; i++) {
+            headers[i] = new Scratch();
+            writeRoom(headers[i].out, rooms.get(i), false);
+            size += RECORD_HEADER_BYTES + MAX_PREFIX_BYTES + headers[i].size();
+        }
+        var number = shard.nextNumber++;
+        var file = shard.dir.resolve(String.format("%016d%s", number, SUFFIX));
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(
+                file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, size));
+        }
+        buffer.putInt(0, MAGIC).put(4, (byte) VERSION).putLong(8, number).putLong(16, time);
+        var segment = new Segment(file, buffer, HEADER_BYTES);
+        shard.segments.add(segment);
+        shard.active = segment;
+        shard.lastTime = time;
+        for (var i = 0; i < headers.length; i++) {
+            write(shard, rooms.get(i), ROOM, time, headers[i]);
+        }
+    }
+
+    private static void writeRoom(DataOutput out, RoomLog room, boolean created) throws IOException {
+        out.writeUTF(room.roomId);
+        out.writeUTF(room.mode.name());
+        out.writeLong(room.seed);
+        out.writeBoolean(created);
+        RoomJournal.writeVarLong(out, room.sequence + 1);
+    }
+
+    private void write(Shard shard, RoomLog room, int type, long time, Scratch body) {
+        var segment = shard.active;
+        var buffer = segment.buffer;
+        var start = segment.position;
+        if (type == ROOM) room.handle = segment.nextHandle++;
+        var pos = start + RECORD_HEADER_BYTES;
+        buffer.put(pos++, (byte) type);
+        pos = putVarLong(buffer, pos, room.handle);
+        pos = putVarLong(buffer, pos, time - shard.lastTime);
+        buffer.put(pos, body.array(), 0, body.size());
+        pos += body.size();
+        var length = pos - start - RECORD_HEADER_BYTES;
+        shard.crc.reset();
+        shard.crc.update(buffer.slice(start + RECORD_HEADER_BYTES, length));
+        buffer.putInt(start + Integer.BYTES, (int) shard.crc.getValue());
+        buffer.putInt(start, length);
+        segment.position = pos;
+        segment.last.put(room.roomId, room.sequence);
+        shard.lastTime = time;
+    }
+
+    // Zigzag varint, as RoomJournal.writeVarLong, straight into the mapped segment
+    private static int putVarLong(ByteBuffer buffer, int pos, long value) {
+        var v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            buffer.put(pos++, (byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put(pos++, (byte) v);
+        return pos;
+    }
+
+    private void force() {
+        for (var shard : shards) {
+            var dirty = new ArrayList<Dirty>();
+            synchronized (shard) {
+                for (var segment : shard.segments) {
+                    if (segment.buffer != null && segment.forced < segment.position) {
+                        dirty.add(new Dirty(segment, segment.buffer, segment.position));
+                    }
+                }
+            }
+            for (var range : dirty) {
+                var segment = range.segment();
+                try {
+                    range.buffer().force(segment.forced, range.end() - segment.forced);
+                    segment.forced = range.end();
+                } catch (RuntimeException e) {
+                    log.warn("Could not force write-ahead log {}", segment.file, e);
+                }
+            }
+            synchronized (shard) {
+                // A full segment stays mapped until it is forced once more
+                for (var range : dirty) {
+                    var segment = range.segment();
+                    if (segment != shard.active && segment.forced == segment.position) segment.buffer = null;
+                }
+            }
+        }
+    }
+
+    // Deletes the oldest segments as long as each room in them has ended or has a snapshot past its records.
+    // Only a prefix goes, so the segment that opened a room is never gone while a later one still names it.
+    private void retain() {
+        for (var shard : shards) {
+            var deletable = new ArrayList<Segment>();
+            synchronized (shard) {
+                while (!shard.segments.isEmpty()) {
+                    var segment = shard.segments.getFirst();
+                    if (segment == shard.active || !covered(segment)) break;
+                    deletable.add(shard.segments.removeFirst());
+                    segment.buffer = null;
+                }
+            }
+            for (var segment : deletable) {
+                try {
+                    Files.deleteIfExists(segment.file);
+                } catch (IOException e) {
+                    log.warn("Could not delete write-ahead log {}", segment.file, e);
+                }
+            }
+        }
+    }
+
+    private boolean covered(Segment segment) {
+        for (var entry : segment.last.entrySet()) {
+            if (open.containsKey(entry.getKey()) && snapshotted.getOrDefault(entry.getKey(), -1L) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reads the shard's segments in order and registers them for retention
+    private static void read(Shard shard, Map<String, RoomTail> tails) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(shard.dir)) {
+            files = list.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (var file : files) {
+            var segment = new Segment(file, null, 0);
+            shard.segments.add(segment);
+            try {
+                var number = readSegment(file, segment, tails);
+                shard.nextNumber = Math.max(shard.nextNumber, number + 1);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skipping unreadable write-ahead log {}", file, e);
+            }
+            segment.forced = segment.position;
+        }
+        // Leftovers that do not even have a valid header still get a number below the next segment's
+        for (var file : files) {
+            var name = file.getFileName().toString();
+            try {
+                var number = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                shard.nextNumber = Math.max(shard.nextNumber, number + 1);
+            } catch (NumberFormatException ignored) {
+                // Not ours
+            }
+        }
+    }
+
+    private static long readSegment(Path file, Segment segment, Map<String, RoomTail> tails) throws IOException {
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) throw new IOException("Not a write-ahead log");
+        if (buffer.get(4) != VERSION) throw new IOException("Unsupported write-ahead log version " + buffer.get(4));
+        var number = buffer.getLong(8);
+        var time = buffer.getLong(16);
+        var handles = new HashMap<Long, Cursor>();
+        var crc = new CRC32C();
+        var pos = HEADER_BYTES;
+        while (pos + RECORD_HEADER_BYTES <= buffer.limit()) {
+            var length = buffer.getInt(pos);
+            if (length == 0) break; // Preallocated space that was never written
+            if (length < 0 || length > buffer.limit() - pos - RECORD_HEADER_BYTES) {
+                log.warn("Write-ahead log {} ends in a torn record at {}", file, pos);
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(pos + RECORD_HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(pos + Integer.BYTES)) {
+                log.warn("Write-ahead log {} ends in a torn record at {}", file, pos);
+                break;
+            }
+            var payload = new byte[length];
+            buffer.get(pos + RECORD_HEADER_BYTES, payload);
+            var in = new DataInputStream(new ByteArrayInputStream(payload));
+            var type = in.readUnsignedByte();
+            var handle = RoomJournal.readVarLong(in);
+            time += RoomJournal.readVarLong(in);
+            if (type == ROOM) {
+                var roomId = in.readUTF();
+                var tail = tails.computeIfAbsent(roomId, RoomTail::new);
+                tail.mode = GameMode.valueOf(in.readUTF());
+                tail.seed = in.readLong();
+                if (in.readBoolean()) tail.created(time);
+                var next = RoomJournal.readVarLong(in);
+                handles.put(handle, new Cursor(tail, next));
+                segment.last.merge(roomId, next - 1, Math::max);
+            } else {
+                var cursor = handles.get(handle);
+                if (cursor == null) throw new IOException("Record of unknown room " + handle + " at " + pos);
+                if (type == CLOSE) {
+                    cursor.tail.closed = true;
+                } else {
+                    var sequence = cursor.next++;
+                    var body = Arrays.copyOfRange(payload, length - in.available(), length);
+                    cursor.tail.records.add(new Record(sequence, time, ENTRIES[type], body));
+                    segment.last.merge(cursor.tail.roomId, sequence, Math::max);
+                }
+            }
+            pos += RECORD_HEADER_BYTES + length;
+        }
+        segment.position = pos;
+        return number;
+    }
+
+    // The log of one room: what GameRoom reports to, under the room's lock
+    public final class RoomLog implements RoomInputLog {
+        private final Shard shard;
+        private final String roomId;
+        private final GameMode mode;
+        private final long seed;
+        private long sequence;
+        private long handle;
+        private boolean closed;
+
+        private RoomLog(Shard shard, String roomId, GameMode mode, long seed, long sequence) {
+            this.shard = shard;
+            this.roomId = roomId;
+            this.mode = mode;
+            this.seed = seed;
+            this.sequence = sequence;
+        }
+
+        public long sequence() {
+            return sequence;
+        }
+
+        @Override
+        public void tick(long time) {
+            append(this, RoomJournal.Entry.TICK.ordinal(), time, null);
+        }
+
+        @Override
+        public void joined(long time, String playerId, String name) {
+            append(this, RoomJournal.Entry.JOIN.ordinal(), time, out -> {
+                out.writeUTF(playerId);
+                out.writeUTF(name);
+            });
+        }
+
+        @Override
+        public void left(long time, String playerId) {
+            append(this, RoomJournal.Entry.LEAVE.ordinal(), time, out -> out.writeUTF(playerId));
+        }
+
+        @Override
+        public void botAdded(long time) {
+            append(this, RoomJournal.Entry.ADD_BOT.ordinal(), time, null);
+        }
+
+        @Override
+        public void started(long time) {
+            append(this, RoomJournal.Entry.START.ordinal(), time, null);
+        }
+
+        @Override
+        public void action(long time, GameAction action) {
+            append(this, RoomJournal.Entry.ACTION.ordinal(), time, out -> RoomJournal.writeAction(out, action));
+        }
+    }
+
+    // What recovery found of one room: how to rebuild it without a snapshot and the records to apply on top
+    public static final class RoomTail {
+        private final String roomId;
+        private GameMode mode;
+        private long seed;
+        private boolean created;
+        private long createdAt;
+        private boolean closed;
+        private final List<Record> records = new ArrayList<>();
+
+        private RoomTail(String roomId) {
+            this.roomId = roomId;
+        }
+
+        // The room's opening record is still in the log, so it can be rebuilt from its seed. Only an id that was
+        // seen closed starts over; other records already read, e.g. from the shard a room moved to when the shard
+        // count changed, are its own and stay.
+        private void created(long time) {
+            if (closed) {
+                closed = false;
+                records.clear();
+            }
+            created = true;
+            createdAt = time;
+        }
+
+        public GameMode mode() {
+            return mode;
+        }
+
+        public long seed() {
+            return seed;
+        }
+
+        public boolean created() {
+            return created;
+        }
+
+        public long createdAt() {
+            return createdAt;
+        }
+
+        public boolean closed() {
+            return closed;
+        }
+
+        public long lastSequence() {
+            return records.isEmpty() ? 0 : records.getLast().sequence();
+        }
+
+        // Applies the records after sequence, each at its own time, up to the first gap; returns the last applied
+        public long replay(GameRoom room, RecoveredClock clock, long sequence) throws IOException {
+            for (var record : records) {
+                if (record.sequence() <= sequence) continue;
+                if (record.sequence() != sequence + 1) {
+                    log.warn("Room {} misses records after {}, replay stops there", roomId, sequence);
+                    break;
+                }
+                clock.setTime(record.time());
+                JournalReplayer.apply(
+                        room, record.entry(), new DataInputStream(new ByteArrayInputStream(record.body())));
+                sequence = record.sequence();
+            }
+            return sequence;
+        }
+    }
+
+    record Record(long sequence, long time, RoomJournal.Entry entry, byte[] body) {}
+
+    private record Dirty(Segment segment, MappedByteBuffer buffer, int end) {}
+
+    // Where a room's records in the segment being read are numbered from
+    private static final class Cursor {
+        final RoomTail tail;
+        long next;
+
+        Cursor(RoomTail tail, long next) {
+            this.tail = tail;
+            this.next = next;
+        }
+    }
+
+    private static final class Shard {
+        final Path dir;
+        final List<Segment> segments = new ArrayList<>();
+        final Map<String, RoomLog> open = new HashMap<>();
+        final Scratch body = new Scratch();
+        final CRC32C crc = new CRC32C();
+        Segment active;
+        long nextNumber;
+        long lastTime;
+        boolean failed;
+
+        Shard(Path dir) {
+            this.dir = dir;
+        }
+
+        void remove(RoomLog room) {
+            room.closed = true;
+            open.remove(room.roomId, room);
+        }
+    }
+
+    private static final class Segment {
+        final Path file;
+        MappedByteBuffer buffer; // Null once the segment is full and forced, or when it was read at startup
+        final int capacity; // Usually segmentBytes, more when the room names of a roll needed the space
+        int position;
+        volatile int forced;
+        long nextHandle;
+        final Map<String, Long> last = new HashMap<>(); // Each room's last sequence in this segment
+
+        Segment(Path file, MappedByteBuffer buffer, int position) {
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = buffer != null ? buffer.capacity() : 0;
+            this.position = position;
+            this.forced = position;
+        }
+    }
+
+    // Reusable encode buffer that exposes its array for the copy into the segment
+    private static final class Scratch extends ByteArrayOutputStream {
+        final DataOutputStream out = new DataOutputStream(this);
+
+        Scratch() {
+            super(256);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
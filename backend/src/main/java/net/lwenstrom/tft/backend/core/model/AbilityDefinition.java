@@ -1,7 +1,12 @@
 package net.lwenstrom.tft.backend.core.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public record AbilityDefinition(
         String name,
@@ -10,7 +15,10 @@ public record AbilityDefinition(
         String pattern,
         List<Integer> range,
         List<Integer> values, // Exactly 3 values [lvl1, lvl2, lvl3]
-        List<AbilityModifier> modifiers) {
+        List<AbilityModifier> modifiers,
+        List<Integer> durations, // Status effect duration in ms per star level, empty for the type's default
+        StackRule stacking,
+        @JsonIgnore List<AbilityPlan> plans) { // Compiled per star level [lvl1, lvl2, lvl3], derived from the above
     public AbilityDefinition {
         if (modifiers == null)
             modifiers = Collections.emptyList();
@@ -18,28 +26,100 @@ public record AbilityDefinition(
             values = Collections.emptyList();
         if (range == null)
             range = Collections.emptyList();
+        if (durations == null)
+            durations = Collections.emptyList();
+        if (stacking == null)
+            stacking = StackRule.STACK;
+        if (plans == null) {
+            var compiled = new ArrayList<AbilityPlan>(3);
+            for (int starLevel = 1; starLevel <= 3; starLevel++) {
+                compiled.add(AbilityPlan.compile(
+                        type,
+                        pattern,
+                        forLevel(values, starLevel),
+                        forLevel(range, starLevel),
+                        forLevel(durations, starLevel),
+                        stacking,
+                        modifiers,
+                        starLevel));
+            }
+            plans = List.copyOf(compiled);
+        }
+    }
+
+    // Used by Jackson, so plans are compiled once when DataLoader loads the catalog
+    @JsonCreator
+    public AbilityDefinition(
+            @JsonProperty("name") String name,
+            @JsonProperty("description") String description,
+            @JsonProperty("type") AbilityType type,
+            @JsonProperty("pattern") String pattern,
+            @JsonProperty("range") List<Integer> range,
+            @JsonProperty("values") List<Integer> values,
+            @JsonProperty("modifiers") List<AbilityModifier> modifiers,
+            @JsonProperty("durations") List<Integer> durations,
+            @JsonProperty("stacking") StackRule stacking) {
+        this(name, description, type, pattern, range, values, modifiers, durations, stacking, null);
+    }
+
+    // Hand-built definitions without timed effects
+    public AbilityDefinition(
+            String name,
+            String description,
+            AbilityType type,
+            String pattern,
+            List<Integer> range,
+            List<Integer> values,
+            List<AbilityModifier> modifiers) {
+        this(name, description, type, pattern, range, values, modifiers, null, null, null);
+    }
+
+    // Compiled plan for a specific star level (1-indexed)
+    public AbilityPlan plan(int starLevel) {
+        return plans.get(Math.clamp(starLevel - 1, 0, plans.size() - 1));
     }
 
     // Get value for a specific star level (1-indexed)
     public int getValueForLevel(int starLevel) {
-        if (values.isEmpty())
-            return 0;
-        int index = Math.min(starLevel - 1, values.size() - 1);
-        return values.get(index);
+        return forLevel(values, starLevel);
     }
 
     // Get range for a specific star level (1-indexed)
     public int getRangeForLevel(int starLevel) {
-        if (range.isEmpty())
+        return forLevel(range, starLevel);
+    }
+
+    private static int forLevel(List<Integer> list, int starLevel) {
+        if (list.isEmpty())
             return 0;
-        int index = Math.min(starLevel - 1, range.size() - 1);
-        return range.get(index);
+        int index = Math.min(starLevel - 1, list.size() - 1);
+        return list.get(index);
     }
 
     public List<AbilityModifier> modifiers() {
         return modifiers;
     }
 
+    // Plans are derived from the other components, so they take no part in equality
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AbilityDefinition other
+                && Objects.equals(name, other.name)
+                && Objects.equals(description, other.description)
+                && type == other.type
+                && Objects.equals(pattern, other.pattern)
+                && range.equals(other.range)
+                && values.equals(other.values)
+                && modifiers.equals(other.modifiers)
+                && durations.equals(other.durations)
+                && stacking == other.stacking;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, description, type, pattern, range, values, modifiers, durations, stacking);
+    }
+
     // Generate formatted description using template placeholders
     // Supported placeholders: $value, $range, $pattern, $type
     public String getFormattedDescription(int starLevel) {
@@ -0,0 +1,19 @@
+package net.lwenstrom.tft.backend.core.model;
+
+public enum AbilityPattern {
+    SINGLE, // The selected target only
+    LINE, // Every enemy on the cells from the caster towards the target, up to range
+    SURROUND, // Every enemy (or ally for heals) within range of the caster
+    SELF; // Anything else: heals land on the caster, damage and stuns have no area
+
+    // A missing pattern means SINGLE, same as the tooltip formatting in AbilityDefinition
+    public static AbilityPattern parse(String pattern) {
+        if (pattern == null) return SINGLE;
+        return switch (pattern) {
+            case "SINGLE" -> SINGLE;
+            case "LINE" -> LINE;
+            case "SURROUND" -> SURROUND;
+            default -> SELF;
+        };
+    }
+}
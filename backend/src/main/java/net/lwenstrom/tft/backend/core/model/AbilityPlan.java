@@ -0,0 +1,230 @@
+package net.lwenstrom.tft.backend.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One star level of an AbilityDefinition, compiled once when the definition is loaded.
+// Values are resolved to primitives and the modifiers are split into chains in cast order
+// (conditions, scaling, execute, lifesteal), so a cast does no list lookups, unboxing or instanceof dispatch.
+// Modifiers without values for this star level can never change the outcome and are left out of the chains.
+// The plan is shared by every unit of the definition, so it keeps its own copies of the chains and their
+// accessors return copies; casts read lifesteals through the indexed getters.
+public record AbilityPlan(
+        AbilityType type,
+        AbilityPattern pattern,
+        int value,
+        int range,
+        float buffMultiplier, // 1 + value%, applied by BUFF_ATK and BUFF_SPD
+        int durationMs, // How long the stun or buff lasts, 0 = until the combat ends
+        StackRule stacking,
+        Condition[] conditions,
+        Scaling[] scalings,
+        Execute[] executes,
+        float[] lifesteals) {
+
+    // Stun values predate timed effects and count 100 ms combat ticks
+    public static final int STUN_MS_PER_VALUE = 100;
+
+    public AbilityPlan {
+        conditions = conditions.clone();
+        scalings = scalings.clone();
+        executes = executes.clone();
+        lifesteals = lifesteals.clone();
+    }
+
+    @Override
+    public Condition[] conditions() {
+        return conditions.clone();
+    }
+
+    @Override
+    public Scaling[] scalings() {
+        return scalings.clone();
+    }
+
+    @Override
+    public Execute[] executes() {
+        return executes.clone();
+    }
+
+    @Override
+    public float[] lifesteals() {
+        return lifesteals.clone();
+    }
+
+    public int lifestealCount() {
+        return lifesteals.length;
+    }
+
+    public float lifesteal(int index) {
+        return lifesteals[index];
+    }
+
+    public static AbilityPlan compile(
+            AbilityType type,
+            String pattern,
+            int value,
+            int range,
+            int durationMs,
+            StackRule stacking,
+            List<AbilityModifier> modifiers,
+            int starLevel) {
+        var conditions = new ArrayList<Condition>();
+        var scalings = new ArrayList<Scaling>();
+        var executes = new ArrayList<Execute>();
+        var lifesteals = new ArrayList<Float>();
+        for (var modifier : modifiers) {
+            switch (modifier) {
+                case ConditionalModifier conditional -> addIfPresent(conditions, conditional.compile(starLevel));
+                case ScalingModifier scaling -> addIfPresent(scalings, scaling.compile(starLevel));
+                case ExecuteModifier execute -> addIfPresent(executes, execute.compile(starLevel));
+                case LifestealModifier lifesteal -> addIfPresent(lifesteals, lifesteal.compile(starLevel));
+            }
+        }
+
+        var lifestealArray = new float[lifesteals.size()];
+        for (var i = 0; i < lifestealArray.length; i++) {
+            lifestealArray[i] = lifesteals.get(i);
+        }
+        return new AbilityPlan(
+                type,
+                AbilityPattern.parse(pattern),
+                value,
+                range,
+                1.0f + (value / 100.0f),
+                durationMs > 0 ? durationMs : type == AbilityType.STUN ? value * STUN_MS_PER_VALUE : 0,
+                stacking,
+                conditions.toArray(Condition[]::new),
+                scalings.toArray(Scaling[]::new),
+                executes.toArray(Execute[]::new),
+                lifestealArray);
+    }
+
+    private static <T> void addIfPresent(List<T> chain, T step) {
+        if (step != null) chain.add(step);
+    }
+
+    public boolean conditionsMet(GameUnit caster, GameUnit target) {
+        return conditionsMet(
+                caster.getCurrentHealth(),
+                caster.getMaxHealth(),
+                caster.getMana(),
+                caster.getMaxMana(),
+                target.getCurrentHealth(),
+                target.getMaxHealth(),
+                target.isStunned());
+    }
+
+    public boolean conditionsMet(
+            int casterHealth,
+            int casterMaxHealth,
+            int casterMana,
+            int casterMaxMana,
+            int targetHealth,
+            int targetMaxHealth,
+            boolean targetStunned) {
+        for (var condition : conditions) {
+            if (!condition.isMet(
+                    casterHealth,
+                    casterMaxHealth,
+                    casterMana,
+                    casterMaxMana,
+                    targetHealth,
+                    targetMaxHealth,
+                    targetStunned)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Damage dealt to every unit the ability hits: value times all scalings, plus execute bonuses on the scaled value
+    public int damageAgainst(GameUnit caster, GameUnit target) {
+        return damageAgainst(
+                caster.getCurrentHealth(),
+                caster.getMaxHealth(),
+                caster.getMana(),
+                caster.getMaxMana(),
+                target.getCurrentHealth(),
+                target.getMaxHealth());
+    }
+
+    public int damageAgainst(
+            int casterHealth,
+            int casterMaxHealth,
+            int casterMana,
+            int casterMaxMana,
+            int targetHealth,
+            int targetMaxHealth) {
+        var scaled = (float) value;
+        for (var scaling : scalings) {
+            scaled *= scaling.multiplier(
+                    casterHealth, casterMaxHealth, casterMana, casterMaxMana, targetHealth, targetMaxHealth);
+        }
+        var scaledDamage = (int) scaled;
+        var total = scaledDamage;
+        for (var execute : executes) {
+            total += execute.bonusDamage(targetHealth, targetMaxHealth, scaledDamage);
+        }
+        return total;
+    }
+
+    public record Condition(ConditionalModifier.ConditionType type, float threshold) {
+
+        public boolean isMet(
+                int casterHealth,
+                int casterMaxHealth,
+                int casterMana,
+                int casterMaxMana,
+                int targetHealth,
+                int targetMaxHealth,
+                boolean targetStunned) {
+            return switch (type) {
+                case TARGET_HP_BELOW -> (float) targetHealth / targetMaxHealth < threshold;
+                case TARGET_HP_ABOVE -> (float) targetHealth / targetMaxHealth > threshold;
+                case TARGET_STUNNED -> targetStunned;
+                case CASTER_HP_BELOW -> (float) casterHealth / casterMaxHealth < threshold;
+                case CASTER_FULL_MANA -> casterMana >= casterMaxMana;
+            };
+        }
+
+        public boolean needsTarget() {
+            return type == ConditionalModifier.ConditionType.TARGET_HP_BELOW
+                    || type == ConditionalModifier.ConditionType.TARGET_HP_ABOVE
+                    || type == ConditionalModifier.ConditionType.TARGET_STUNNED;
+        }
+    }
+
+    public record Scaling(ScalingModifier.ScalingType type, float factor) {
+
+        // 1.0 = no change, 1.5 = 50% increase
+        public float multiplier(
+                int casterHealth,
+                int casterMaxHealth,
+                int casterMana,
+                int casterMaxMana,
+                int targetHealth,
+                int targetMaxHealth) {
+            return switch (type) {
+                case CASTER_MISSING_HP -> 1.0f + ((1.0f - ((float) casterHealth / casterMaxHealth)) * factor);
+                case CASTER_MANA_PERCENT -> 1.0f + (((float) casterMana / casterMaxMana) * factor);
+                // Percentage of the target's max HP, normalized to a multiplier
+                case TARGET_MAX_HP_PERCENT -> 1.0f + ((float) (int) (targetMaxHealth * factor) / 100.0f);
+                case TARGET_MISSING_HP -> 1.0f + ((1.0f - ((float) targetHealth / targetMaxHealth)) * factor);
+            };
+        }
+
+        public boolean needsTarget() {
+            return type == ScalingModifier.ScalingType.TARGET_MAX_HP_PERCENT
+                    || type == ScalingModifier.ScalingType.TARGET_MISSING_HP;
+        }
+    }
+
+    public record Execute(float hpThreshold, float bonusMultiplier) {
+
+        public int bonusDamage(int targetHealth, int targetMaxHealth, int baseDamage) {
+            var hpPercent = (float) targetHealth / targetMaxHealth;
+            return hpPercent <= hpThreshold ? (int) (baseDamage * bonusMultiplier) : 0;
+        }
+    }
+}
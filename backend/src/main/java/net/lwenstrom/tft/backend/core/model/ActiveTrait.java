@@ -0,0 +1,6 @@
+package net.lwenstrom.tft.backend.core.model;
+
+public record ActiveTrait(
+        String id, // Normalized trait id, e.g. "straw_hat"
+        String name, // Display name as listed on the units, e.g. "Straw Hat"
+        int count) {} // Number of distinct units contributing
@@ -23,36 +23,28 @@ public record ConditionalModifier(ConditionType conditionType, List<Float> thres
         CASTER_FULL_MANA
     }
 
+    // Resolve the threshold for one star level. Null when there is no threshold, which always passes.
+    public AbilityPlan.Condition compile(int starLevel) {
+        if (threshold == null || threshold.isEmpty())
+            return null;
+        int index = Math.min(starLevel - 1, threshold.size() - 1);
+        return new AbilityPlan.Condition(conditionType, threshold.get(index));
+    }
+
     // Check if the condition is met for the ability to apply its effect.
     public boolean isMet(GameUnit caster, GameUnit target, int starLevel) {
-        if (threshold == null || threshold.isEmpty())
+        var condition = compile(starLevel);
+        if (condition == null)
             return true; // Default to met if no threshold
-        int index = Math.min(starLevel - 1, threshold.size() - 1);
-        var currentThreshold = threshold.get(index);
-
-        return switch (conditionType) {
-            case TARGET_HP_BELOW -> {
-                if (target == null)
-                    yield false;
-                var hpPercent = (float) target.getCurrentHealth() / target.getMaxHealth();
-                yield hpPercent < currentThreshold;
-            }
-            case TARGET_HP_ABOVE -> {
-                if (target == null)
-                    yield false;
-                var hpPercent = (float) target.getCurrentHealth() / target.getMaxHealth();
-                yield hpPercent > currentThreshold;
-            }
-            case TARGET_STUNNED -> {
-                if (target == null)
-                    yield false;
-                yield target.getStunTicksRemaining() > 0;
-            }
-            case CASTER_HP_BELOW -> {
-                var hpPercent = (float) caster.getCurrentHealth() / caster.getMaxHealth();
-                yield hpPercent < currentThreshold;
-            }
-            case CASTER_FULL_MANA -> caster.getMana() >= caster.getMaxMana();
-        };
+        if (target == null && condition.needsTarget())
+            return false;
+        return condition.isMet(
+                caster.getCurrentHealth(),
+                caster.getMaxHealth(),
+                caster.getMana(),
+                caster.getMaxMana(),
+                target != null ? target.getCurrentHealth() : 0,
+                target != null ? target.getMaxHealth() : 0,
+                target != null && target.isStunned());
     }
 }
@@ -7,26 +7,26 @@ import java.util.List;
 public record ExecuteModifier(List<Float> hpThreshold, List<Float> bonusDamageMultiplier)
         implements AbilityModifier {
 
-    // Calculate bonus damage if target is below HP threshold.
-    public int calculateBonusDamage(GameUnit target, int baseDamage, int starLevel) {
-        if (target == null)
-            return 0;
+    // Resolve threshold and multiplier for one star level. Null when either is missing, which never executes.
+    public AbilityPlan.Execute compile(int starLevel) {
         if (hpThreshold == null || hpThreshold.isEmpty())
-            return 0;
+            return null;
         if (bonusDamageMultiplier == null || bonusDamageMultiplier.isEmpty())
-            return 0;
+            return null;
 
         int index = Math.min(starLevel - 1, hpThreshold.size() - 1);
         int mIndex = Math.min(starLevel - 1, bonusDamageMultiplier.size() - 1);
+        return new AbilityPlan.Execute(hpThreshold.get(index), bonusDamageMultiplier.get(mIndex));
+    }
 
-        var threshold = hpThreshold.get(index);
-        var multiplier = bonusDamageMultiplier.get(mIndex);
-
-        var hpPercent = (float) target.getCurrentHealth() / target.getMaxHealth();
-        if (hpPercent <= threshold) {
-            return (int) (baseDamage * multiplier);
-        }
-        return 0;
+    // Calculate bonus damage if target is below HP threshold.
+    public int calculateBonusDamage(GameUnit target, int baseDamage, int starLevel) {
+        if (target == null)
+            return 0;
+        var execute = compile(starLevel);
+        if (execute == null)
+            return 0;
+        return execute.bonusDamage(target.getCurrentHealth(), target.getMaxHealth(), baseDamage);
     }
 
     // Check if the execute threshold is met.
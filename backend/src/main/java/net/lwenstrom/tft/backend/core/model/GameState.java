@@ -30,7 +30,7 @@ public record GameState(
             String combatSide, // "TOP" or "BOTTOM"
             List<GameUnit> bench,
             List<GameUnit> board,
-            List<Trait> activeTraits,
+            List<ActiveTrait> activeTraits,
             List<UnitDefinition> shop,
             List<LootOrb> lootOrbs) {}
 
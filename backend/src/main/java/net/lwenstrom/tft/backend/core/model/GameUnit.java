@@ -37,6 +37,28 @@ public interface GameUnit {
 
     List<GameItem> getItems();
 
+    default void equipItem(GameItem item) {}
+
+    // Replaces one additive stat layer, deltas indexed by UnitStat ordinal (MANA is not layered).
+    // Units without a layered stat model add the deltas onto their current stats instead.
+    default void setStatLayer(StatLayer layer, float[] deltas) {
+        var health = (int) deltas[UnitStat.MAX_HEALTH.ordinal()];
+        if (health != 0) {
+            setMaxHealth(getMaxHealth() + health);
+            setCurrentHealth(getCurrentHealth() + health);
+        }
+        var attackSpeed = deltas[UnitStat.ATTACK_SPEED.ordinal()];
+        if (attackSpeed != 0) setAttackSpeed(getAttackSpeed() + attackSpeed);
+        var attackDamage = (int) deltas[UnitStat.ATTACK_DAMAGE.ordinal()];
+        if (attackDamage != 0) setAttackDamage(getAttackDamage() + attackDamage);
+        var abilityPower = (int) deltas[UnitStat.ABILITY_POWER.ordinal()];
+        if (abilityPower != 0) setAbilityPower(getAbilityPower() + abilityPower);
+        var armor = (int) deltas[UnitStat.ARMOR.ordinal()];
+        if (armor != 0) setArmor(getArmor() + armor);
+        var magicResist = (int) deltas[UnitStat.MAGIC_RESIST.ordinal()];
+        if (magicResist != 0) setMagicResist(getMagicResist() + magicResist);
+    }
+
     // Position on grid (x, y)
     int getX();
 
@@ -100,12 +122,12 @@ public interface GameUnit {
 
     void setActiveAbility(String abilityName);
 
-    // Stun status (unit skips turns while > 0)
-    default int getStunTicksRemaining() {
-        return 0;
+    // Stun status (unit skips its turns), mirrored by the combat's StatusEffects until the stun expires
+    default boolean isStunned() {
+        return false;
     }
 
-    default void setStunTicksRemaining(int ticks) {}
+    default void setStunned(boolean stunned) {}
 
     // Attack buff multiplier (1.0 = no buff)
     default float getAtkBuff() {
@@ -5,11 +5,19 @@ import java.util.List;
 // Converts damage dealt into healing for the caster (backend-only).
 public record LifestealModifier(List<Float> lifestealPercent) implements AbilityModifier {
 
+    // Resolve the percentage for one star level. Null when there is none, which never heals.
+    public Float compile(int starLevel) {
+        if (lifestealPercent == null || lifestealPercent.isEmpty())
+            return null;
+        int index = Math.min(starLevel - 1, lifestealPercent.size() - 1);
+        return lifestealPercent.get(index);
+    }
+
     // Calculate healing amount based on damage dealt.
     public int calculateHealing(int damageDealt, int starLevel) {
-        if (lifestealPercent == null || lifestealPercent.isEmpty())
+        var percent = compile(starLevel);
+        if (percent == null)
             return 0;
-        int index = Math.min(starLevel - 1, lifestealPercent.size() - 1);
-        return (int) (damageDealt * lifestealPercent.get(index));
+        return (int) (damageDealt * percent);
     }
 }
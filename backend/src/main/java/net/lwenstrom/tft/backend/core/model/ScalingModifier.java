@@ -21,36 +21,26 @@ public record ScalingModifier(ScalingType scalingType, List<Float> factor) imple
         TARGET_MISSING_HP
     }
 
+    // Resolve the factor for one star level. Null when there is no factor, which never scales.
+    public AbilityPlan.Scaling compile(int starLevel) {
+        if (factor == null || factor.isEmpty())
+            return null;
+        int index = Math.min(starLevel - 1, factor.size() - 1);
+        return new AbilityPlan.Scaling(scalingType, factor.get(index));
+    }
+
     // Calculate the scaling multiplier based on unit states (1.0 = no change, 1.5 =
     // 50% increase)
     public float calculateMultiplier(GameUnit caster, GameUnit target, int starLevel) {
-        if (factor == null || factor.isEmpty())
+        var scaling = compile(starLevel);
+        if (scaling == null || (target == null && scaling.needsTarget()))
             return 1.0f;
-        int index = Math.min(starLevel - 1, factor.size() - 1);
-        var currentFactor = factor.get(index);
-
-        return switch (scalingType) {
-            case CASTER_MISSING_HP -> {
-                var missingHpPercent = 1.0f - ((float) caster.getCurrentHealth() / caster.getMaxHealth());
-                yield 1.0f + (missingHpPercent * currentFactor);
-            }
-            case CASTER_MANA_PERCENT -> {
-                var manaPercent = (float) caster.getMana() / caster.getMaxMana();
-                yield 1.0f + (manaPercent * currentFactor);
-            }
-            case TARGET_MAX_HP_PERCENT -> {
-                if (target == null)
-                    yield 1.0f;
-                var bonusDamage = (int) (target.getMaxHealth() * currentFactor);
-                // Return as additional flat damage, not multiplier
-                yield 1.0f + ((float) bonusDamage / 100.0f); // Normalize to reasonable scale
-            }
-            case TARGET_MISSING_HP -> {
-                if (target == null)
-                    yield 1.0f;
-                var missingHpPercent = 1.0f - ((float) target.getCurrentHealth() / target.getMaxHealth());
-                yield 1.0f + (missingHpPercent * currentFactor);
-            }
-        };
+        return scaling.multiplier(
+                caster.getCurrentHealth(),
+                caster.getMaxHealth(),
+                caster.getMana(),
+                caster.getMaxMana(),
+                target != null ? target.getCurrentHealth() : 0,
+                target != null ? target.getMaxHealth() : 0);
     }
 }
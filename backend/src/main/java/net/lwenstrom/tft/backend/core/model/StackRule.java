@@ -0,0 +1,10 @@
+package net.lwenstrom.tft.backend.core.model;
+
+// How a timed status effect combines with one of the same kind already active on the unit
+public enum StackRule {
+    /** Stuns extend the remaining duration, buffs add another instance that multiplies with the others */
+    STACK,
+
+    /** At most one instance per unit: reapplying takes the new value and restarts the duration unless more is left */
+    REFRESH
+}
@@ -0,0 +1,13 @@
+package net.lwenstrom.tft.backend.core.model;
+
+// Additive stat layers stacked on a unit's base stats by star level, in application order.
+// Combat buffs (atkBuff, spdBuff) sit on top as multipliers and are read per attack.
+public enum StatLayer {
+    /** Active trait breakpoints, set at combat start and dropped when the board is restored */
+    TRAIT,
+
+    /** Stat bonuses of the equipped items, kept across combats */
+    ITEM;
+
+    public static final int COUNT = values().length;
+}
@@ -0,0 +1,29 @@
+package net.lwenstrom.tft.backend.core.model;
+
+import java.util.List;
+import java.util.Map;
+
+// One entry of traits_<mode>.json. Served to the client as is and compiled into a TraitManager table.
+public record TraitDefinition(
+        String id,
+        String name,
+        String type, // "origin" or "class"
+        String description,
+        String iconColor,
+        List<Breakpoint> effects) {
+
+    public TraitDefinition {
+        if (effects == null) effects = List.of();
+    }
+
+    public record Breakpoint(
+            int minUnits,
+            String description,
+            String style, // "bronze", "silver" or "gold"
+            Map<UnitStat, Float> stats) { // Applied to every unit with the trait while minUnits is reached
+
+        public Breakpoint {
+            if (stats == null) stats = Map.of();
+        }
+    }
+}
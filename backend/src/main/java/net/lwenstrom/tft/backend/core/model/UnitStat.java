@@ -0,0 +1,54 @@
+package net.lwenstrom.tft.backend.core.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Stats a trait breakpoint or an item can change, keyed in the JSON and in item bonuses by the unit field name
+public enum UnitStat {
+    /** Added to max and current health */
+    @JsonProperty("maxHealth")
+    MAX_HEALTH("maxHealth"),
+
+    /** Flat attacks per second */
+    @JsonProperty("attackSpeed")
+    ATTACK_SPEED("attackSpeed"),
+
+    @JsonProperty("attackDamage")
+    ATTACK_DAMAGE("attackDamage"),
+
+    @JsonProperty("abilityPower")
+    ABILITY_POWER("abilityPower"),
+
+    @JsonProperty("armor")
+    ARMOR("armor"),
+
+    @JsonProperty("magicResist")
+    MAGIC_RESIST("magicResist"),
+
+    /** Mana at combat start, granted once instead of being layered */
+    @JsonProperty("mana")
+    MANA("mana");
+
+    public static final int COUNT = values().length;
+
+    private static final Map<String, UnitStat> BY_KEY =
+            Arrays.stream(values()).collect(Collectors.toUnmodifiableMap(UnitStat::key, Function.identity()));
+
+    private final String key;
+
+    UnitStat(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    // null for keys no stat is known by
+    public static UnitStat byKey(String key) {
+        return BY_KEY.get(key);
+    }
+}
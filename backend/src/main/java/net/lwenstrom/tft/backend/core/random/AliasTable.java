@@ -0,0 +1,59 @@
+package net.lwenstrom.tft.backend.core.random;
+
+// Vose's alias method: after an O(n) build, samples index i with probability weights[i] / sum(weights)
+// from one nextInt and one nextDouble, whatever the number of weights.
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    public AliasTable(double[] weights) {
+        var n = weights.length;
+        var sum = 0.0;
+        for (var weight : weights) {
+            if (weight < 0) throw new IllegalArgumentException("Negative weight: " + weight);
+            sum += weight;
+        }
+        if (sum <= 0) throw new IllegalArgumentException("Weights must not all be zero");
+
+        probability = new double[n];
+        alias = new int[n];
+        var scaled = new double[n];
+        var small = new int[n];
+        var large = new int[n];
+        var smallCount = 0;
+        var largeCount = 0;
+        for (var i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            var less = small[--smallCount];
+            var more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1 up to rounding error
+        while (largeCount > 0) probability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) probability[small[--smallCount]] = 1.0;
+    }
+
+    public int sample(RandomProvider random) {
+        var column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -7,7 +7,19 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class DefaultRandomProvider implements RandomProvider {
-    private final Random random = new Random();
+    private final Random random;
+
+    public DefaultRandomProvider() {
+        this(new Random());
+    }
+
+    public DefaultRandomProvider(long seed) {
+        this(new Random(seed));
+    }
+
+    private DefaultRandomProvider(Random random) {
+        this.random = random;
+    }
 
     @Override
     public <T> void shuffle(List<T> list) {
@@ -0,0 +1,17 @@
+package net.lwenstrom.tft.backend.core.random;
+
+// The random streams of one room, split off the room seed in a fixed order: shops, loot orbs and matchmaking
+// (pairings and bot rosters). What a room draws depends only on its seed, never on other rooms or on how
+// often another subsystem drew.
+public record RoomRandom(long seed, RandomProvider shop, RandomProvider loot, RandomProvider matchmaking) {
+
+    public static RoomRandom fromSeed(long seed) {
+        var root = new SplittableRandomProvider(seed);
+        return new RoomRandom(seed, root.split(), root.split(), root.split());
+    }
+
+    // Every subsystem draws from the one provider, e.g. a scripted provider in tests
+    public static RoomRandom shared(RandomProvider random) {
+        return new RoomRandom(0, random, random, random);
+    }
+}
@@ -0,0 +1,99 @@
+package net.lwenstrom.tft.backend.core.random;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+// A generator for a single thread that can be split into independent child streams. Unlike a shared
+// java.util.Random there is no CAS on a common seed, and the same seed always splits into the same streams.
+// It is SplitMix64, the algorithm of java.util.SplittableRandom, with its two longs of state exposed so a room
+// snapshot can save a stream and continue it after a restart.
+public final class SplittableRandomProvider implements RandomProvider, RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+    private final long gamma; // Always odd
+    private final Random view = Random.from(this);
+
+    public SplittableRandomProvider(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplittableRandomProvider(long state, long gamma) {
+        this.state = state;
+        this.gamma = gamma;
+    }
+
+    // Continues a stream from the values of state() and gamma()
+    public static SplittableRandomProvider restore(long state, long gamma) {
+        if ((gamma & 1) == 0) throw new IllegalArgumentException("Gamma must be odd");
+        return new SplittableRandomProvider(state, gamma);
+    }
+
+    public long state() {
+        return state;
+    }
+
+    public long gamma() {
+        return gamma;
+    }
+
+    // Each call advances this stream, so children depend on the order they are split in
+    public SplittableRandomProvider split() {
+        return new SplittableRandomProvider(nextLong(), mixGamma(nextSeed()));
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(nextSeed());
+    }
+
+    @Override
+    public <T> void shuffle(List<T> list) {
+        Collections.shuffle(list, (RandomGenerator) this);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return RandomGenerator.super.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return RandomGenerator.super.nextDouble();
+    }
+
+    @Override
+    public Random getRandom() {
+        return view;
+    }
+
+    private long nextSeed() {
+        return state += gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        // Too few bit transitions make a weak gamma
+        return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,30 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+import java.util.Map;
+
+// Aggregated outcome of a balance simulation run.
+// unitStats is keyed by UnitDefinition id, traitStats by "<traitId>:<uniqueUnitCount>".
+public record BalanceReport(
+        long fights, long draws, long elapsedNanos, Map<String, Stats> unitStats, Map<String, Stats> traitStats) {
+
+    public double fightsPerSecond() {
+        if (elapsedNanos <= 0) return 0;
+        return fights / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    public record Stats(long fights, long wins, long damage, long winTimeMs) {
+
+        public double winRate() {
+            return fights == 0 ? 0 : (double) wins / fights;
+        }
+
+        public double averageDamage() {
+            return fights == 0 ? 0 : (double) damage / fights;
+        }
+
+        // Average simulated combat time of the fights this entry won, i.e. time to kill the enemy board
+        public double averageTimeToKillMs() {
+            return wins == 0 ? 0 : (double) winTimeMs / wins;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+public record BalanceSimulationConfig(
+        long seed,
+        int fights,
+        int teamSize,
+        CompositionMode compositionMode,
+        int parallelism, // ForkJoinPool parallelism, <= 0 uses all available cores
+        long maxCombatMs,
+        boolean batchKernel) { // step compatible fights in lockstep on the BatchCombatKernel
+
+    public enum CompositionMode {
+        /** Each side draws teamSize distinct units at random */
+        RANDOM,
+
+        /** Cycles through every ordered pair of teamSize-combinations of the catalog */
+        ENUMERATED
+    }
+
+    public BalanceSimulationConfig {
+        if (fights < 0) throw new IllegalArgumentException("fights must be >= 0");
+        if (teamSize < 1 || teamSize > 9) throw new IllegalArgumentException("teamSize must be between 1 and 9");
+        if (compositionMode == null) compositionMode = CompositionMode.RANDOM;
+        if (maxCombatMs <= 0) maxCombatMs = 60_000;
+    }
+
+    public static BalanceSimulationConfig random(long seed, int fights, int teamSize) {
+        return new BalanceSimulationConfig(seed, fights, teamSize, CompositionMode.RANDOM, 0, 0, false);
+    }
+
+    public static BalanceSimulationConfig enumerated(long seed, int fights, int teamSize) {
+        return new BalanceSimulationConfig(seed, fights, teamSize, CompositionMode.ENUMERATED, 0, 0, false);
+    }
+}
@@ -0,0 +1,375 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import net.lwenstrom.tft.backend.core.GameModeProvider;
+import net.lwenstrom.tft.backend.core.combat.BfsUnitMover;
+import net.lwenstrom.tft.backend.core.combat.DefaultAbilityCaster;
+import net.lwenstrom.tft.backend.core.combat.NearestEnemyTargetSelector;
+import net.lwenstrom.tft.backend.core.engine.CombatSystem;
+import net.lwenstrom.tft.backend.core.engine.Grid;
+import net.lwenstrom.tft.backend.core.engine.IdAllocator;
+import net.lwenstrom.tft.backend.core.engine.Player;
+import net.lwenstrom.tft.backend.core.engine.TraitManager;
+import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
+import net.lwenstrom.tft.backend.core.model.TraitDefinition;
+import net.lwenstrom.tft.backend.core.random.DefaultRandomProvider;
+import net.lwenstrom.tft.backend.core.random.RandomProvider;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+
+// Monte Carlo balance runner: fans independent fights out over a ForkJoinPool using the real combat engine.
+// Every fight is seeded from (seed, fightIndex) alone, so results are identical for any parallelism.
+public class BalanceSimulator {
+
+    private static final long TICK_MS = 100;
+    private static final int SPLIT_THRESHOLD = 64;
+    private static final int MAX_ENUMERATED_COMPOSITIONS = 100_000;
+    private static final String SIDE_A = "A";
+    private static final String SIDE_B = "B";
+
+    private final List<UnitDefinition> units;
+    private final List<TraitDefinition> traits;
+    private final GameModeProvider gameModeProvider;
+    private final BatchCombatKernel batchKernel = BatchCombatKernel.create();
+
+    public BalanceSimulator(List<UnitDefinition> units, GameModeProvider gameModeProvider) {
+        this(units, List.of(), gameModeProvider);
+    }
+
+    public BalanceSimulator(
+            List<UnitDefinition> units, List<TraitDefinition> traits, GameModeProvider gameModeProvider) {
+        if (units.isEmpty()) {
+            throw new IllegalArgumentException("Cannot simulate an empty unit catalog");
+        }
+        this.units = List.copyOf(units);
+        this.traits = List.copyOf(traits);
+        this.gameModeProvider = gameModeProvider;
+    }
+
+    public BalanceReport run(BalanceSimulationConfig config) {
+        if (config.teamSize() > units.size()) {
+            throw new IllegalArgumentException(
+                    "teamSize " + config.teamSize() + " exceeds catalog size " + units.size());
+        }
+        var compositions = config.compositionMode() == BalanceSimulationConfig.CompositionMode.ENUMERATED
+                ? enumerateCompositions(units.size(), config.teamSize())
+                : List.<int[]>of();
+
+        var parallelism = config.parallelism() > 0
+                ? config.parallelism()
+                : Runtime.getRuntime().availableProcessors();
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            var start = System.nanoTime();
+            var tally = pool.invoke(new FightRangeTask(config, compositions, 0, config.fights()));
+            return tally.toReport(System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private final class FightRangeTask extends RecursiveTask<Tally> {
+        private final BalanceSimulationConfig config;
+        private final List<int[]> compositions;
+        private final long from;
+        private final long to;
+
+        FightRangeTask(BalanceSimulationConfig config, List<int[]> compositions, long from, long to) {
+            this.config = config;
+            this.compositions = compositions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                var tally = new Tally();
+                if (config.batchKernel()) {
+                    simulateBatch(config, compositions, from, to, tally);
+                } else {
+                    for (var index = from; index < to; index++) {
+                        var fight = setupFight(config, compositions, index);
+                        tally.record(fight, simulate(fight, config));
+                    }
+                }
+                return tally;
+            }
+            var mid = (from + to) >>> 1;
+            var left = new FightRangeTask(config, compositions, from, mid);
+            left.fork();
+            var right = new FightRangeTask(config, compositions, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private record Fight(
+            int[] teamA, int[] teamB, List<Player> participants, List<String> traitKeysA, List<String> traitKeysB) {}
+
+    private record Outcome(String winnerId, long durationMs, Map<String, Map<String, Long>> damageByOwner) {}
+
+    private Fight setupFight(BalanceSimulationConfig config, List<int[]> compositions, long index) {
+        var random = new DefaultRandomProvider(fightSeed(config.seed(), index));
+
+        int[] teamA;
+        int[] teamB;
+        if (compositions.isEmpty()) {
+            teamA = drawTeam(random, config.teamSize());
+            teamB = drawTeam(random, config.teamSize());
+        } else {
+            var count = compositions.size();
+            var pair = index % ((long) count * count);
+            teamA = compositions.get((int) (pair / count));
+            teamB = compositions.get((int) (pair % count));
+        }
+
+        var ids = new IdAllocator();
+        var playerA = createPlayer(SIDE_A, teamA, random, ids);
+        var playerB = createPlayer(SIDE_B, teamB, random, ids);
+        return new Fight(teamA, teamB, List.of(playerA, playerB), traitKeys(playerA), traitKeys(playerB));
+    }
+
+    private CombatSystem createCombatSystem(SimulatedClock clock) {
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(traits);
+        if (gameModeProvider != null) {
+            gameModeProvider.registerTraitEffects(traitManager);
+        }
+        return new CombatSystem(
+                traitManager,
+                clock,
+                new NearestEnemyTargetSelector(),
+                new BfsUnitMover(clock),
+                new DefaultAbilityCaster());
+    }
+
+    private Outcome simulate(Fight fight, BalanceSimulationConfig config) {
+        var clock = new SimulatedClock();
+        var combatSystem = createCombatSystem(clock);
+        var participants = fight.participants();
+
+        var combat = combatSystem.startCombat(participants);
+        String winnerId = null;
+        while (clock.currentTimeMillis() <= config.maxCombatMs()) {
+            var result = combatSystem.simulateTick(combat);
+            if (result.ended()) {
+                winnerId = result.winnerId();
+                break;
+            }
+            clock.advance(TICK_MS);
+        }
+
+        var damageByOwner = new HashMap<String, Map<String, Long>>();
+        for (var entry : combat.getDamageLog().values()) {
+            if (entry.damage() > 0) {
+                damageByOwner
+                        .computeIfAbsent(entry.ownerId(), k -> new HashMap<>())
+                        .merge(entry.definitionId(), (long) entry.damage(), Long::sum);
+            }
+        }
+        return new Outcome(winnerId, clock.currentTimeMillis(), damageByOwner);
+    }
+
+    // Runs every kernel-compatible fight of the range in one lockstep batch, the rest through CombatSystem
+    private void simulateBatch(
+            BalanceSimulationConfig config, List<int[]> compositions, long from, long to, Tally tally) {
+        var batch = batchKernel.newBatch((int) (to - from));
+        var batched = new ArrayList<Fight>();
+        var placement = createCombatSystem(new SimulatedClock());
+
+        for (var index = from; index < to; index++) {
+            var fight = setupFight(config, compositions, index);
+            if (CombatBatch.supports(fight.participants())) {
+                placement.startCombat(fight.participants());
+                batch.load(batched.size(), fight.participants());
+                batched.add(fight);
+            } else {
+                tally.record(fight, simulate(fight, config));
+            }
+        }
+
+        batchKernel.run(batch, (int) TICK_MS, Math.toIntExact(config.maxCombatMs()));
+
+        for (var lane = 0; lane < batched.size(); lane++) {
+            var fight = batched.get(lane);
+            var participants = fight.participants();
+            var winnerSide = batch.winnerSide(lane);
+            var damageByOwner = new HashMap<String, Map<String, Long>>();
+            for (var side = 0; side < participants.size(); side++) {
+                var board = participants.get(side).getBoardUnits();
+                for (var k = 0; k < board.size(); k++) {
+                    var damage = batch.damage(lane, side, k);
+                    if (damage > 0) {
+                        damageByOwner
+                                .computeIfAbsent(participants.get(side).getId(), key -> new HashMap<>())
+                                .merge(board.get(k).getDefinitionId(), (long) damage, Long::sum);
+                    }
+                }
+            }
+            var winnerId = winnerSide == CombatBatch.NO_WINNER
+                    ? null
+                    : participants.get(winnerSide).getId();
+            tally.record(fight, new Outcome(winnerId, batch.endTimeMs(lane), damageByOwner));
+        }
+    }
+
+    private int[] drawTeam(RandomProvider random, int teamSize) {
+        // Partial Fisher-Yates: teamSize distinct catalog indices
+        var indices = new int[units.size()];
+        for (var i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        for (var i = 0; i < teamSize; i++) {
+            var j = i + random.nextInt(indices.length - i);
+            var tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+        var team = new int[teamSize];
+        System.arraycopy(indices, 0, team, 0, teamSize);
+        return team;
+    }
+
+    private Player createPlayer(String id, int[] team, RandomProvider random, IdAllocator ids) {
+        var player = new Player(id, id, null, random, ids, null);
+        player.setLevel(team.length);
+
+        var cells = new int[Grid.COLS * Grid.PLAYER_ROWS];
+        for (var i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        for (var i = 0; i < team.length; i++) {
+            var j = i + random.nextInt(cells.length - i);
+            var cell = cells[j];
+            cells[j] = cells[i];
+            cells[i] = cell;
+            player.addUnitToBoard(units.get(team[i]), cell % Grid.COLS, cell / Grid.COLS);
+        }
+        return player;
+    }
+
+    private static List<String> traitKeys(Player player) {
+        var counts = player.getTraitCounter().counts();
+        var keys = new ArrayList<String>(counts.size());
+        counts.forEach((traitId, count) -> keys.add(traitId + ":" + count));
+        return keys;
+    }
+
+    private static List<int[]> enumerateCompositions(int catalogSize, int teamSize) {
+        var compositions = new ArrayList<int[]>();
+        var current = new int[teamSize];
+        for (var i = 0; i < teamSize; i++) {
+            current[i] = i;
+        }
+        while (true) {
+            compositions.add(current.clone());
+            if (compositions.size() > MAX_ENUMERATED_COMPOSITIONS) {
+                throw new IllegalArgumentException("Too many compositions to enumerate, use RANDOM mode");
+            }
+            // Advance to the next combination in lexicographic order
+            var i = teamSize - 1;
+            while (i >= 0 && current[i] == catalogSize - teamSize + i) {
+                i--;
+            }
+            if (i < 0) {
+                return compositions;
+            }
+            current[i]++;
+            for (var j = i + 1; j < teamSize; j++) {
+                current[j] = current[j - 1] + 1;
+            }
+        }
+    }
+
+    // SplitMix64 finalizer over (seed, index) so neighbouring fights get uncorrelated streams
+    static long fightSeed(long seed, long index) {
+        var z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private final class Tally {
+        private long fights;
+        private long draws;
+        // Stats arrays: [fights, wins, damage, winTimeMs]
+        private final Map<String, long[]> unitStats = new HashMap<>();
+        private final Map<String, long[]> traitStats = new HashMap<>();
+
+        void record(Fight fight, Outcome outcome) {
+            fights++;
+            if (outcome.winnerId() == null) {
+                draws++;
+            }
+            var damage = outcome.damageByOwner();
+            recordSide(
+                    fight.teamA(),
+                    fight.traitKeysA(),
+                    damage.get(SIDE_A),
+                    SIDE_A.equals(outcome.winnerId()),
+                    outcome.durationMs());
+            recordSide(
+                    fight.teamB(),
+                    fight.traitKeysB(),
+                    damage.get(SIDE_B),
+                    SIDE_B.equals(outcome.winnerId()),
+                    outcome.durationMs());
+        }
+
+        private void recordSide(
+                int[] team, List<String> traitKeys, Map<String, Long> damage, boolean won, long duration) {
+            var teamDamage = 0L;
+            for (var unitIndex : team) {
+                var definitionId = units.get(unitIndex).id();
+                var unitDamage = damage != null ? damage.getOrDefault(definitionId, 0L) : 0L;
+                teamDamage += unitDamage;
+                add(unitStats, definitionId, won, unitDamage, duration);
+            }
+            for (var traitKey : traitKeys) {
+                add(traitStats, traitKey, won, teamDamage, duration);
+            }
+        }
+
+        private static void add(Map<String, long[]> stats, String key, boolean won, long damage, long duration) {
+            var entry = stats.computeIfAbsent(key, k -> new long[4]);
+            entry[0]++;
+            if (won) {
+                entry[1]++;
+                entry[3] += duration;
+            }
+            entry[2] += damage;
+        }
+
+        Tally merge(Tally other) {
+            fights += other.fights;
+            draws += other.draws;
+            mergeInto(unitStats, other.unitStats);
+            mergeInto(traitStats, other.traitStats);
+            return this;
+        }
+
+        private static void mergeInto(Map<String, long[]> target, Map<String, long[]> source) {
+            source.forEach((key, values) -> {
+                var entry = target.computeIfAbsent(key, k -> new long[4]);
+                for (var i = 0; i < entry.length; i++) {
+                    entry[i] += values[i];
+                }
+            });
+        }
+
+        BalanceReport toReport(long elapsedNanos) {
+            return new BalanceReport(fights, draws, elapsedNanos, toStats(unitStats), toStats(traitStats));
+        }
+
+        private static Map<String, BalanceReport.Stats> toStats(Map<String, long[]> stats) {
+            var result = new TreeMap<String, BalanceReport.Stats>();
+            stats.forEach((key, v) -> result.put(key, new BalanceReport.Stats(v[0], v[1], v[2], v[3])));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Steps every fight of a CombatBatch in lockstep on a shared simulated clock.
+// Units act slot by slot, so within one fight the order matches CombatSystem.simulateTick and results agree exactly.
+public abstract class BatchCombatKernel {
+    private static final Logger log = LoggerFactory.getLogger(BatchCombatKernel.class);
+
+    // Vector kernel when the JVM was started with --add-modules jdk.incubator.vector, scalar lanes otherwise
+    public static BatchCombatKernel create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorBatchCombatKernel();
+            } catch (LinkageError e) {
+                log.warn("Vector API unavailable, falling back to scalar batch kernel", e);
+            }
+        }
+        return new ScalarBatchCombatKernel();
+    }
+
+    public CombatBatch newBatch(int fights) {
+        var multiple = laneMultiple();
+        return new CombatBatch((fights + multiple - 1) / multiple * multiple);
+    }
+
+    public void run(CombatBatch batch, int tickMs, int maxCombatMs) {
+        var time = 0;
+        while (time <= maxCombatMs && batch.anyRunning()) {
+            for (var slot = 0; slot < CombatBatch.SLOTS; slot++) {
+                stepSlot(batch, slot, time);
+            }
+            batch.resolveEndings(time);
+            time += tickMs;
+        }
+        batch.timeOut(time);
+    }
+
+    protected abstract int laneMultiple();
+
+    // One unit's turn in every running fight of the batch
+    protected abstract void stepSlot(CombatBatch batch, int slot, int time);
+}
@@ -0,0 +1,418 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+import net.lwenstrom.tft.backend.core.engine.Grid;
+import net.lwenstrom.tft.backend.core.engine.Player;
+import net.lwenstrom.tft.backend.core.model.AbilityPattern;
+import net.lwenstrom.tft.backend.core.model.AbilityPlan;
+import net.lwenstrom.tft.backend.core.model.AbilityType;
+import net.lwenstrom.tft.backend.core.model.StackRule;
+
+// Structure-of-arrays state for many independent 1v1 fights stepped in lockstep by a BatchCombatKernel.
+// Per-unit fields are laid out as [slot * lanes + lane], so one slot of every fight is contiguous for vector loads.
+// Slots 0-8 hold the first participant's board and 9-17 the second's, the same order CombatSystem iterates units in.
+// The rules mirror CombatSystem, NearestEnemyTargetSelector, BfsUnitMover and DefaultAbilityCaster exactly.
+public final class CombatBatch {
+
+    public static final int UNITS_PER_SIDE = 9;
+    public static final int SLOTS = UNITS_PER_SIDE * 2;
+    public static final int NO_WINNER = -1;
+
+    static final int NO_TARGET = -1;
+    static final int CAST_COOLDOWN_MS = 1000;
+    static final int MOVE_COOLDOWN_MS = 800;
+    static final int MANA_PER_ATTACK = 10;
+
+    private static final int CELLS = Grid.COLS * Grid.COMBAT_ROWS;
+    private static final int[] STEP_X = {0, 0, 1, -1};
+    private static final int[] STEP_Y = {1, -1, 0, 0};
+
+    final int lanes;
+    final int[] active;
+    final int[] hp;
+    final int[] maxHp;
+    final int[] mana;
+    final int[] maxMana;
+    final int[] attackDamage;
+    final int[] range;
+    final int[] x;
+    final int[] y;
+    final int[] stunnedUntil; // batch time the stun runs out, stunned while time < stunnedUntil
+    final int[] nextAttackTime;
+    final int[] nextMoveTime;
+    final int[] damage;
+    final float[] attackSpeed;
+    final float[] atkBuff;
+    final float[] spdBuff;
+    final AbilityPlan[] plans; // compiled for the unit's star level at load
+
+    private final int[] winnerSide;
+    private final int[] endTime;
+
+    // BFS scratch, reused across every move in the batch
+    private final int[] queue = new int[CELLS];
+    private final int[] parent = new int[CELLS];
+
+    CombatBatch(int lanes) {
+        this.lanes = lanes;
+        var size = SLOTS * lanes;
+        active = new int[lanes];
+        hp = new int[size];
+        maxHp = new int[size];
+        mana = new int[size];
+        maxMana = new int[size];
+        attackDamage = new int[size];
+        range = new int[size];
+        x = new int[size];
+        y = new int[size];
+        stunnedUntil = new int[size];
+        nextAttackTime = new int[size];
+        nextMoveTime = new int[size];
+        damage = new int[size];
+        attackSpeed = new float[size];
+        atkBuff = new float[size];
+        spdBuff = new float[size];
+        plans = new AbilityPlan[size];
+        winnerSide = new int[lanes];
+        endTime = new int[lanes];
+        Arrays.fill(winnerSide, NO_WINNER);
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    // Only two-player fights with at most 9 units a side fit the lanes, and buffs have to be the permanent, stacking
+    // kind that a per-unit multiplier can track. Anything else has to go through CombatSystem.
+    public static boolean supports(List<Player> participants) {
+        if (participants.size() != 2) return false;
+        for (var player : participants) {
+            if (player.getBoardUnits().size() > UNITS_PER_SIDE) return false;
+            for (var unit : player.getBoardUnits()) {
+                if (unit.getAbility() != null && !supports(unit.getAbility().plan(unit.getStarLevel()))) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean supports(AbilityPlan plan) {
+        if (plan.type() != AbilityType.BUFF_ATK && plan.type() != AbilityType.BUFF_SPD) return true;
+        return plan.durationMs() <= 0 && plan.stacking() == StackRule.STACK;
+    }
+
+    // Loads a fight whose participants are already in combat position, i.e. after CombatSystem.startCombat.
+    // Attack and move times are read relative to the batch clock, which starts at 0. No status effect is active yet.
+    public void load(int lane, List<Player> participants) {
+        if (!supports(participants)) {
+            throw new IllegalArgumentException("Fight is not supported by the batch kernel");
+        }
+        for (var side = 0; side < 2; side++) {
+            var board = participants.get(side).getBoardUnits();
+            for (var k = 0; k < board.size(); k++) {
+                var unit = board.get(k);
+                if (unit.getX() < 0 || unit.getX() >= Grid.COLS || unit.getY() < 0 || unit.getY() >= Grid.COMBAT_ROWS) {
+                    throw new IllegalArgumentException("Unit " + unit.getName() + " is outside the combat grid");
+                }
+                var i = (side * UNITS_PER_SIDE + k) * lanes + lane;
+                hp[i] = unit.getCurrentHealth();
+                maxHp[i] = unit.getMaxHealth();
+                mana[i] = unit.getMana();
+                maxMana[i] = unit.getMaxMana();
+                attackDamage[i] = unit.getAttackDamage();
+                range[i] = unit.getRange();
+                x[i] = unit.getX();
+                y[i] = unit.getY();
+                stunnedUntil[i] = 0;
+                nextAttackTime[i] = Math.toIntExact(unit.getNextAttackTime());
+                nextMoveTime[i] = Math.toIntExact(unit.getNextMoveTime());
+                attackSpeed[i] = unit.getAttackSpeed();
+                atkBuff[i] = unit.getAtkBuff();
+                spdBuff[i] = unit.getSpdBuff();
+                plans[i] = unit.getAbility() != null ? unit.getAbility().plan(unit.getStarLevel()) : null;
+            }
+        }
+        active[lane] = 1;
+    }
+
+    public boolean isRunning(int lane) {
+        return active[lane] != 0;
+    }
+
+    // Index into participants of the winning side, NO_WINNER for a draw or a fight that timed out
+    public int winnerSide(int lane) {
+        return winnerSide[lane];
+    }
+
+    public int endTimeMs(int lane) {
+        return endTime[lane];
+    }
+
+    // Net damage dealt by the unit at boardIndex of the given side; heals count negative like CombatSystem's damage log
+    public int damage(int lane, int side, int boardIndex) {
+        return damage[(side * UNITS_PER_SIDE + boardIndex) * lanes + lane];
+    }
+
+    boolean anyRunning() {
+        for (var lane = 0; lane < lanes; lane++) {
+            if (active[lane] != 0) return true;
+        }
+        return false;
+    }
+
+    void resolveEndings(int time) {
+        for (var lane = 0; lane < lanes; lane++) {
+            if (active[lane] == 0) continue;
+            var firstAlive = sideAlive(0, lane);
+            var secondAlive = sideAlive(1, lane);
+            if (firstAlive && secondAlive) continue;
+            active[lane] = 0;
+            winnerSide[lane] = firstAlive ? 0 : secondAlive ? 1 : NO_WINNER;
+            endTime[lane] = time;
+        }
+    }
+
+    void timeOut(int time) {
+        for (var lane = 0; lane < lanes; lane++) {
+            if (active[lane] == 0) continue;
+            active[lane] = 0;
+            endTime[lane] = time;
+        }
+    }
+
+    private boolean sideAlive(int side, int lane) {
+        for (var slot = side * UNITS_PER_SIDE; slot < (side + 1) * UNITS_PER_SIDE; slot++) {
+            if (hp[slot * lanes + lane] > 0) return true;
+        }
+        return false;
+    }
+
+    static int enemyFrom(int slot) {
+        return slot < UNITS_PER_SIDE ? UNITS_PER_SIDE : 0;
+    }
+
+    static int allyFrom(int slot) {
+        return slot < UNITS_PER_SIDE ? 0 : UNITS_PER_SIDE;
+    }
+
+    // First living enemy at minimal Chebyshev distance, matching NearestEnemyTargetSelector's tie-break
+    int nearestEnemy(int slot, int lane) {
+        var i = slot * lanes + lane;
+        var best = NO_TARGET;
+        var bestDistance = Integer.MAX_VALUE;
+        var from = enemyFrom(slot);
+        for (var c = from; c < from + UNITS_PER_SIDE; c++) {
+            var j = c * lanes + lane;
+            if (hp[j] <= 0) continue;
+            var distance = Math.max(Math.abs(x[j] - x[i]), Math.abs(y[j] - y[i]));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    int distance(int slot, int target, int lane) {
+        var i = slot * lanes + lane;
+        var j = target * lanes + lane;
+        return Math.max(Math.abs(x[j] - x[i]), Math.abs(y[j] - y[i]));
+    }
+
+    void attack(int slot, int target, int lane, int time) {
+        var i = slot * lanes + lane;
+        var j = target * lanes + lane;
+        var effectiveDamage = (int) (attackDamage[i] * atkBuff[i]);
+        hp[j] = Math.max(0, hp[j] - effectiveDamage);
+        damage[i] += effectiveDamage;
+        mana[i] = Math.min(maxMana[i], mana[i] + MANA_PER_ATTACK);
+        var effectiveAs = Math.max(0.1f, attackSpeed[i]) * spdBuff[i];
+        nextAttackTime[i] = time + (int) (1000 / effectiveAs);
+    }
+
+    void moveTowards(int slot, int target, int lane, int time) {
+        var i = slot * lanes + lane;
+        if (time < nextMoveTime[i]) return;
+
+        var occupied = 0L;
+        for (var c = 0; c < SLOTS; c++) {
+            var j = c * lanes + lane;
+            if (c != slot && hp[j] > 0) {
+                occupied |= 1L << (y[j] * Grid.COLS + x[j]);
+            }
+        }
+
+        var targetX = x[target * lanes + lane];
+        var targetY = y[target * lanes + lane];
+        var start = y[i] * Grid.COLS + x[i];
+        var visited = 1L << start;
+        var head = 0;
+        var tail = 0;
+        queue[tail++] = start;
+        parent[start] = -1;
+
+        var found = -1;
+        while (head < tail) {
+            var current = queue[head++];
+            var cx = current % Grid.COLS;
+            var cy = current / Grid.COLS;
+            if (Math.max(Math.abs(cx - targetX), Math.abs(cy - targetY)) <= range[i]
+                    && (current == start || (occupied & (1L << current)) == 0)) {
+                found = current;
+                break;
+            }
+            for (var d = 0; d < STEP_X.length; d++) {
+                var nx = cx + STEP_X[d];
+                var ny = cy + STEP_Y[d];
+                if (nx < 0 || nx >= Grid.COLS || ny < 0 || ny >= Grid.COMBAT_ROWS) continue;
+                var next = ny * Grid.COLS + nx;
+                var bit = 1L << next;
+                if ((occupied & bit) != 0 || (visited & bit) != 0) continue;
+                visited |= bit;
+                parent[next] = current;
+                queue[tail++] = next;
+            }
+        }
+
+        if (found < 0 || found == start) return;
+        var step = found;
+        while (parent[step] != start) {
+            step = parent[step];
+        }
+        x[i] = step % Grid.COLS;
+        y[i] = step / Grid.COLS;
+        nextMoveTime[i] = time + MOVE_COOLDOWN_MS;
+    }
+
+    void castAbility(int slot, int lane, int time) {
+        var i = slot * lanes + lane;
+        var plan = plans[i];
+        if (plan != null) {
+            switch (plan.type()) {
+                case DAMAGE -> castDamage(slot, lane, plan, time);
+                case STUN -> {
+                    var target = nearestEnemy(slot, lane);
+                    if (target != NO_TARGET && plan.durationMs() > 0)
+                        applyToTargets(slot, target, lane, plan, plan.durationMs(), false, time);
+                }
+                case HEAL -> castHeal(slot, lane, plan.pattern(), plan.range(), plan.value());
+                case BUFF_ATK -> buffAllies(slot, lane, atkBuff, plan.buffMultiplier());
+                case BUFF_SPD -> buffAllies(slot, lane, spdBuff, plan.buffMultiplier());
+            }
+        }
+        mana[i] = 0;
+        nextAttackTime[i] = time + CAST_COOLDOWN_MS;
+    }
+
+    private void castDamage(int slot, int lane, AbilityPlan plan, int time) {
+        var target = nearestEnemy(slot, lane);
+        if (target == NO_TARGET) return;
+        var i = slot * lanes + lane;
+        var j = target * lanes + lane;
+
+        // Same order as DefaultAbilityCaster: conditions, scaling, execute bonus, then lifesteal
+        if (!plan.conditionsMet(hp[i], maxHp[i], mana[i], maxMana[i], hp[j], maxHp[j], stunnedUntil[j] > time)) return;
+        var finalDamage = plan.damageAgainst(hp[i], maxHp[i], mana[i], maxMana[i], hp[j], maxHp[j]);
+
+        var damageBefore = damage[i];
+        applyToTargets(slot, target, lane, plan, finalDamage, true, time);
+        var damageDealt = damage[i] - damageBefore;
+
+        for (var k = 0; k < plan.lifestealCount(); k++) {
+            var healAmount = (int) (damageDealt * plan.lifesteal(k));
+            if (healAmount > 0) heal(i, i, healAmount);
+        }
+    }
+
+    private void applyToTargets(
+            int slot, int target, int lane, AbilityPlan plan, int value, boolean dealDamage, int time) {
+        var i = slot * lanes + lane;
+        var abilityRange = plan.range();
+        switch (plan.pattern()) {
+            case SINGLE -> hit(i, target * lanes + lane, plan, value, dealDamage, time);
+            case LINE -> {
+                var dx = Integer.compare(x[target * lanes + lane], x[i]);
+                var dy = Integer.compare(y[target * lanes + lane], y[i]);
+                for (var step = 1; step <= abilityRange; step++) {
+                    hitEnemiesAt(slot, lane, x[i] + dx * step, y[i] + dy * step, plan, value, dealDamage, time);
+                }
+            }
+            case SURROUND -> {
+                for (var dx = -abilityRange; dx <= abilityRange; dx++) {
+                    for (var dy = -abilityRange; dy <= abilityRange; dy++) {
+                        if (dx == 0 && dy == 0) continue;
+                        hitEnemiesAt(slot, lane, x[i] + dx, y[i] + dy, plan, value, dealDamage, time);
+                    }
+                }
+            }
+            case SELF -> {}
+        }
+    }
+
+    private void hitEnemiesAt(
+            int slot, int lane, int cellX, int cellY, AbilityPlan plan, int value, boolean dealDamage, int time) {
+        var i = slot * lanes + lane;
+        var from = enemyFrom(slot);
+        for (var c = from; c < from + UNITS_PER_SIDE; c++) {
+            var j = c * lanes + lane;
+            if (x[j] == cellX && y[j] == cellY && hp[j] > 0) {
+                hit(i, j, plan, value, dealDamage, time);
+            }
+        }
+    }
+
+    // value is the damage, or for stuns the duration, stacked the way StatusEffects does it
+    private void hit(int source, int target, AbilityPlan plan, int value, boolean dealDamage, int time) {
+        if (dealDamage) {
+            hp[target] = Math.max(0, hp[target] - value);
+            damage[source] += value;
+        } else if (plan.stacking() == StackRule.STACK) {
+            stunnedUntil[target] = Math.max(stunnedUntil[target], time) + value;
+        } else {
+            stunnedUntil[target] = Math.max(stunnedUntil[target], time + value);
+        }
+    }
+
+    private void castHeal(int slot, int lane, AbilityPattern pattern, int abilityRange, int amount) {
+        var i = slot * lanes + lane;
+        var from = allyFrom(slot);
+        switch (pattern) {
+            case SINGLE -> {
+                var lowest = -1;
+                var lowestRatio = 0f;
+                for (var c = from; c < from + UNITS_PER_SIDE; c++) {
+                    var j = c * lanes + lane;
+                    if (hp[j] <= 0) continue;
+                    var ratio = (float) hp[j] / maxHp[j];
+                    if (lowest < 0 || ratio < lowestRatio) {
+                        lowest = j;
+                        lowestRatio = ratio;
+                    }
+                }
+                if (lowest >= 0) heal(i, lowest, amount);
+            }
+            case SURROUND -> {
+                for (var c = from; c < from + UNITS_PER_SIDE; c++) {
+                    var j = c * lanes + lane;
+                    if (hp[j] > 0 && Math.abs(x[j] - x[i]) <= abilityRange && Math.abs(y[j] - y[i]) <= abilityRange) {
+                        heal(i, j, amount);
+                    }
+                }
+            }
+            case LINE, SELF -> heal(i, i, amount);
+        }
+    }
+
+    private void heal(int source, int target, int amount) {
+        hp[target] = Math.min(maxHp[target], hp[target] + amount);
+        damage[source] -= amount;
+    }
+
+    private void buffAllies(int slot, int lane, float[] buffs, float multiplier) {
+        var from = allyFrom(slot);
+        for (var c = from; c < from + UNITS_PER_SIDE; c++) {
+            var j = c * lanes + lane;
+            if (hp[j] > 0) buffs[j] *= multiplier;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+final class ScalarBatchCombatKernel extends BatchCombatKernel {
+
+    @Override
+    protected int laneMultiple() {
+        return 1;
+    }
+
+    @Override
+    protected void stepSlot(CombatBatch batch, int slot, int time) {
+        var lanes = batch.lanes;
+        for (var lane = 0; lane < lanes; lane++) {
+            var i = slot * lanes + lane;
+            if (batch.active[lane] == 0 || batch.hp[i] <= 0) continue;
+
+            if (time < batch.stunnedUntil[i] || time < batch.nextAttackTime[i]) continue;
+
+            if (batch.maxMana[i] > 0 && batch.mana[i] >= batch.maxMana[i]) {
+                batch.castAbility(slot, lane, time);
+                continue;
+            }
+
+            var target = batch.nearestEnemy(slot, lane);
+            if (target == CombatBatch.NO_TARGET) continue;
+            if (batch.distance(slot, target, lane) <= batch.range[i]) {
+                batch.attack(slot, target, lane, time);
+            } else {
+                batch.moveTowards(slot, target, lane, time);
+            }
+        }
+    }
+}
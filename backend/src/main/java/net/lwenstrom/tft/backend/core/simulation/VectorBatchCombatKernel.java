@@ -0,0 +1,120 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vectorizes readiness, stun checks, targeting, damage, mana and cooldown updates across fights.
+// Casting and pathfinding branch too much to vectorize and fall back to the per-lane code in CombatBatch.
+final class VectorBatchCombatKernel extends BatchCombatKernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = VectorSpecies.of(float.class, INTS.vectorShape());
+
+    @Override
+    protected int laneMultiple() {
+        return INTS.length();
+    }
+
+    @Override
+    protected void stepSlot(CombatBatch batch, int slot, int time) {
+        var lanes = batch.lanes;
+        var enemyFrom = CombatBatch.enemyFrom(slot);
+        for (var lane = 0; lane < lanes; lane += INTS.length()) {
+            var i = slot * lanes + lane;
+
+            var alive = IntVector.fromArray(INTS, batch.active, lane)
+                    .compare(VectorOperators.NE, 0)
+                    .and(IntVector.fromArray(INTS, batch.hp, i).compare(VectorOperators.GT, 0));
+            if (!alive.anyTrue()) continue;
+
+            var stunned = IntVector.fromArray(INTS, batch.stunnedUntil, i).compare(VectorOperators.GT, time);
+            var ready = alive.andNot(stunned)
+                    .and(IntVector.fromArray(INTS, batch.nextAttackTime, i).compare(VectorOperators.LE, time));
+            if (!ready.anyTrue()) continue;
+
+            var mana = IntVector.fromArray(INTS, batch.mana, i);
+            var maxMana = IntVector.fromArray(INTS, batch.maxMana, i);
+            var casting =
+                    ready.and(maxMana.compare(VectorOperators.GT, 0)).and(mana.compare(VectorOperators.GE, maxMana));
+            for (var bits = casting.toLong(); bits != 0; bits &= bits - 1) {
+                batch.castAbility(slot, lane + Long.numberOfTrailingZeros(bits), time);
+            }
+
+            // From here on only lanes that auto-attack or move are written back, casts above stay untouched
+            var attackers = ready.andNot(casting);
+            if (!attackers.anyTrue()) continue;
+
+            var x = IntVector.fromArray(INTS, batch.x, i);
+            var y = IntVector.fromArray(INTS, batch.y, i);
+            var bestDistance = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+            var bestSlot = IntVector.broadcast(INTS, CombatBatch.NO_TARGET);
+            for (var c = enemyFrom; c < enemyFrom + CombatBatch.UNITS_PER_SIDE; c++) {
+                var j = c * lanes + lane;
+                var enemyAlive = IntVector.fromArray(INTS, batch.hp, j).compare(VectorOperators.GT, 0);
+                if (!enemyAlive.anyTrue()) continue;
+                var distance = IntVector.fromArray(INTS, batch.x, j)
+                        .sub(x)
+                        .abs()
+                        .max(IntVector.fromArray(INTS, batch.y, j).sub(y).abs());
+                // Strict comparison keeps the first enemy on ties, like the stream min in NearestEnemyTargetSelector
+                var closer = enemyAlive.and(distance.compare(VectorOperators.LT, bestDistance));
+                bestDistance = bestDistance.blend(distance, closer);
+                bestSlot = bestSlot.blend(c, closer);
+            }
+
+            var hasTarget = attackers.and(bestSlot.compare(VectorOperators.NE, CombatBatch.NO_TARGET));
+            var inRange =
+                    hasTarget.and(bestDistance.compare(VectorOperators.LE, IntVector.fromArray(INTS, batch.range, i)));
+            if (inRange.anyTrue()) {
+                attack(batch, slot, lane, time, enemyFrom, mana, maxMana, bestSlot, inRange);
+            }
+
+            var movers = hasTarget
+                    .andNot(inRange)
+                    .and(IntVector.fromArray(INTS, batch.nextMoveTime, i).compare(VectorOperators.LE, time));
+            for (var bits = movers.toLong(); bits != 0; bits &= bits - 1) {
+                var offset = Long.numberOfTrailingZeros(bits);
+                batch.moveTowards(slot, bestSlot.lane(offset), lane + offset, time);
+            }
+        }
+    }
+
+    private static void attack(
+            CombatBatch batch,
+            int slot,
+            int lane,
+            int time,
+            int enemyFrom,
+            IntVector mana,
+            IntVector maxMana,
+            IntVector bestSlot,
+            VectorMask<Integer> inRange) {
+        var lanes = batch.lanes;
+        var i = slot * lanes + lane;
+
+        var effectiveDamage = (IntVector)
+                ((FloatVector) IntVector.fromArray(INTS, batch.attackDamage, i).convert(VectorOperators.I2F, 0))
+                        .mul(FloatVector.fromArray(FLOATS, batch.atkBuff, i))
+                        .convert(VectorOperators.F2I, 0);
+
+        for (var c = enemyFrom; c < enemyFrom + CombatBatch.UNITS_PER_SIDE; c++) {
+            var hit = inRange.and(bestSlot.compare(VectorOperators.EQ, c));
+            if (!hit.anyTrue()) continue;
+            var j = c * lanes + lane;
+            IntVector.fromArray(INTS, batch.hp, j).sub(effectiveDamage).max(0).intoArray(batch.hp, j, hit);
+        }
+
+        IntVector.fromArray(INTS, batch.damage, i).add(effectiveDamage).intoArray(batch.damage, i, inRange);
+        mana.add(CombatBatch.MANA_PER_ATTACK).min(maxMana).intoArray(batch.mana, i, inRange);
+
+        var effectiveAs = FloatVector.fromArray(FLOATS, batch.attackSpeed, i)
+                .max(0.1f)
+                .mul(FloatVector.fromArray(FLOATS, batch.spdBuff, i));
+        var cooldown = (IntVector)
+                FloatVector.broadcast(FLOATS, 1000f).div(effectiveAs).convert(VectorOperators.F2I, 0);
+        cooldown.add(time).intoArray(batch.nextAttackTime, i, inRange);
+    }
+}
@@ -0,0 +1,146 @@
+package net.lwenstrom.tft.backend.core.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+import net.lwenstrom.tft.backend.core.RoomFiles;
+
+// The latest snapshot of each room, one file per room. Callers hand over encoded bytes and return at once; a
+// single writer thread writes each to a temp file, forces it to disk and renames it over the previous one, so a
+// crash leaves the old or the new snapshot, never a torn one. A room saved again before its write ran only has
+// its newest bytes written. Every file ends with a CRC32C of its contents, and files that fail it are skipped.
+// A save can pass a callback that runs once its file is in place, which is when the write-ahead log may let go.
+@Slf4j
+public final class RoomSnapshotStore implements Closeable {
+
+    private static final String SUFFIX = ".snap";
+
+    private final Path dir;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "room-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RoomSnapshotStore(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+    private record Pending(byte[] snapshot, Runnable onDurable) {}
+
+    public void save(String roomId, byte[] snapshot) {
+        save(roomId, snapshot, () -> {});
+    }
+
+    // onDurable runs on the writer thread after the rename; not at all if the write fails or a newer save replaces it
+    public void save(String roomId, byte[] snapshot, Runnable onDurable) {
+        if (pending.put(roomId, new Pending(snapshot, onDurable)) == null) writer.execute(() -> write(roomId));
+    }
+
+    // Drops the room's snapshot once the writes queued before have run, so an ended game is not restored
+    public void delete(String roomId) {
+        writer.execute(() -> {
+            pending.remove(roomId);
+            try {
+                Files.deleteIfExists(file(roomId));
+            } catch (IOException e) {
+                log.warn("Could not delete snapshot of room {}", roomId, e);
+            }
+        });
+    }
+
+    // Reads every intact snapshot, in parallel, for the restore at startup
+    public List<byte[]> loadAll() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).toList().parallelStream()
+                    .map(this::read)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+    }
+
+    // Finishes the queued writes
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) log.warn("Room snapshots still pending on close");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(String roomId) {
+        var next = pending.remove(roomId);
+        if (next == null) return;
+        var snapshot = next.snapshot();
+        var target = file(roomId);
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        var crc = new CRC32C();
+        crc.update(snapshot);
+        try (var channel = FileChannel.open(
+                temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.allocate(snapshot.length + Integer.BYTES);
+            buffer.put(snapshot).putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            log.warn("Could not write snapshot of room {}", roomId, e);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not replace snapshot of room {}", roomId, e);
+            return;
+        }
+        // The rename only survives a crash once the directory is on disk; until then the log still holds the inputs
+        try (var directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            log.warn("Could not sync snapshot directory for room {}", roomId, e);
+            return;
+        }
+        next.onDurable().run();
+    }
+
+    private byte[] read(Path file) {
+        try {
+            var bytes = Files.readAllBytes(file);
+            if (bytes.length >= Integer.BYTES) {
+                var length = bytes.length - Integer.BYTES;
+                var crc = new CRC32C();
+                crc.update(bytes, 0, length);
+                if ((int) crc.getValue()
+                        == ByteBuffer.wrap(bytes, length, Integer.BYTES).getInt()) {
+                    return Arrays.copyOf(bytes, length);
+                }
+            }
+            log.warn("Skipping corrupt room snapshot {}", file);
+        } catch (IOException e) {
+            log.warn("Could not read room snapshot {}", file, e);
+        }
+        return null;
+    }
+
+    private Path file(String roomId) {
+        return dir.resolve(RoomFiles.safeName(roomId) + SUFFIX);
+    }
+}
@@ -0,0 +1,31 @@
+package net.lwenstrom.tft.backend.core.time;
+
+// Clock of a room brought back after a restart. While its snapshot and log are replayed it shows the time of the
+// entry being applied; once resumed it runs with the delegate from where the replay stopped, so the room's timers
+// carry on as if the downtime had not happened.
+public final class RecoveredClock implements Clock {
+    private final Clock delegate;
+    private volatile long time;
+    private volatile long offset;
+    private volatile boolean resumed;
+
+    public RecoveredClock(Clock delegate, long time) {
+        this.delegate = delegate;
+        this.time = time;
+    }
+
+    public void setTime(long time) {
+        if (resumed) throw new IllegalStateException("Clock already resumed");
+        this.time = time;
+    }
+
+    public void resume() {
+        offset = time - delegate.currentTimeMillis();
+        resumed = true;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return resumed ? delegate.currentTimeMillis() + offset : time;
+    }
+}
@@ -0,0 +1,27 @@
+package net.lwenstrom.tft.backend.core.time;
+
+// Manually advanced clock for offline simulation, where combat time must not depend on wall time.
+public class SimulatedClock implements Clock {
+    private long currentTime;
+
+    public SimulatedClock() {
+        this(0);
+    }
+
+    public SimulatedClock(long startTime) {
+        this.currentTime = startTime;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTime;
+    }
+
+    public void advance(long ms) {
+        currentTime += ms;
+    }
+
+    public void setTime(long time) {
+        currentTime = time;
+    }
+}
@@ -3,8 +3,6 @@ package net.lwenstrom.tft.backend.game.onepiece;
 import net.lwenstrom.tft.backend.core.GameModeProvider;
 import net.lwenstrom.tft.backend.core.engine.TraitManager;
 import net.lwenstrom.tft.backend.core.model.GameMode;
-import net.lwenstrom.tft.backend.game.onepiece.traits.FighterTrait;
-import net.lwenstrom.tft.backend.game.onepiece.traits.StrawHatTrait;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -27,7 +25,6 @@ public class OnePieceGameModeProvider implements GameModeProvider {
 
     @Override
     public void registerTraitEffects(TraitManager traitManager) {
-        traitManager.registerEffect("straw_hat", new StrawHatTrait());
-        traitManager.registerEffect("fighter", new FighterTrait());
+        // Every trait is declared with its breakpoints in the traits JSON, nothing custom to register
     }
 }
@@ -3,9 +3,6 @@ package net.lwenstrom.tft.backend.game.pokemon;
 import net.lwenstrom.tft.backend.core.GameModeProvider;
 import net.lwenstrom.tft.backend.core.engine.TraitManager;
 import net.lwenstrom.tft.backend.core.model.GameMode;
-import net.lwenstrom.tft.backend.game.pokemon.traits.FireTrait;
-import net.lwenstrom.tft.backend.game.pokemon.traits.GrassTrait;
-import net.lwenstrom.tft.backend.game.pokemon.traits.WaterTrait;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -28,8 +25,6 @@ public class PokemonGameModeProvider implements GameModeProvider {
 
     @Override
     public void registerTraitEffects(TraitManager traitManager) {
-        traitManager.registerEffect("fire", new FireTrait());
-        traitManager.registerEffect("water", new WaterTrait());
-        traitManager.registerEffect("grass", new GrassTrait());
+        // Every trait is declared with its breakpoints in the traits JSON, nothing custom to register
     }
 }
@@ -0,0 +1,97 @@
+package net.lwenstrom.tft.backend.core;
+
+import static net.lwenstrom.tft.backend.test.TestHelpers.createSeededRandomProvider;
+import static net.lwenstrom.tft.backend.test.TestHelpers.createTestClock;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import net.lwenstrom.tft.backend.core.engine.GameRoom;
+import net.lwenstrom.tft.backend.core.engine.TraitManager;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DataLoaderReloadTest {
+
+    @TempDir
+    Path dir;
+
+    private String unitsPath = "/data/units_onepiece.json";
+    private String traitsPath = "/data/traits_onepiece.json";
+    private GameModeRegistry registry;
+    private DataLoader dataLoader;
+
+    @BeforeEach
+    void setUp() {
+        GameModeProvider provider = new GameModeProvider() {
+            @Override
+            public GameMode getMode() {
+                return GameMode.ONEPIECE;
+            }
+
+            @Override
+            public String getUnitsPath() {
+                return unitsPath;
+            }
+
+            @Override
+            public String getTraitsPath() {
+                return traitsPath;
+            }
+
+            @Override
+            public void registerTraitEffects(TraitManager traitManager) {}
+        };
+        registry = new GameModeRegistry(List.of(provider), "onepiece");
+        dataLoader = new DataLoader(registry, "");
+        dataLoader.loadData();
+    }
+
+    @Test
+    void reloadPublishesNewVersionWhileRunningRoomsKeepTheirs() {
+        var before = dataLoader.getSnapshot();
+        var running = new GameRoom("old", dataLoader, registry, createTestClock(), createSeededRandomProvider());
+
+        unitsPath = "/data/units_pokemon.json";
+        traitsPath = "/data/traits_pokemon.json";
+        var after = dataLoader.reload();
+
+        assertEquals(before.version() + 1, after.version());
+        assertSame(after, dataLoader.getSnapshot());
+        assertNotEquals(before.units().units(), after.units().units());
+        assertEquals(before.version(), running.getCatalogVersion());
+
+        var created = new GameRoom("new", dataLoader, registry, createTestClock(), createSeededRandomProvider());
+        assertEquals(after.version(), created.getCatalogVersion());
+    }
+
+    @Test
+    void failedReloadKeepsCurrentVersion() {
+        var before = dataLoader.getSnapshot();
+
+        unitsPath = "/data/missing.json";
+        assertThrows(IllegalStateException.class, dataLoader::reload);
+
+        assertSame(before, dataLoader.getSnapshot());
+    }
+
+    @Test
+    void dataDirIsReadInsteadOfTheClasspath() throws IOException {
+        var data = Files.createDirectories(dir.resolve("data"));
+        try (var units = getClass().getResourceAsStream("/data/units_pokemon.json");
+                var traits = getClass().getResourceAsStream("/data/traits_pokemon.json")) {
+            Files.copy(units, data.resolve("units_onepiece.json"));
+            Files.copy(traits, data.resolve("traits_onepiece.json"));
+        }
+        var fromDir = new DataLoader(registry, dir.toString());
+        fromDir.loadData();
+
+        assertNotEquals(
+                dataLoader.getSnapshot().units().units(),
+                fromDir.getSnapshot().units().units());
+    }
+}
@@ -0,0 +1,27 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.lwenstrom.tft.backend.core.engine.Grid;
+import org.junit.jupiter.api.Test;
+
+class AreaMasksTest {
+
+    @Test
+    void testSquare_ClipsToBoardAndIncludesOrigin() {
+        assertEquals(9, Long.bitCount(AreaMasks.square(3, 3, 1)));
+        assertEquals(4, Long.bitCount(AreaMasks.square(0, 0, 1)), "Corner keeps only on-board cells");
+        assertEquals(1, Long.bitCount(AreaMasks.square(3, 3, 0)));
+        assertEquals(AreaMasks.CELLS, Long.bitCount(AreaMasks.square(0, 0, 100)));
+        assertEquals(0L, AreaMasks.square(3, 3, -1));
+        assertEquals(0L, AreaMasks.square(-1, 3, 2));
+    }
+
+    @Test
+    void testLine_StepsAwayFromOriginUntilTheEdge() {
+        assertEquals(AreaMasks.bit(3, 4) | AreaMasks.bit(3, 5) | AreaMasks.bit(3, 6), AreaMasks.line(3, 3, 0, 1, 3));
+        assertEquals(AreaMasks.bit(5, 1) | AreaMasks.bit(6, 0), AreaMasks.line(4, 2, 1, -1, 5));
+        assertEquals(0L, AreaMasks.line(3, 3, 0, 0, 3), "No direction, no line");
+        assertEquals(0L, AreaMasks.line(Grid.COLS - 1, 0, 1, 0, 3));
+    }
+}
@@ -0,0 +1,81 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CombatTraceTest {
+
+    @Test
+    void testOffRecordsNothing() {
+        var trace = new CombatTrace("room", 8);
+        trace.placed(0, "Luffy", "TOP", 1, 2);
+        trace.attacked(0, "Luffy", "Zoro", 10, 90);
+        trace.restored(0, 2);
+
+        assertEquals(0, trace.drain(line -> fail(line)));
+    }
+
+    @Test
+    void testLevelFiltersKinds() {
+        var trace = new CombatTrace("room", 8);
+        trace.setLevel(CombatTrace.Level.DEBUG, 1);
+        trace.placed(100, "Luffy", "TOP", 1, 2);
+        trace.attacked(100, "Luffy", "Zoro", 10, 90);
+        trace.restored(200, 2);
+
+        var lines = drain(trace);
+        assertEquals(
+                List.of(
+                        "room=room t=100 event=PLACE unit=Luffy side=TOP x=1 y=2",
+                        "room=room t=200 event=RESTORE players=2"),
+                lines);
+    }
+
+    @Test
+    void testAttacksAreSampled() {
+        var trace = new CombatTrace("room", 64);
+        trace.setLevel(CombatTrace.Level.TRACE, 4);
+        for (var i = 0; i < 10; i++) {
+            trace.attacked(i, "Luffy", "Zoro", 10, 100 - 10 * i);
+        }
+
+        var lines = drain(trace);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("t=0 "));
+        assertTrue(lines.get(1).contains("t=4 "));
+        assertTrue(lines.get(2).contains("t=8 "));
+    }
+
+    @Test
+    void testFullRingDropsAndReports() {
+        var trace = new CombatTrace("room", 4);
+        trace.setLevel(CombatTrace.Level.TRACE, 1);
+        for (var i = 0; i < 6; i++) {
+            trace.attacked(i, "Luffy", "Zoro", 10, 90);
+        }
+
+        var lines = drain(trace);
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(3).contains("t=3 "));
+        assertEquals("room=room event=DROPPED count=2", lines.get(4));
+
+        // Draining frees the ring for new events
+        trace.attacked(7, "Luffy", "Zoro", 10, 80);
+        assertEquals(
+                List.of("room=room t=7 event=ATTACK unit=Luffy target=Zoro damage=10 targetHealth=80"), drain(trace));
+    }
+
+    @Test
+    void testDisabledTraceCannotBeConfigured() {
+        assertThrows(IllegalStateException.class, () -> CombatTrace.DISABLED.configure(CombatTrace.Level.TRACE, 1));
+    }
+
+    private static List<String> drain(CombatTrace trace) {
+        var lines = new ArrayList<String>();
+        trace.drain(lines::add);
+        return lines;
+    }
+}
@@ -0,0 +1,74 @@
+package net.lwenstrom.tft.backend.core.combat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.lwenstrom.tft.backend.core.model.StackRule;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+import net.lwenstrom.tft.backend.test.MockUnit;
+import org.junit.jupiter.api.Test;
+
+class StatusEffectsTest {
+
+    @Test
+    void testStun_ExpiresByTimeNotByTicks() {
+        var clock = new SimulatedClock();
+        var effects = new StatusEffects(clock);
+        var unit = MockUnit.create("u1", "p1");
+
+        effects.apply(unit, StatusEffects.Kind.STUN, 1.0f, 250, StackRule.STACK);
+        clock.advance(249);
+        effects.expire();
+        assertTrue(unit.isStunned());
+
+        clock.advance(1);
+        effects.expire();
+        assertFalse(unit.isStunned());
+        assertEquals(0, effects.size());
+    }
+
+    @Test
+    void testStun_StackExtendsAndRefreshDoesNot() {
+        var clock = new SimulatedClock();
+        var effects = new StatusEffects(clock);
+        var stacked = MockUnit.create("u1", "p1");
+        var refreshed = MockUnit.create("u2", "p1");
+
+        effects.apply(stacked, StatusEffects.Kind.STUN, 1.0f, 200, StackRule.STACK);
+        effects.apply(refreshed, StatusEffects.Kind.STUN, 1.0f, 200, StackRule.REFRESH);
+        clock.advance(100);
+        effects.apply(stacked, StatusEffects.Kind.STUN, 1.0f, 200, StackRule.STACK);
+        effects.apply(refreshed, StatusEffects.Kind.STUN, 1.0f, 200, StackRule.REFRESH);
+
+        clock.advance(200);
+        effects.expire();
+        assertTrue(stacked.isStunned(), "Stacked stun runs until 400");
+        assertFalse(refreshed.isStunned(), "Refreshed stun runs until 300");
+
+        clock.advance(100);
+        effects.expire();
+        assertFalse(stacked.isStunned());
+    }
+
+    @Test
+    void testBuffs_MultiplyAndOnlyTimedOnesExpire() {
+        var clock = new SimulatedClock();
+        var effects = new StatusEffects(clock);
+        var unit = MockUnit.create("u1", "p1");
+
+        effects.apply(unit, StatusEffects.Kind.ATTACK_BUFF, 1.5f, 0, StackRule.STACK);
+        effects.apply(unit, StatusEffects.Kind.ATTACK_BUFF, 2.0f, 1000, StackRule.STACK);
+        effects.apply(unit, StatusEffects.Kind.SPEED_BUFF, 1.2f, 500, StackRule.REFRESH);
+        effects.apply(unit, StatusEffects.Kind.SPEED_BUFF, 1.3f, 500, StackRule.REFRESH);
+        assertEquals(3.0f, unit.getAtkBuff());
+        assertEquals(1.3f, unit.getSpdBuff(), "Refresh keeps a single instance with the new value");
+
+        clock.advance(500);
+        effects.expire();
+        assertEquals(3.0f, unit.getAtkBuff());
+        assertEquals(1.0f, unit.getSpdBuff());
+
+        clock.advance(500);
+        effects.expire();
+        assertEquals(1.5f, unit.getAtkBuff(), "Buffs without a duration last the whole combat");
+    }
+}
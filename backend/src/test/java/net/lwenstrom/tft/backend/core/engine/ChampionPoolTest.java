@@ -0,0 +1,142 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import net.lwenstrom.tft.backend.core.model.LootOrb;
+import net.lwenstrom.tft.backend.core.model.LootType;
+import net.lwenstrom.tft.backend.core.random.AliasTable;
+import net.lwenstrom.tft.backend.test.TestHelpers;
+import org.junit.jupiter.api.Test;
+
+class ChampionPoolTest {
+
+    private static final UnitDefinition ONE_COST = TestHelpers.createUnitDef("u1", "One", 1, 100, 10);
+    private static final UnitDefinition TWO_COST = TestHelpers.createUnitDef("u2", "Two", 2, 100, 10);
+    private static final UnitDefinition FIVE_COST = TestHelpers.createUnitDef("u5", "Five", 5, 100, 10);
+
+    @Test
+    void testRoll_FollowsLevelOdds() {
+        var pool = new ChampionPool(new UnitCatalog(List.of(ONE_COST, TWO_COST, FIVE_COST)));
+        var random = TestHelpers.createSeededRandomProvider();
+
+        for (var i = 0; i < 20; i++) {
+            var offer = pool.roll(1, random);
+            assertSame(ONE_COST, offer, "Level 1 only offers 1-cost units");
+            pool.release(offer.id(), 1);
+        }
+        var fiveCosts = 0;
+        for (var i = 0; i < 1000; i++) {
+            var offer = pool.roll(9, random);
+            if (offer == FIVE_COST) fiveCosts++;
+            pool.release(offer.id(), 1);
+        }
+        assertTrue(fiveCosts > 50 && fiveCosts < 150, "Level 9 offers 5-costs about 10% of the time: " + fiveCosts);
+    }
+
+    @Test
+    void testRoll_DrainsFiniteCopiesAndFallsBackToOtherTiers() {
+        var pool = new ChampionPool(new UnitCatalog(List.of(ONE_COST, TWO_COST)));
+        var random = TestHelpers.createSeededRandomProvider();
+
+        for (var i = 0; i < 29; i++) {
+            assertSame(ONE_COST, pool.roll(1, random));
+        }
+        assertEquals(0, pool.remaining("u1"));
+        assertSame(TWO_COST, pool.roll(1, random), "An empty tier hands its odds to one with copies left");
+
+        for (var i = 0; i < 21; i++) pool.roll(1, random);
+        assertNull(pool.roll(1, random), "Nothing left to offer");
+    }
+
+    @Test
+    void testRelease_NeverExceedsInitialCopies() {
+        var pool = new ChampionPool(new UnitCatalog(List.of(ONE_COST)));
+        pool.roll(1, TestHelpers.createSeededRandomProvider());
+
+        pool.release("u1", 9);
+        pool.release("unknown", 3);
+
+        assertEquals(29, pool.remaining("u1"));
+    }
+
+    @Test
+    void testPlayers_ShareThePoolAndSellingReturnsCopies() {
+        var pool = new ChampionPool(new UnitCatalog(List.of(ONE_COST)));
+        var ids = new IdAllocator();
+        var first = new Player("p1", "P1", null, TestHelpers.createSeededRandomProvider(), ids, pool);
+        var second = new Player("p2", "P2", null, TestHelpers.createSeededRandomProvider(), ids, pool);
+        first.setGold(100);
+        second.setGold(100);
+
+        first.refreshShop();
+        second.refreshShop();
+        assertEquals(19, pool.remaining("u1"), "Offers are held out of the pool");
+
+        first.refreshShop();
+        assertEquals(19, pool.remaining("u1"), "A reroll returns the old offers first");
+
+        first.buyUnit(0);
+        first.buyUnit(1);
+        first.buyUnit(2); // Merges into a 2-star
+        first.refreshShop(); // Two unbought offers return, five new ones are drawn
+        assertEquals(16, pool.remaining("u1"));
+
+        first.sellUnit(first.getBench().get(0).getId(), true);
+        assertEquals(19, pool.remaining("u1"), "A sold 2-star frees three copies");
+    }
+
+    @Test
+    void testUnitOrb_TakesACopyFromThePool() {
+        var pool = new ChampionPool(new UnitCatalog(List.of(ONE_COST)));
+        var player = new Player("p1", "P1", null, TestHelpers.createSeededRandomProvider(), new IdAllocator(), pool);
+        player.addLootOrb(new LootOrb("o1", 0, 0, LootType.UNIT, "One", 0));
+
+        player.collectOrb("o1");
+        assertEquals(28, pool.remaining("u1"));
+
+        player.sellUnit(player.getBench().get(0).getId(), true);
+        assertEquals(29, pool.remaining("u1"), "Selling returns the copy the orb took");
+
+        pool.restoreRemaining("u1", 0);
+        var gold = player.getGold();
+        player.addLootOrb(new LootOrb("o2", 0, 0, LootType.UNIT, "One", 0));
+        player.collectOrb("o2");
+        assertTrue(player.getBench().isEmpty(), "No copy left, so the orb pays out instead");
+        assertEquals(gold + ONE_COST.cost(), player.getGold());
+    }
+
+    @Test
+    void testLeavingPlayer_ReturnsUnitsAndOffers() {
+        var dataLoader = TestHelpers.createMockDataLoader(List.of(ONE_COST));
+        var room = TestHelpers.createTestGameRoom(dataLoader);
+        var pool = room.championPool();
+        var before = pool.remaining("u1");
+        var player = room.addPlayer("P1");
+        player.setGold(100);
+        player.refreshShop();
+        player.buyUnit(0);
+        player.buyUnit(1);
+        player.moveUnit(player.getBench().get(0).getId(), 3, 0);
+        assertEquals(before - 5, pool.remaining("u1"));
+
+        room.removePlayer(player.getId());
+
+        assertEquals(before, pool.remaining("u1"), "Bench, board and unbought offers are all returned");
+    }
+
+    @Test
+    void testAliasTable_SamplesByWeight() {
+        var table = new AliasTable(new double[] {1, 0, 3});
+        var random = TestHelpers.createSeededRandomProvider();
+        var counts = new int[3];
+
+        for (var i = 0; i < 40_000; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        assertEquals(0, counts[1]);
+        assertEquals(0.25, counts[0] / 40_000.0, 0.01);
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[] {0, 0}));
+    }
+}
@@ -0,0 +1,155 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static net.lwenstrom.tft.backend.test.TestHelpers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.lwenstrom.tft.backend.core.model.GameState;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
+import net.lwenstrom.tft.backend.test.MockUnit;
+import org.junit.jupiter.api.Test;
+
+class CombatContextTest {
+
+    @Test
+    void testMatchupsKeepSeparateDamageLogs() {
+        var clock = createTestClock();
+        var combatSystem = createTestCombatSystem(clock);
+        var a = pair("a", 10);
+        var b = pair("b", 30);
+
+        var first = combatSystem.startCombat(a);
+        var second = combatSystem.startCombat(b);
+        for (var i = 0; i < 5; i++) {
+            combatSystem.simulateTick(first);
+            combatSystem.simulateTick(second);
+            clock.advance(100);
+        }
+
+        var attackerA = a.get(0).getBoardUnits().get(0).getId();
+        var attackerB = b.get(0).getBoardUnits().get(0).getId();
+        assertTrue(first.getDamageLog().containsKey(attackerA));
+        assertFalse(first.getDamageLog().containsKey(attackerB));
+        assertTrue(second.getDamageLog().containsKey(attackerB));
+        assertFalse(second.getDamageLog().containsKey(attackerA));
+        assertEquals(
+                3 * first.getDamageLog().get(attackerA).damage(),
+                second.getDamageLog().get(attackerB).damage());
+    }
+
+    @Test
+    void testCollectDamageOnlyReportsChangedUnits() {
+        var clock = createTestClock();
+        var combatSystem = createTestCombatSystem(clock);
+        var combat = combatSystem.startCombat(pair("c", 10));
+        var live = new HashMap<String, CombatSystem.DamageEntry>();
+
+        combatSystem.simulateTick(combat);
+        combat.collectDamage(live);
+        assertEquals(combat.getDamageLog(), live);
+
+        // Nothing attacks again before the cooldown, so there is nothing new to hand out
+        live.clear();
+        combatSystem.simulateTick(combat);
+        combat.collectDamage(live);
+        assertTrue(live.isEmpty());
+    }
+
+    @Test
+    void testParallelTicksMatchSerialTicks() {
+        var serialClock = createTestClock();
+        var parallelClock = createTestClock();
+        var serialSystem = createTestCombatSystem(serialClock);
+        var parallelSystem = createTestCombatSystem(parallelClock);
+        var serial = new ArrayList<CombatContext>();
+        var parallel = new ArrayList<CombatContext>();
+        for (var i = 0; i < 4; i++) {
+            serial.add(serialSystem.startCombat(pair("m" + i, 10 + 7 * i)));
+            parallel.add(parallelSystem.startCombat(pair("m" + i, 10 + 7 * i)));
+        }
+
+        var pool = new ForkJoinPool(4);
+        try {
+            for (var tick = 0; tick < 40; tick++) {
+                var expected = new ArrayList<CombatSystem.CombatResult>();
+                for (var combat : serial) {
+                    expected.add(serialSystem.simulateTick(combat));
+                }
+                assertEquals(expected, parallelSystem.simulateTicks(parallel, pool), "Tick " + tick);
+                for (var i = 0; i < serial.size(); i++) {
+                    assertEquals(encode(serial.get(i)), encode(parallel.get(i)), "Events of tick " + tick);
+                }
+                serialClock.advance(100);
+                parallelClock.advance(100);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        for (var i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i).getDamageLog(), parallel.get(i).getDamageLog());
+        }
+    }
+
+    @Test
+    void testEventsAreEncodedPerTickWithUnitIds() {
+        var clock = createTestClock();
+        var combatSystem = createTestCombatSystem(clock);
+        var players = pair("e", 10);
+        var combat = combatSystem.startCombat(players);
+        var attacker = players.get(0).getBoardUnits().get(0).getId();
+        var target = players.get(1).getBoardUnits().get(0).getId();
+
+        combatSystem.simulateTick(combat);
+        var events = encode(combat);
+        assertEquals(2, events.size());
+        assertEquals(
+                new GameState.CombatEvent(clock.currentTimeMillis(), "DAMAGE", attacker, target, 10), events.get(0));
+
+        // A tick without attacks encodes nothing, the previous tick's events are not repeated
+        combatSystem.simulateTick(combat);
+        assertTrue(encode(combat).isEmpty());
+    }
+
+    @Test
+    void testEventLogKeepsTheNewestEventsOfAnOverfullTick() {
+        var log = new CombatEventLog(4);
+        log.beginTick();
+        for (var i = 0; i < 6; i++) {
+            log.add(i, CombatEventLog.Type.DAMAGE, 0, 1, i);
+        }
+        var units = List.<GameUnit>of(MockUnit.create("a", "p1"), MockUnit.create("b", "p2"));
+        var events = new ArrayList<GameState.CombatEvent>();
+        log.encodeTick(units, events);
+
+        assertEquals(
+                List.of(2, 3, 4, 5),
+                events.stream().map(GameState.CombatEvent::value).toList());
+    }
+
+    private static List<GameState.CombatEvent> encode(CombatContext combat) {
+        var events = new ArrayList<GameState.CombatEvent>();
+        combat.encodeEvents(events);
+        return events;
+    }
+
+    private static List<Player> pair(String prefix, int attackDamage) {
+        var p1 = new Player(prefix + "-1", prefix + "-1", null, createSeededRandomProvider());
+        var p2 = new Player(prefix + "-2", prefix + "-2", null, createSeededRandomProvider());
+        addUnitToPlayer(
+                p1,
+                MockUnit.create(prefix + "-attacker", p1.getId())
+                        .withPosition(3, 0)
+                        .withAttackDamage(attackDamage)
+                        .withRange(1));
+        addUnitToPlayer(
+                p2,
+                MockUnit.create(prefix + "-target", p2.getId())
+                        .withPosition(3, 0)
+                        .withHealth(10_000, 10_000)
+                        .withAttackDamage(0));
+        return List.of(p1, p2);
+    }
+}
@@ -34,8 +34,9 @@ class CombatIntegrationTest {
         addUnitToPlayer(p2, weakUnit);
 
         // Run combat ticks using TestClock instead of System.currentTimeMillis
+        var combat = combatSystem.newContext(List.of(p1, p2));
         for (int i = 0; i < 60; i++) {
-            combatSystem.simulateTick(List.of(p1, p2));
+            combatSystem.simulateTick(combat);
             if (weakUnit.getCurrentHealth() <= 0)
                 break;
             testClock.advance(50);
@@ -99,8 +100,9 @@ class CombatIntegrationTest {
         addUnitToPlayer(p2, targetUnit);
 
         // Don't call startCombat - test pure combat logic
+        var combat = combatSystem.newContext(List.of(p1, p2));
         for (int i = 0; i < 50; i++) {
-            combatSystem.simulateTick(List.of(p1, p2));
+            combatSystem.simulateTick(combat);
         }
 
         assertEquals(0, deadUnit.getCurrentHealth());
@@ -132,7 +134,7 @@ class CombatIntegrationTest {
         addUnitToPlayer(p2, target);
 
         // Run one tick - should cast ability
-        combatSystem.simulateTick(List.of(p1, p2));
+        combatSystem.simulateTick(combatSystem.newContext(List.of(p1, p2)));
 
         assertEquals(50, target.getCurrentHealth(), "Target should take 50 ability damage");
         assertEquals(0, caster.getMana(), "Mana should reset after cast");
@@ -166,7 +168,7 @@ class CombatIntegrationTest {
         addUnitToPlayer(p2, enemy2);
         addUnitToPlayer(p2, enemy3);
 
-        combatSystem.simulateTick(List.of(p1, p2));
+        combatSystem.simulateTick(combatSystem.newContext(List.of(p1, p2)));
 
         assertEquals(75, enemy1.getCurrentHealth(), "Adjacent enemy at (2,2) should take 25 damage");
         assertEquals(75, enemy2.getCurrentHealth(), "Adjacent enemy at (3,2) should take 25 damage");
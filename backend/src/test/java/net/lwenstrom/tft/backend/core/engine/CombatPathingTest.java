@@ -199,18 +199,18 @@ public class CombatPathingTest {
         public void setAttackSpeed(float attackSpeed) {}
 
         // Stun/buff methods
-        private int stunTicksRemaining = 0;
+        private boolean stunned;
         private float atkBuff = 1.0f;
         private float spdBuff = 1.0f;
 
         @Override
-        public int getStunTicksRemaining() {
-            return stunTicksRemaining;
+        public boolean isStunned() {
+            return stunned;
         }
 
         @Override
-        public void setStunTicksRemaining(int ticks) {
-            this.stunTicksRemaining = ticks;
+        public void setStunned(boolean stunned) {
+            this.stunned = stunned;
         }
 
         @Override
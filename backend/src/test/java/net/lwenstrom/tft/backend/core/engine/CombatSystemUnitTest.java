@@ -129,7 +129,7 @@ class CombatSystemUnitTest {
         addUnitToPlayer(p1, attacker);
         addUnitToPlayer(p2, target);
 
-        combatSystem.startCombat(List.of(p1, p2));
+        var combat = combatSystem.startCombat(List.of(p1, p2));
 
         int attackerY = attacker.getY();
         int targetY = target.getY();
@@ -137,7 +137,7 @@ class CombatSystemUnitTest {
         assertEquals(1, distance, "Units should be adjacent after combat positioning");
 
         for (int i = 0; i < 20; i++) {
-            combatSystem.simulateTick(List.of(p1, p2));
+            combatSystem.simulateTick(combat);
         }
 
         assertTrue(target.getCurrentHealth() < 100, "Target should have taken damage");
@@ -157,10 +157,10 @@ class CombatSystemUnitTest {
         addUnitToPlayer(p1, attacker);
         addUnitToPlayer(p2, target);
 
-        combatSystem.startCombat(List.of(p1, p2));
+        var combat = combatSystem.startCombat(List.of(p1, p2));
 
         for (int i = 0; i < 20; i++) {
-            combatSystem.simulateTick(List.of(p1, p2));
+            combatSystem.simulateTick(combat);
         }
 
         assertTrue(attacker.getMana() > 0, "Attacker should have gained mana from attacking");
@@ -93,6 +93,41 @@ class EliminationFlowTest {
         assertTrue(eliminated >= 1, "At least one player should be eliminated");
     }
 
+    @Test
+    void testEliminatedPlayer_FreesItsUnitsAndStopsRollingShops() {
+        var unitDef = TestHelpers.createUnitDef("unit", "Unit", 1, 500, 100);
+        var dataLoader = TestHelpers.createMockDataLoader(List.of(unitDef));
+        var testClock = new TestClock();
+        var room = TestHelpers.createTestGameRoom(dataLoader, testClock);
+
+        room.addPlayer("P1");
+        var p2 = room.addPlayer("P2");
+        p2.setGold(10);
+        p2.refreshShop();
+        p2.buyUnit(0);
+        p2.setHealth(1);
+
+        room.startMatch();
+
+        for (int i = 0; i < 20 && !(p2.getHealth() <= 0 && room.getState().phase() == GamePhase.PLANNING); i++) {
+            testClock.advance(30000);
+            room.tick();
+        }
+        assertEquals(0, p2.getHealth());
+        assertTrue(p2.getBench().isEmpty());
+        assertTrue(p2.getBoardUnits().isEmpty());
+        assertTrue(p2.getShop().stream().allMatch(offer -> offer == null), "Offers go back to the pool");
+
+        var gold = p2.getGold();
+        testClock.advance(30000);
+        room.tick();
+        testClock.advance(30000);
+        room.tick();
+        assertEquals(GamePhase.PLANNING, room.getState().phase());
+        assertEquals(gold, p2.getGold(), "No income or rerolls once knocked out");
+        assertTrue(p2.getShop().stream().allMatch(offer -> offer == null));
+    }
+
     @Test
     void testLoserTakesDamage_AfterCombat() {
         var strongDef = TestHelpers.createUnitDef("strong", "StrongUnit", 1, 300, 80);
@@ -0,0 +1,39 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import net.lwenstrom.tft.backend.core.combat.CombatTrace;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+class EnginePropertiesTest {
+
+    @Test
+    void testUnsetPropertiesBindToTheDefaults() {
+        var properties = bind(Map.of("game.mode", "onepiece"));
+
+        assertEquals(EngineProperties.DEFAULTS, properties);
+    }
+
+    @Test
+    void testPropertiesBindByTheirDocumentedNames() {
+        var properties = bind(Map.of(
+                "game.trace.level", "TRACE",
+                "game.trace.sample-every", "10",
+                "game.journal.dir", "/tmp/journals",
+                "game.snapshot.interval-ms", "250",
+                "game.wal.dir", "/tmp/wal",
+                "game.wal.shards", "2"));
+
+        assertEquals(new EngineProperties.Trace(CombatTrace.Level.TRACE, 10), properties.trace());
+        assertEquals("/tmp/journals", properties.journal().dir());
+        assertEquals(new EngineProperties.Snapshot("", 250), properties.snapshot());
+        assertEquals(new EngineProperties.Wal("/tmp/wal", 2, 64 << 20), properties.wal());
+    }
+
+    private static EngineProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values)).bindOrCreate("game", EngineProperties.class);
+    }
+}
@@ -51,7 +51,7 @@ class GameEndCleanupTest {
         var randomProvider = TestHelpers.createSeededRandomProvider();
         var registry = TestHelpers.createMockRegistry();
 
-        var engine = new GameEngine(dataLoader, registry, testClock, randomProvider);
+        var engine = new GameEngine(dataLoader, registry, testClock, randomProvider, EngineProperties.DEFAULTS);
         var room = engine.createRoom("test-room");
 
         var p1 = room.addPlayer("P1");
@@ -86,7 +86,7 @@ class GameEndCleanupTest {
         var randomProvider = TestHelpers.createSeededRandomProvider();
         var registry = TestHelpers.createMockRegistry();
 
-        var engine = new GameEngine(dataLoader, registry, testClock, randomProvider);
+        var engine = new GameEngine(dataLoader, registry, testClock, randomProvider, EngineProperties.DEFAULTS);
         var room = engine.createRoom("active-room");
 
         var p1 = room.addPlayer("P1");
@@ -0,0 +1,83 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static net.lwenstrom.tft.backend.test.TestHelpers.createSeededRandomProvider;
+import static net.lwenstrom.tft.backend.test.TestHelpers.createTestClock;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.GameModeRegistry;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.game.onepiece.OnePieceGameModeProvider;
+import net.lwenstrom.tft.backend.game.pokemon.PokemonGameModeProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GameEngineModeTest {
+
+    private GameModeRegistry registry;
+    private DataLoader dataLoader;
+    private GameEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        registry = new GameModeRegistry(
+                List.of(new OnePieceGameModeProvider(), new PokemonGameModeProvider()), "onepiece");
+        dataLoader = new DataLoader(registry, "");
+        dataLoader.loadData();
+        engine = new GameEngine(
+                dataLoader, registry, createTestClock(), createSeededRandomProvider(), EngineProperties.DEFAULTS);
+    }
+
+    @Test
+    void roomsOfDifferentModesRunSideBySide() {
+        var onePiece = engine.createRoom("a");
+        var pokemon = engine.createRoom("b", GameMode.POKEMON);
+
+        assertEquals(GameMode.ONEPIECE, onePiece.getMode());
+        assertEquals(GameMode.POKEMON, pokemon.getMode());
+        assertEquals(GameMode.POKEMON, pokemon.getState().gameMode());
+        assertNotEquals(
+                dataLoader.getSnapshot(GameMode.ONEPIECE).units().units(),
+                dataLoader.getSnapshot(GameMode.POKEMON).units().units());
+
+        pokemon.addBot();
+        var pokemonIds = dataLoader.getSnapshot(GameMode.POKEMON).units();
+        for (var bot : pokemon.getPlayers()) {
+            bot.getBoardUnits().forEach(unit -> assertNotNull(pokemonIds.byId(unit.getDefinitionId())));
+        }
+    }
+
+    @Test
+    void aTakenRoomIdIsRefused() {
+        var room = engine.createRoom("a");
+        room.addPlayer("Alice");
+
+        assertThrows(IllegalArgumentException.class, () -> engine.createRoom("a", GameMode.POKEMON));
+        assertSame(room, engine.getRoom("a"));
+        assertEquals(1, room.getPlayers().size());
+
+        engine.removeRoom("a");
+        assertEquals(GameMode.POKEMON, engine.createRoom("a", GameMode.POKEMON).getMode());
+    }
+
+    @Test
+    void roomsOfOneModeShareItsCompiledTraits() throws Exception {
+        var a = engine.createRoom("a", GameMode.POKEMON);
+        var b = engine.createRoom("b", GameMode.POKEMON);
+        var c = engine.createRoom("c", GameMode.ONEPIECE);
+
+        var field = GameRoom.class.getDeclaredField("traitManager");
+        field.setAccessible(true);
+        assertSame(dataLoader.getSnapshot(GameMode.POKEMON).traitManager(), field.get(a));
+        assertSame(field.get(a), field.get(b));
+        assertNotSame(field.get(a), field.get(c));
+    }
+
+    @Test
+    void resolveFallsBackToDefaultAndRejectsUnknownModes() {
+        assertEquals(GameMode.ONEPIECE, registry.resolve(null));
+        assertEquals(GameMode.POKEMON, registry.resolve("Pokemon"));
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("digimon"));
+    }
+}
@@ -0,0 +1,68 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.model.ActionType;
+import net.lwenstrom.tft.backend.test.TestClock;
+import net.lwenstrom.tft.backend.test.TestHelpers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GameEngineRecoveryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoomsComeBackAfterCrashWithEveryLoggedInput() throws IOException {
+        var dataLoader = TestHelpers.createCrewDataLoader();
+        var clock = new TestClock();
+        var engine = engine(dataLoader, clock);
+        var room = engine.createRoom("room");
+        var ended = engine.createRoom("ended");
+        var alice = room.addPlayer("Alice");
+        room.addPlayer("Bob");
+        room.startMatch();
+        engine.removeRoom(ended.getId());
+        for (var i = 0; i < 900; i++) {
+            if (i % 120 == 0) {
+                room.handleAction(TestHelpers.action(ActionType.BUY, alice.getId(), 0));
+                room.handleAction(TestHelpers.action(ActionType.REROLL, alice.getId(), null));
+            }
+            clock.advance(100);
+            engine.tick();
+        }
+        // No shutdown: the engine stops as if the process died
+
+        var laterClock = new TestClock();
+        laterClock.setTime(clock.currentTimeMillis() + 60_000);
+        var restarted = engine(dataLoader, laterClock);
+        var recovered = restarted.getRoom("room");
+
+        assertNotNull(recovered);
+        assertNull(restarted.getRoom("ended"));
+        assertTrue(room.getState().round() > 1);
+        assertEquals(TestHelpers.summary(room), TestHelpers.summary(recovered));
+        assertEquals(room.getState().timeRemainingMs(), recovered.getState().timeRemainingMs());
+    }
+
+    private GameEngine engine(DataLoader dataLoader, TestClock clock) throws IOException {
+        var defaults = EngineProperties.DEFAULTS;
+        var properties = new EngineProperties(
+                defaults.trace(),
+                defaults.journal(),
+                new EngineProperties.Snapshot(dir.resolve("snapshots").toString(), 1000),
+                new EngineProperties.Wal(dir.resolve("wal").toString(), 4, 64 << 20));
+        var engine = new GameEngine(
+                dataLoader,
+                TestHelpers.createMockRegistry(),
+                clock,
+                TestHelpers.createSeededRandomProvider(),
+                properties);
+        engine.restoreRooms();
+        return engine;
+    }
+}
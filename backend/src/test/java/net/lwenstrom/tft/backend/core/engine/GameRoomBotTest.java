@@ -42,7 +42,7 @@ class GameRoomBotTest {
         };
 
         gameModeRegistry = new GameModeRegistry(List.of(provider), "onepiece");
-        dataLoader = new DataLoader(gameModeRegistry);
+        dataLoader = new DataLoader(gameModeRegistry, "");
         dataLoader.loadData();
 
         gameRoom = new GameRoom(
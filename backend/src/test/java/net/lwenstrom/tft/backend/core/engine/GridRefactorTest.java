@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import net.lwenstrom.tft.backend.core.CatalogSnapshot;
 import net.lwenstrom.tft.backend.core.DataLoader;
 import net.lwenstrom.tft.backend.core.GameModeProvider;
 import net.lwenstrom.tft.backend.core.GameModeRegistry;
@@ -17,12 +18,12 @@ class GridRefactorTest {
 
     static class MockDataLoader extends DataLoader {
         public MockDataLoader(GameModeRegistry registry) {
-            super(registry);
+            super(registry, "");
         }
 
         @Override
-        public java.util.List<UnitDefinition> getAllUnits() {
-            return Collections.emptyList();
+        public CatalogSnapshot getSnapshot(GameMode mode) {
+            return new CatalogSnapshot(1, UnitCatalog.EMPTY, List.of());
         }
     }
 
@@ -98,15 +99,13 @@ class GridRefactorTest {
         try {
             java.lang.reflect.Field benchField = Player.class.getDeclaredField("bench");
             benchField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            List<GameUnit> bench1 = (List<GameUnit>) benchField.get(p1);
-            bench1.add(u1);
+            UnitSlots bench1 = (UnitSlots) benchField.get(p1);
+            bench1.append(u1);
 
             GameUnit u2 = new StandardGameUnit(createDummyDef());
             u2.setOwnerId(p2.getId());
-            @SuppressWarnings("unchecked")
-            List<GameUnit> bench2 = (List<GameUnit>) benchField.get(p2);
-            bench2.add(u2);
+            UnitSlots bench2 = (UnitSlots) benchField.get(p2);
+            bench2.append(u2);
 
             // Move P1 unit to (3, 3) - Back Center (Local Row 3 is Backline/Edge)
             p1.moveUnit(u1.getId(), 3, 3);
@@ -0,0 +1,42 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import net.lwenstrom.tft.backend.test.TestHelpers;
+import org.junit.jupiter.api.Test;
+
+class IdAllocatorTest {
+
+    @Test
+    void testNextId_IsSequentialAndCompact() {
+        var ids = new IdAllocator();
+
+        assertEquals("1", ids.nextId());
+        assertEquals(2, ids.next());
+        assertEquals("z", IdAllocator.format(35));
+        assertEquals("10", IdAllocator.format(36));
+    }
+
+    @Test
+    void testPlayersOfOneRoom_NeverShareUnitIds() {
+        var ids = new IdAllocator();
+        var def = TestHelpers.createUnitDef("u1", "Unit", 1, 500, 50);
+        var first = new Player("p1", "P1", null, TestHelpers.createSeededRandomProvider(), ids, null);
+        var second = new Player("p2", "P2", null, TestHelpers.createSeededRandomProvider(), ids, null);
+
+        first.setLevel(3);
+        second.setLevel(3);
+
+        var seen = new HashSet<String>();
+        for (var i = 0; i < 3; i++) {
+            first.addUnitToBoard(def, i, 0);
+            second.addUnitToBoard(def, i, 0);
+        }
+        first.getBoardUnits().forEach(u -> assertTrue(seen.add(u.getId())));
+        second.getBoardUnits().forEach(u -> assertTrue(seen.add(u.getId())));
+
+        assertEquals(6, seen.size());
+        assertTrue(seen.stream().allMatch(id -> id.length() == 1));
+    }
+}
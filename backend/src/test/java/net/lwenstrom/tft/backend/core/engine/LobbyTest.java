@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.util.List;
+import net.lwenstrom.tft.backend.core.CatalogSnapshot;
 import net.lwenstrom.tft.backend.core.DataLoader;
 import net.lwenstrom.tft.backend.core.GameModeProvider;
 import net.lwenstrom.tft.backend.core.GameModeRegistry;
@@ -49,7 +50,8 @@ public class LobbyTest {
                 List.of(1, 1, 1),
                 List.of("Pirate"),
                 null);
-        when(dataLoader.getAllUnits()).thenReturn(List.of(dummyUnit));
+        when(dataLoader.getSnapshot(any()))
+                .thenReturn(new CatalogSnapshot(1, new UnitCatalog(List.of(dummyUnit)), List.of()));
 
         gameRoom =
                 new GameRoom("room-1", dataLoader, gameModeRegistry, createTestClock(), createSeededRandomProvider());
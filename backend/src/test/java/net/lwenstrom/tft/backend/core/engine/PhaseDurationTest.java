@@ -5,6 +5,7 @@ import static net.lwenstrom.tft.backend.test.TestHelpers.createTestClock;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.List;
+import net.lwenstrom.tft.backend.core.CatalogSnapshot;
 import net.lwenstrom.tft.backend.core.DataLoader;
 import net.lwenstrom.tft.backend.core.GameModeProvider;
 import net.lwenstrom.tft.backend.core.GameModeRegistry;
@@ -43,28 +44,26 @@ public class PhaseDurationTest {
         };
 
         GameModeRegistry registry = new GameModeRegistry(List.of(provider), "onepiece");
-        DataLoader dataLoader = new DataLoader(registry) {
+        DataLoader dataLoader = new DataLoader(registry, "") {
             @Override
-            public List<UnitDefinition> getAllUnits() {
-                return List.of(new UnitDefinition(
-                        "u1",
-                        "Unit",
+            public CatalogSnapshot getSnapshot(GameMode mode) {
+                return new CatalogSnapshot(
                         1,
-                        List.of(100, 100, 100),
-                        List.of(10, 10, 10),
-                        List.of(10, 10, 10),
-                        List.of(1, 1, 1),
-                        List.of(1, 1, 1),
-                        List.of(1, 1, 1),
-                        List.of(1f, 1f, 1f),
-                        List.of(1, 1, 1),
-                        List.of(),
-                        null));
-            }
-
-            @Override
-            public UnitDefinition getUnitDefinition(String id) {
-                return getAllUnits().get(0);
+                        new UnitCatalog(List.of(new UnitDefinition(
+                                "u1",
+                                "Unit",
+                                1,
+                                List.of(100, 100, 100),
+                                List.of(10, 10, 10),
+                                List.of(10, 10, 10),
+                                List.of(1, 1, 1),
+                                List.of(1, 1, 1),
+                                List.of(1, 1, 1),
+                                List.of(1f, 1f, 1f),
+                                List.of(1, 1, 1),
+                                List.of(),
+                                null))),
+                        List.of());
             }
 
             @Override
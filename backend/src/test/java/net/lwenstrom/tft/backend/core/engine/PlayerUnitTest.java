@@ -339,4 +339,142 @@ class PlayerUnitTest {
         assertEquals(9, player.calculateSellValue(unit3Star1Cost), "3-star, 1-cost = 9 gold");
         assertEquals(18, player.calculateSellValue(unit3Star2Cost), "3-star, 2-cost = 18 gold");
     }
+
+    // ========== TRAIT COUNT TESTS ==========
+
+    @Test
+    void testTraitCounts_CountUniqueUnitsOnBoard() {
+        var luffy = traitUnit("luffy", "Luffy", "Straw Hat", "Fighter");
+        var zoro = traitUnit("zoro", "Zoro", "Straw Hat", "Swordsman");
+        var player = createTestPlayer("TestPlayer", TestHelpers.createMockDataLoader(List.of(luffy, zoro)));
+        player.setLevel(5);
+
+        player.addUnitToBoard(luffy, 0, 0);
+        player.addUnitToBoard(luffy, 1, 0); // Second copy does not count again
+        player.addUnitToBoard(zoro, 2, 0);
+
+        var counts = player.getTraitCounter().counts();
+        assertEquals(2, counts.get("straw_hat"));
+        assertEquals(1, counts.get("fighter"));
+        assertEquals(1, counts.get("swordsman"));
+        var active = player.toState().activeTraits();
+        assertEquals("straw_hat", active.get(0).id());
+        assertEquals("Straw Hat", active.get(0).name());
+        assertEquals(2, active.get(0).count());
+    }
+
+    @Test
+    void testTraitCounts_FollowUnitsLeavingTheBoard() {
+        var luffy = traitUnit("luffy", "Luffy", "Straw Hat", "Fighter");
+        var zoro = traitUnit("zoro", "Zoro", "Straw Hat", "Swordsman");
+        var player = createTestPlayer("TestPlayer", TestHelpers.createMockDataLoader(List.of(luffy, zoro)));
+        player.setLevel(5);
+        player.addUnitToBoard(luffy, 0, 0);
+        player.addUnitToBoard(luffy, 1, 0);
+        player.addUnitToBoard(zoro, 2, 0);
+
+        player.moveUnit(player.getBoardUnits().get(0).getId(), 0, -1); // One Luffy copy to bench
+        assertEquals(1, player.getTraitCounter().count("fighter"), "Remaining copy still counts");
+
+        player.sellUnit(player.getBoardUnits().get(0).getId(), true); // Last Luffy
+        assertEquals(0, player.getTraitCounter().count("fighter"));
+        assertEquals(1, player.getTraitCounter().count("straw_hat"));
+
+        player.moveUnit(player.getBench().get(0).getId(), 4, 3); // Luffy back onto the board
+        assertEquals(2, player.getTraitCounter().count("straw_hat"));
+
+        player.removeAllUnits();
+        assertTrue(player.getTraitCounter().counts().isEmpty());
+        assertTrue(player.toState().activeTraits().isEmpty());
+    }
+
+    @Test
+    void testTraitCounts_UpgradeOnBoardKeepsCount() {
+        var luffy = traitUnit("luffy", "Luffy", "Straw Hat", "Fighter");
+        var player = createTestPlayer("TestPlayer", TestHelpers.createMockDataLoader(List.of(luffy)));
+        player.setLevel(5);
+        player.setGold(100);
+        player.addUnitToBoard(luffy, 0, 0);
+        player.addUnitToBoard(luffy, 1, 0);
+
+        player.refreshShop();
+        player.buyUnit(0); // Third copy combines into a 2-star on the board
+
+        assertEquals(1, player.getBoardUnits().size());
+        assertEquals(2, player.getBoardUnits().get(0).getStarLevel());
+        assertEquals(1, player.getTraitCounter().count("straw_hat"));
+    }
+
+    // ========== INVENTORY TESTS ==========
+
+    @Test
+    void testUpgrade_TakesCellOfBoardCopyAndStopsAtThreeStars() {
+        var units = List.of(TestHelpers.createUnitDef("u1", "TestUnit", 1, 100, 10));
+        var player = createTestPlayer("TestPlayer", TestHelpers.createMockDataLoader(units));
+        player.setLevel(3);
+        player.setGold(1000);
+        player.addUnitToBoard(units.get(0), 4, 1);
+
+        for (var i = 0; i < 8; i++) {
+            player.refreshShop();
+            player.buyUnit(0);
+        }
+
+        assertEquals(1, player.getBoardUnits().size());
+        var upgraded = player.getBoardUnits().get(0);
+        assertEquals(3, upgraded.getStarLevel());
+        assertEquals(4, upgraded.getX());
+        assertEquals(1, upgraded.getY());
+        assertTrue(player.getBench().isEmpty());
+
+        // Two more 3-stars stay 3-stars instead of merging into a 4-star
+        for (var i = 0; i < 18; i++) {
+            player.refreshShop();
+            player.buyUnit(0);
+        }
+        assertEquals(2, player.getBench().size());
+        assertTrue(player.getBench().stream().allMatch(u -> u.getStarLevel() == 3));
+        assertEquals(3, player.getBoardUnits().get(0).getStarLevel());
+    }
+
+    @Test
+    void testMoveUnit_SwapKeepsBenchSlotAndViewsAreReadOnly() {
+        var units = List.of(
+                TestHelpers.createUnitDef("u1", "Unit1", 1, 100, 10),
+                TestHelpers.createUnitDef("u2", "Unit2", 1, 100, 10));
+        var player = createTestPlayer("TestPlayer", TestHelpers.createMockDataLoader(units));
+        player.addUnitToBoard(units.get(0), 2, 2);
+        player.setGold(100);
+        player.getShop().add(units.get(1));
+        player.getShop().add(units.get(1));
+        player.buyUnit(0);
+        player.buyUnit(1);
+        var first = player.getBench().get(0);
+        var second = player.getBench().get(1);
+        var boardUnit = player.getBoardUnits().get(0);
+
+        player.moveUnit(first.getId(), 2, 2);
+
+        assertEquals(List.of(boardUnit, second), player.getBench());
+        assertEquals(List.of(first), player.getBoardUnits());
+        assertThrows(
+                UnsupportedOperationException.class, () -> player.getBench().add(boardUnit));
+    }
+
+    private static UnitDefinition traitUnit(String id, String name, String... traits) {
+        return new UnitDefinition(
+                id,
+                name,
+                1,
+                List.of(100),
+                List.of(100),
+                List.of(10),
+                List.of(0),
+                List.of(0),
+                List.of(0),
+                List.of(1.0f),
+                List.of(1),
+                List.of(traits),
+                null);
+    }
 }
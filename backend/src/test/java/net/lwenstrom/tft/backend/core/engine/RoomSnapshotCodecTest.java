@@ -0,0 +1,80 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static net.lwenstrom.tft.backend.test.TestHelpers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.model.ActionType;
+import net.lwenstrom.tft.backend.core.model.GameAction;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.model.GamePhase;
+import net.lwenstrom.tft.backend.core.random.RoomRandom;
+import net.lwenstrom.tft.backend.test.TestClock;
+import org.junit.jupiter.api.Test;
+
+class RoomSnapshotCodecTest {
+
+    private final DataLoader dataLoader = createCrewDataLoader();
+
+    @Test
+    void testRestoredRoomMatchesAndContinuesLikeTheOriginal() throws IOException {
+        var clock = new TestClock();
+        var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(5));
+        var alice = room.addPlayer("Alice");
+        room.addPlayer("Bob");
+        room.startMatch();
+        room.handleAction(action(ActionType.BUY, alice.getId(), 0));
+        room.handleAction(action(ActionType.BUY, alice.getId(), 1));
+        var unit = alice.getBench().getFirst();
+        room.handleAction(new GameAction(ActionType.MOVE, alice.getId(), unit.getId(), null, 2, 1, null));
+        while (room.getState().round() < 3 || room.getState().phase() != GamePhase.PLANNING) {
+            clock.advance(100);
+            room.tick();
+        }
+        clock.advance(1_000);
+
+        var restored = RoomSnapshotCodec.decode(RoomSnapshotCodec.encode(room), dataLoader, clock);
+
+        assertEquals(summary(room), summary(restored));
+        assertEquals(pool(room), pool(restored));
+        // The phase timer resumes with what was left when the snapshot was taken
+        assertEquals(
+                room.getState().timeRemainingMs() - 1_000, restored.getState().timeRemainingMs());
+        assertEquals(room.getState().hostId(), restored.getState().hostId());
+
+        // Same streams, pool and ids: the two rooms keep going in step
+        for (var i = 0; i < 600; i++) {
+            if (i % 150 == 0) {
+                room.handleAction(action(ActionType.REROLL, alice.getId(), null));
+                restored.handleAction(action(ActionType.REROLL, alice.getId(), null));
+            }
+            clock.advance(100);
+            room.tick();
+            restored.tick();
+        }
+        assertTrue(room.getState().round() > 3);
+        assertEquals(summary(room), summary(restored));
+        assertEquals(pool(room), pool(restored));
+    }
+
+    @Test
+    void testRoomInCombatIsNotEncoded() {
+        var clock = new TestClock();
+        var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(5));
+        room.addPlayer("Alice");
+        room.startMatch();
+        while (room.getState().phase() != GamePhase.COMBAT) {
+            clock.advance(100);
+            room.tick();
+        }
+
+        assertFalse(room.isSnapshottable());
+        assertThrows(IllegalStateException.class, () -> RoomSnapshotCodec.encode(room));
+    }
+
+    private static String pool(GameRoom room) {
+        var pool = room.championPool();
+        return pool.remaining("a") + "," + pool.remaining("b") + "," + pool.remaining("c") + "," + pool.remaining("d");
+    }
+}
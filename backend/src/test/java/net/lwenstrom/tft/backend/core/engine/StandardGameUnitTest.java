@@ -0,0 +1,123 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import net.lwenstrom.tft.backend.core.model.GameItem;
+import net.lwenstrom.tft.backend.core.model.StatLayer;
+import net.lwenstrom.tft.backend.core.model.UnitStat;
+import net.lwenstrom.tft.backend.test.TestHelpers;
+import org.junit.jupiter.api.Test;
+
+class StandardGameUnitTest {
+
+    private record Item(String getId, String getName, String getDescription, Map<String, Integer> getStatBonuses)
+            implements GameItem {}
+
+    @Test
+    void testEquipItem_AddsBonusesThatSurviveRestore() {
+        var unit = new StandardGameUnit(TestHelpers.createUnitDef("u1", "Unit", 1, 500, 50));
+
+        unit.equipItem(new Item("sword", "Sword", "", Map.of("attackDamage", 15, "unknown", 99)));
+        unit.equipItem(new Item("vest", "Vest", "", Map.of("maxHealth", 150, "armor", 20)));
+        unit.savePlanningPosition();
+        unit.restorePlanningPosition();
+
+        assertEquals(65, unit.getAttackDamage());
+        assertEquals(650, unit.getMaxHealth());
+        assertEquals(650, unit.getCurrentHealth());
+        assertEquals(20, unit.getArmor());
+        assertEquals(2, unit.getItems().size());
+    }
+
+    @Test
+    void testTraitLayer_IsReplacedAndDroppedOnRestore() {
+        var unit = new StandardGameUnit(TestHelpers.createUnitDef("u1", "Unit", 1, 500, 50));
+        var deltas = new float[UnitStat.COUNT];
+        deltas[UnitStat.MAX_HEALTH.ordinal()] = 200;
+        deltas[UnitStat.ATTACK_SPEED.ordinal()] = 0.25f;
+
+        unit.savePlanningPosition();
+        unit.setStatLayer(StatLayer.TRAIT, deltas);
+        unit.setStatLayer(StatLayer.TRAIT, deltas);
+
+        assertEquals(700, unit.getMaxHealth(), "Setting a layer twice must not stack it");
+        assertEquals(700, unit.getCurrentHealth());
+        assertEquals(1.25f, unit.getAttackSpeed());
+
+        unit.restorePlanningPosition();
+
+        assertEquals(500, unit.getMaxHealth());
+        assertEquals(500, unit.getCurrentHealth());
+        assertEquals(1.0f, unit.getAttackSpeed());
+    }
+
+    @Test
+    void testSetters_AreRevertedOnRestore() {
+        var unit = new StandardGameUnit(TestHelpers.createUnitDef("u1", "Unit", 1, 500, 50));
+        unit.equipItem(new Item("sword", "Sword", "", Map.of("attackDamage", 10)));
+
+        // What a custom TraitEffect does during combat
+        unit.savePlanningPosition();
+        unit.setAttackDamage(unit.getAttackDamage() + 30);
+        assertEquals(90, unit.getAttackDamage());
+
+        unit.restorePlanningPosition();
+
+        assertEquals(60, unit.getAttackDamage());
+    }
+
+    @Test
+    void testStats_AreSharedPerStarLevelAndCopiedOnWrite() {
+        var def = TestHelpers.createUnitDef("u1", "Unit", 1, 500, 50);
+        var first = new StandardGameUnit(def, 2);
+        var second = new StandardGameUnit(def, 2);
+
+        assertSame(def.stats(2), def.stats(2));
+        assertSame(first.getTraits(), second.getTraits());
+        first.setAttackDamage(99);
+
+        assertEquals(99, first.getAttackDamage());
+        assertEquals(50, second.getAttackDamage(), "Writing one unit's base must not touch the shared row");
+        assertEquals(50, def.stats(2).base(UnitStat.ATTACK_DAMAGE));
+
+        def.stats(2).base()[UnitStat.ATTACK_DAMAGE.ordinal()] = 1;
+        assertEquals(50, def.stats(2).base(UnitStat.ATTACK_DAMAGE), "base() hands out a copy");
+        assertEquals(50, new StandardGameUnit(def, 2).getAttackDamage());
+    }
+
+    @Test
+    void testStats_ClampStarLevelAndDefaultMissingValuesToZero() {
+        var def = new UnitDefinition(
+                "u1",
+                "Unit",
+                1,
+                List.of(100, 200),
+                List.of(),
+                List.of(10),
+                null,
+                List.of(),
+                List.of(),
+                List.of(0.7f),
+                List.of(1),
+                List.of("Fighter"),
+                null);
+
+        assertEquals(200, def.stats(3).maxHealth(), "Levels beyond the list repeat its last value");
+        assertEquals(100, def.stats(0).maxHealth());
+        assertEquals(0, def.stats(1).maxMana());
+        assertEquals(0, def.stats(1).abilityPower());
+        assertEquals(0.7f, def.stats(2).attackSpeed());
+    }
+
+    @Test
+    void testJson_FlyweightsAreNotSerialized() throws Exception {
+        var json = new ObjectMapper().writeValueAsString(TestHelpers.createUnitDef("u1", "Unit", 1, 500, 50));
+
+        assertFalse(json.contains("stars"));
+        assertFalse(json.contains("traitSet"));
+        assertTrue(json.contains("\"maxHealth\":500"), "The shop tooltip still gets 1-star stats");
+    }
+}
@@ -0,0 +1,192 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.lwenstrom.tft.backend.core.model.TraitDefinition;
+import net.lwenstrom.tft.backend.core.model.UnitStat;
+import net.lwenstrom.tft.backend.test.MockUnit;
+import org.junit.jupiter.api.Test;
+
+class TraitManagerTest {
+
+    @Test
+    void testTraitIndex_NormalizesIdsAndIsScopedToTheManager() {
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(List.of(trait("fighter"), strawHat()));
+        var other = new TraitManager();
+        other.registerTraits(List.of(strawHat()));
+
+        assertEquals(traitManager.traitIndex("straw_hat"), traitManager.traitIndex("Straw Hat"));
+        assertNotEquals(traitManager.traitIndex("Straw Hat"), traitManager.traitIndex("Fighter"));
+        assertEquals(-1, traitManager.traitIndex("Swordsman"));
+        assertEquals(0, other.traitIndex("Straw Hat"), "Another catalog version numbers its own traits");
+    }
+
+    @Test
+    void testTraitIndex_HoldsAtMost64TraitsPerManager() {
+        var traits = new ArrayList<TraitDefinition>();
+        for (var i = 0; i < Long.SIZE; i++) traits.add(trait("trait_" + i));
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(traits);
+
+        assertThrows(IllegalStateException.class, () -> traitManager.registerTraits(List.of(trait("one_more"))));
+        // A fresh manager, as compiled for a reload, starts from zero again
+        var reloaded = new TraitManager();
+        reloaded.registerTraits(List.of(trait("renamed")));
+        assertEquals(0, reloaded.traitIndex("renamed"));
+    }
+
+    @Test
+    void testHasTrait_UsesTheUnitsMask() {
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(List.of(trait("fighter"), strawHat(), trait("swordsman")));
+        var def = new UnitDefinition(
+                "luffy",
+                "Luffy",
+                1,
+                List.of(100),
+                List.of(100),
+                List.of(10),
+                List.of(0),
+                List.of(0),
+                List.of(0),
+                List.of(1.0f),
+                List.of(1),
+                List.of("Straw Hat", "Fighter"),
+                null);
+        var unit = new StandardGameUnit(def);
+
+        assertEquals(
+                (1L << traitManager.traitIndex("Fighter")) | (1L << traitManager.traitIndex("Straw Hat")),
+                traitManager.traitMask(unit));
+        assertTrue(traitManager.hasTrait(unit, "Fighter"));
+        assertFalse(traitManager.hasTrait(unit, "Swordsman"));
+        assertFalse(traitManager.hasTrait(unit, "Navigator"));
+    }
+
+    @Test
+    void testApplyTraits_AppliesHighestReachedBreakpoint() {
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(List.of(strawHat()));
+        var luffy = MockUnit.create("luffy", "p1").withHealth(100, 100).withTraits(Set.of("Straw Hat"));
+        var zoro = MockUnit.create("zoro", "p1").withHealth(100, 100).withTraits(Set.of("Straw Hat"));
+        var coby = MockUnit.create("coby", "p1").withHealth(100, 100);
+
+        traitManager.applyTraits(Map.of("straw_hat", 3), List.of(luffy, zoro, coby));
+
+        assertEquals(300, luffy.getMaxHealth(), "3 Straw Hats reach the 2-unit breakpoint only");
+        assertEquals(300, zoro.getCurrentHealth());
+        assertEquals(1.1f, zoro.getAttackSpeed(), 0.0001f);
+        assertEquals(100, coby.getMaxHealth(), "Units without the trait are untouched");
+    }
+
+    @Test
+    void testApplyTraits_BelowFirstBreakpointChangesNothing() {
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(List.of(strawHat()));
+        var luffy = MockUnit.create("luffy", "p1").withHealth(100, 100).withTraits(Set.of("Straw Hat"));
+
+        traitManager.applyTraits(Map.of("straw_hat", 1), List.of(luffy));
+
+        assertEquals(100, luffy.getMaxHealth());
+        assertEquals(1.0f, luffy.getAttackSpeed());
+    }
+
+    @Test
+    void testApplyTraits_CustomEffectTakesPrecedence() {
+        var traitManager = new TraitManager();
+        traitManager.registerTraits(List.of(strawHat()));
+        traitManager.registerEffect("Straw Hat", (count, units) -> units.forEach(u -> u.setMana(count)));
+        var luffy = MockUnit.create("luffy", "p1").withHealth(100, 100).withTraits(Set.of("Straw Hat"));
+
+        traitManager.applyTraits(Map.of("straw_hat", 4), List.of(luffy));
+
+        assertEquals(4, luffy.getMana());
+        assertEquals(100, luffy.getMaxHealth());
+    }
+
+    @Test
+    void testApplyTraits_ManaIsGrantedOncePerCombatAndCapped() {
+        var traitManager = new TraitManager();
+        var navigator = new TraitDefinition(
+                "navigator",
+                "Navigator",
+                "class",
+                "",
+                "#38bdf8",
+                List.of(new TraitDefinition.Breakpoint(1, "", "bronze", Map.of(UnitStat.MANA, 80f))));
+        traitManager.registerTraits(List.of(navigator));
+        var def = new UnitDefinition(
+                "nami",
+                "Nami",
+                1,
+                List.of(100),
+                List.of(100),
+                List.of(10),
+                List.of(0),
+                List.of(0),
+                List.of(0),
+                List.of(1.0f),
+                List.of(1),
+                List.of("Navigator"),
+                null);
+        var nami = new StandardGameUnit(def);
+
+        for (var round = 0; round < 3; round++) {
+            nami.savePlanningPosition();
+            traitManager.applyTraits(Map.of("navigator", 1), List.of(nami));
+            assertEquals(80, nami.getMana(), "The bonus does not pile up over rounds");
+            nami.gainMana(15);
+            nami.restorePlanningPosition();
+            assertEquals(0, nami.getMana());
+        }
+
+        nami.setMana(50);
+        nami.savePlanningPosition();
+        traitManager.applyTraits(Map.of("navigator", 1), List.of(nami));
+        assertEquals(100, nami.getMana(), "Capped at max mana");
+        nami.restorePlanningPosition();
+        assertEquals(50, nami.getMana());
+    }
+
+    @Test
+    void testJson_BreakpointStatsUseUnitFieldNames() throws Exception {
+        var json = """
+                {"id": "fighter", "name": "Fighter", "type": "class", "description": "", "iconColor": "#ef4444",
+                 "effects": [{"minUnits": 4, "description": "", "style": "silver", "stats": {"maxHealth": 350}},
+                             {"minUnits": 2, "description": "", "style": "bronze", "stats": {"maxHealth": 150}}]}
+                """;
+
+        var fighter = new ObjectMapper().readValue(json, TraitDefinition.class);
+        var table = TraitTable.compile(fighter, 0);
+
+        assertEquals(350f, fighter.effects().get(0).stats().get(UnitStat.MAX_HEALTH));
+        assertArrayEquals(new int[] {2, 4}, table.minUnits(), "Breakpoints are sorted by unit count");
+        assertEquals(-1, table.activeRow(1));
+        assertEquals(TraitTable.STATS, table.activeRow(5));
+    }
+
+    private static TraitDefinition trait(String id) {
+        return new TraitDefinition(
+                id, id, "class", "", "#ef4444", List.of(new TraitDefinition.Breakpoint(2, "", "bronze", Map.of())));
+    }
+
+    private static TraitDefinition strawHat() {
+        return new TraitDefinition(
+                "straw_hat",
+                "Straw Hat",
+                "origin",
+                "",
+                "#facc15",
+                List.of(
+                        new TraitDefinition.Breakpoint(
+                                2, "", "bronze", Map.of(UnitStat.MAX_HEALTH, 200f, UnitStat.ATTACK_SPEED, 0.1f)),
+                        new TraitDefinition.Breakpoint(
+                                4, "", "silver", Map.of(UnitStat.MAX_HEALTH, 400f, UnitStat.ATTACK_SPEED, 0.25f))));
+    }
+}
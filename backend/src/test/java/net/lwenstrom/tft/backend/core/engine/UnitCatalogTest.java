@@ -0,0 +1,61 @@
+package net.lwenstrom.tft.backend.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class UnitCatalogTest {
+
+    private static final UnitDefinition LUFFY = unit("luffy", "Luffy", 1, "Straw Hat", "Fighter");
+    private static final UnitDefinition ZORO = unit("zoro", "Zoro", 2, "Straw Hat", "Swordsman");
+    private static final UnitDefinition MIHAWK = unit("mihawk", "Mihawk", 2, "Swordsman");
+
+    @Test
+    void testLookups_UseStableIndexes() {
+        var catalog = new UnitCatalog(List.of(LUFFY, ZORO, MIHAWK));
+
+        assertEquals(3, catalog.size());
+        assertEquals(1, catalog.indexOf("zoro"));
+        assertEquals(-1, catalog.indexOf("nami"));
+        assertSame(ZORO, catalog.get(catalog.indexOf("zoro")));
+        assertSame(MIHAWK, catalog.byId("mihawk"));
+        assertSame(LUFFY, catalog.byName("Luffy"));
+        assertNull(catalog.byName("Nami"));
+    }
+
+    @Test
+    void testGroups_AreBuiltOnceAndReadOnly() {
+        var catalog = new UnitCatalog(List.of(LUFFY, ZORO, MIHAWK));
+
+        assertEquals(List.of(ZORO, MIHAWK), catalog.byCost(2));
+        assertEquals(List.of(), catalog.byCost(5));
+        assertEquals(List.of(LUFFY, ZORO), catalog.byTrait("Straw Hat"));
+        assertEquals(List.of(ZORO, MIHAWK), catalog.byTrait("swordsman"));
+        assertSame(catalog.units(), catalog.units(), "Views are never copied");
+        assertSame(catalog.byTrait("fighter"), catalog.byTrait("Fighter"));
+        assertThrows(UnsupportedOperationException.class, () -> catalog.units().add(LUFFY));
+    }
+
+    @Test
+    void testDuplicateIds_AreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new UnitCatalog(List.of(LUFFY, LUFFY)));
+    }
+
+    private static UnitDefinition unit(String id, String name, int cost, String... traits) {
+        return new UnitDefinition(
+                id,
+                name,
+                cost,
+                List.of(100),
+                List.of(100),
+                List.of(10),
+                List.of(0),
+                List.of(0),
+                List.of(0),
+                List.of(1.0f),
+                List.of(1),
+                List.of(traits),
+                null);
+    }
+}
@@ -0,0 +1,92 @@
+package net.lwenstrom.tft.backend.core.journal;
+
+import static net.lwenstrom.tft.backend.test.TestHelpers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.engine.GameRoom;
+import net.lwenstrom.tft.backend.core.model.ActionType;
+import net.lwenstrom.tft.backend.core.model.GameAction;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.random.RoomRandom;
+import net.lwenstrom.tft.backend.test.TestClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalReplayTest {
+
+    @TempDir
+    Path dir;
+
+    private final DataLoader dataLoader = createCrewDataLoader();
+
+    @Test
+    void testReplayReachesSameState() throws IOException {
+        var file = dir.resolve("room.journal");
+        var clock = new TestClock();
+        clock.setTime(1_000);
+        var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(99));
+        room.setJournal(RoomJournal.create(file, "room", GameMode.ONEPIECE, 99, clock.currentTimeMillis()));
+
+        var alice = room.addPlayer("Alice");
+        var bob = room.addPlayer("Bob");
+        room.startMatch();
+        for (var i = 0; i < 1_500; i++) {
+            if (i % 200 == 0) {
+                room.handleAction(action(ActionType.BUY, alice.getId(), 0));
+                room.handleAction(action(ActionType.REROLL, bob.getId(), null));
+                room.handleAction(action(ActionType.BUY, bob.getId(), 1));
+            }
+            clock.advance(100);
+            room.tick();
+        }
+        room.close();
+
+        var result = new JournalReplayer(dataLoader).replay(file);
+
+        assertFalse(result.truncated());
+        assertEquals(1_500, result.ticks());
+        assertEquals(2 + 1 + 8 * 3, result.inputs());
+        assertTrue(room.getState().round() > 1);
+        assertEquals(summary(room), summary(result.room()));
+        assertEquals(room.getState().timeRemainingMs(), result.room().getState().timeRemainingMs());
+    }
+
+    @Test
+    void testTruncatedJournalReplaysWhatIsComplete() throws IOException {
+        var file = dir.resolve("cut.journal");
+        var clock = new TestClock();
+        var journal = RoomJournal.create(file, "cut", GameMode.ONEPIECE, 1, 0);
+        journal.joined(0, "p1", "Alice");
+        journal.joined(5, "p2", "Bob");
+        journal.close();
+        var bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+        var result = new JournalReplayer(dataLoader).replay(file);
+
+        assertTrue(result.truncated());
+        assertEquals(1, result.inputs());
+        assertNotNull(result.room().getPlayer("p1"));
+        assertNull(result.room().getPlayer("p2"));
+    }
+
+    @Test
+    void testActionRoundTrip() throws IOException {
+        var action = new GameAction(ActionType.MOVE, "p1", "u7", null, 3, -1, null);
+        var bytes = new ByteArrayOutputStream();
+        RoomJournal.writeAction(new DataOutputStream(bytes), action);
+
+        var read = RoomJournal.readAction(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(action, read);
+    }
+}
@@ -0,0 +1,245 @@
+package net.lwenstrom.tft.backend.core.journal;
+
+import static net.lwenstrom.tft.backend.test.TestHelpers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.engine.GameRoom;
+import net.lwenstrom.tft.backend.core.engine.RoomSnapshotCodec;
+import net.lwenstrom.tft.backend.core.model.ActionType;
+import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.model.GamePhase;
+import net.lwenstrom.tft.backend.core.random.RoomRandom;
+import net.lwenstrom.tft.backend.core.time.RecoveredClock;
+import net.lwenstrom.tft.backend.test.TestClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    private final DataLoader dataLoader = createCrewDataLoader();
+
+    @Test
+    void testRecoveredRoomReachesSameState() throws IOException {
+        var clock = new TestClock();
+        clock.setTime(1_000);
+        var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(7));
+        try (var wal = WriteAheadLog.open(dir, 2, 1 << 20)) {
+            room.setWal(wal.open("room", GameMode.ONEPIECE, 7, clock.currentTimeMillis()));
+            play(room, clock, 1_200);
+            wal.commit();
+        }
+
+        try (var wal = WriteAheadLog.open(dir, 2, 1 << 20)) {
+            var tail = wal.recovered().get("room");
+            assertTrue(tail.created());
+            assertFalse(tail.closed());
+            var recoveredClock = new RecoveredClock(clock, tail.createdAt());
+            var recovered =
+                    new GameRoom("room", dataLoader, tail.mode(), recoveredClock, RoomRandom.fromSeed(tail.seed()));
+
+            assertEquals(tail.lastSequence(), tail.replay(recovered, recoveredClock, 0));
+            assertTrue(room.getState().round() > 1);
+            assertEquals(summary(room), summary(recovered));
+            assertEquals(room.getState().timeRemainingMs(), recovered.getState().timeRemainingMs());
+        }
+    }
+
+    @Test
+    void testRecoveryAppliesTailOntoSnapshot() throws IOException {
+        var clock = new TestClock();
+        var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(3));
+        byte[] snapshot;
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 20)) {
+            room.setWal(wal.open("room", GameMode.ONEPIECE, 3, clock.currentTimeMillis()));
+            play(room, clock, 400);
+            while (!room.isSnapshottable()) {
+                clock.advance(100);
+                room.tick();
+            }
+            snapshot = RoomSnapshotCodec.encode(room, wal.sequence("room"));
+            play(room, clock, 700);
+        }
+
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 20)) {
+            var header = RoomSnapshotCodec.header(snapshot);
+            assertTrue(header.sequence() > 0);
+            var recoveredClock = new RecoveredClock(clock, header.capturedAt());
+            var recovered = RoomSnapshotCodec.decode(snapshot, dataLoader, recoveredClock);
+
+            wal.recovered().get("room").replay(recovered, recoveredClock, header.sequence());
+
+            assertEquals(summary(room), summary(recovered));
+            assertEquals(room.getState().timeRemainingMs(), recovered.getState().timeRemainingMs());
+        }
+    }
+
+    @Test
+    void testRecoveryStopsAtTornRecord() throws IOException {
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 16)) {
+            var log = wal.open("room", GameMode.ONEPIECE, 1, 0);
+            log.joined(0, "p1", "Alice");
+            log.joined(5, "p2", "Bob");
+            log.started(10);
+        }
+        // Flip a byte in the payload of the last record, as a crash in the middle of writing its page would
+        var segment = segments().getFirst();
+        try (var channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var bytes = ByteBuffer.allocate((int) channel.size());
+            channel.read(bytes, 0);
+            var end = bytes.capacity();
+            while (bytes.get(end - 1) == 0) end--;
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~bytes.get(end - 1)}), end - 1);
+        }
+
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 16)) {
+            var tail = wal.recovered().get("room");
+
+            assertEquals(2, tail.lastSequence());
+            var clock = new RecoveredClock(new TestClock(), 0);
+            var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(1));
+            tail.replay(room, clock, 0);
+            assertEquals(2, room.getPlayers().size());
+            assertEquals(GamePhase.LOBBY, room.getState().phase());
+        }
+    }
+
+    @Test
+    void testSegmentsCoveredBySnapshotsOrClosedRoomsAreDeleted() throws IOException {
+        try (var wal = WriteAheadLog.open(dir, 1, 4096)) {
+            var kept = wal.open("kept", GameMode.ONEPIECE, 1, 0);
+            var ended = wal.open("ended", GameMode.ONEPIECE, 2, 0);
+            for (var time = 1; time <= 3_000; time++) {
+                kept.tick(time);
+                ended.tick(time);
+            }
+            assertTrue(segments().size() > 2);
+
+            wal.closeRoom("ended", 3_000);
+            wal.snapshotted("kept", kept.sequence());
+
+            // Only the segment still being written is left, and it is enough to recover from
+            assertEquals(1, segments().size());
+            kept.tick(3_001);
+        }
+        try (var wal = WriteAheadLog.open(dir, 1, 4096)) {
+            var tails = wal.recovered();
+            assertTrue(tails.get("ended").closed());
+            assertFalse(tails.get("kept").created());
+            assertEquals(3_001, tails.get("kept").lastSequence());
+        }
+    }
+
+    @Test
+    void testRollGrowsTheSegmentWhenOpenRoomsFillIt() throws IOException {
+        // Each ROOM record is about 250 bytes, so the names of 20 rooms alone exceed a 4096-byte segment
+        var ids = new ArrayList<String>();
+        for (var i = 0; i < 20; i++) ids.add(String.format("%0200d", i));
+        try (var wal = WriteAheadLog.open(dir, 1, 4096)) {
+            var logs = ids.stream()
+                    .map(id -> wal.open(id, GameMode.ONEPIECE, 1, 0))
+                    .toList();
+            for (var time = 1; time <= 200; time++) {
+                for (var log : logs) log.tick(time);
+            }
+            assertEquals(200, wal.sequence(ids.getLast()));
+        }
+        try (var wal = WriteAheadLog.open(dir, 1, 4096)) {
+            var tails = wal.recovered();
+            for (var id : ids) assertEquals(200, tails.get(id).lastSequence());
+        }
+    }
+
+    @Test
+    void testRoomMovedToAnotherShardKeepsItsRecordsFromBoth() throws IOException {
+        try (var wal = WriteAheadLog.open(dir, 2, 1 << 16)) {
+            var log = wal.open("a", GameMode.ONEPIECE, 1, 0); // Shard 1 of 2
+            for (var time = 1; time <= 10; time++) log.tick(time);
+        }
+        // Fewer shards: the room continues in shard 0, which is read before its opening record in shard 1
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 16)) {
+            var log = wal.attach(
+                    "a", GameMode.ONEPIECE, 1, wal.recovered().get("a").lastSequence(), 10);
+            for (var time = 11; time <= 15; time++) log.tick(time);
+        }
+
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 16)) {
+            var tail = wal.recovered().get("a");
+            var clock = new RecoveredClock(new TestClock(), tail.createdAt());
+            var room = new GameRoom("a", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(1));
+
+            assertTrue(tail.created());
+            assertEquals(15, tail.lastSequence());
+            assertEquals(15, tail.replay(room, clock, 0));
+        }
+    }
+
+    @Test
+    void testRecordThatDoesNotEncodeIsDroppedAlone() throws IOException {
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 20)) {
+            var log = wal.open("room", GameMode.ONEPIECE, 1, 0);
+            log.joined(0, "p1", "Alice");
+            log.joined(5, "p2", "x".repeat(70_000)); // Past what writeUTF encodes
+            log.joined(10, "p3", "Bob");
+            assertEquals(2, wal.sequence("room"));
+        }
+
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 20)) {
+            var tail = wal.recovered().get("room");
+            var clock = new RecoveredClock(new TestClock(), 0);
+            var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, clock, RoomRandom.fromSeed(1));
+
+            assertEquals(2, tail.replay(room, clock, 0));
+            assertEquals(2, room.getPlayers().size());
+        }
+    }
+
+    @Test
+    void testRoomWithoutJournalReportsToTheLogAlone() throws IOException {
+        var room = new GameRoom("room", dataLoader, GameMode.ONEPIECE, new TestClock(), RoomRandom.fromSeed(1));
+        try (var wal = WriteAheadLog.open(dir, 1, 1 << 16)) {
+            var log = wal.open("room", GameMode.ONEPIECE, 1, 0);
+            room.setWal(log);
+
+            // Not wrapped with the shared disabled journal, whose lock every room would contend on
+            assertSame(log, ReflectionTestUtils.getField(room, "inputs"));
+        }
+    }
+
+    private static void play(GameRoom room, TestClock clock, int ticks) {
+        if (room.getPlayers().isEmpty()) {
+            room.addPlayer("Alice");
+            room.addPlayer("Bob");
+            room.startMatch();
+        }
+        var players = room.getPlayers().stream().map(p -> p.getId()).sorted().toList();
+        for (var i = 0; i < ticks; i++) {
+            if (i % 150 == 0) {
+                room.handleAction(action(ActionType.BUY, players.getFirst(), 0));
+                room.handleAction(action(ActionType.REROLL, players.getLast(), null));
+                room.handleAction(action(ActionType.BUY, players.getLast(), 2));
+            }
+            clock.advance(100);
+            room.tick();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(f -> f.toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+}
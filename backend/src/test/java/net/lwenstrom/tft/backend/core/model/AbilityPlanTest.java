@@ -0,0 +1,92 @@
+package net.lwenstrom.tft.backend.core.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AbilityPlanTest {
+
+    @Test
+    void testCompile_ResolvesValuesPerStarLevel() {
+        var ability = new AbilityDefinition(
+                "Gomu Gomu", "", AbilityType.BUFF_ATK, "LINE", List.of(2, 3), List.of(10, 20, 40), null);
+
+        assertEquals(10, ability.plan(1).value());
+        assertEquals(40, ability.plan(3).value());
+        assertEquals(3, ability.plan(2).range());
+        assertEquals(3, ability.plan(3).range(), "Missing ranges fall back to the last one");
+        assertEquals(1.2f, ability.plan(2).buffMultiplier(), 0.0001f);
+        assertEquals(AbilityPattern.LINE, ability.plan(1).pattern());
+        assertSame(ability.plan(3), ability.plan(7), "Star levels beyond 3 use the 3-star plan");
+    }
+
+    @Test
+    void testCompile_DropsModifiersWithoutValuesAndKeepsOrder() {
+        var ability = new AbilityDefinition(
+                "Shishi Sonson",
+                "",
+                AbilityType.DAMAGE,
+                null,
+                null,
+                List.of(100),
+                List.of(
+                        new ScalingModifier(ScalingModifier.ScalingType.CASTER_MISSING_HP, List.of(1.0f)),
+                        new ConditionalModifier(ConditionalModifier.ConditionType.TARGET_STUNNED, List.of()),
+                        new ScalingModifier(ScalingModifier.ScalingType.TARGET_MISSING_HP, List.of(0.5f, 2.0f)),
+                        new ExecuteModifier(List.of(0.5f), List.of()),
+                        new LifestealModifier(List.of(0.25f))));
+
+        var plan = ability.plan(2);
+
+        assertEquals(AbilityPattern.SINGLE, plan.pattern(), "A missing pattern is cast as SINGLE");
+        assertEquals(0, plan.conditions().length);
+        assertEquals(0, plan.executes().length);
+        assertArrayEquals(
+                new AbilityPlan.Scaling[] {
+                    new AbilityPlan.Scaling(ScalingModifier.ScalingType.CASTER_MISSING_HP, 1.0f),
+                    new AbilityPlan.Scaling(ScalingModifier.ScalingType.TARGET_MISSING_HP, 2.0f)
+                },
+                plan.scalings());
+        assertArrayEquals(new float[] {0.25f}, plan.lifesteals());
+        // Caster at half HP (x1.5), target at half HP (x2.0)
+        assertEquals(300, plan.damageAgainst(50, 100, 0, 0, 50, 100));
+
+        // The plan is shared by every unit of the definition; its accessors hand out copies
+        plan.scalings()[0] = null;
+        plan.lifesteals()[0] = 1.0f;
+        assertEquals(300, ability.plan(2).damageAgainst(50, 100, 0, 0, 50, 100));
+        assertEquals(0.25f, ability.plan(2).lifesteal(0));
+    }
+
+    @Test
+    void testDamageAgainst_AppliesExecuteOnScaledDamage() {
+        var scaling = new ScalingModifier(ScalingModifier.ScalingType.TARGET_MAX_HP_PERCENT, List.of(0.1f, 0.2f));
+        var execute = new ExecuteModifier(List.of(0.3f), List.of(1.0f));
+        var ability = new AbilityDefinition(
+                "Demon Slash", "", AbilityType.DAMAGE, "SINGLE", null, List.of(60, 90), List.of(scaling, execute));
+
+        // 90 * (1 + 200/100) = 270, a target at 25% HP takes the execute bonus on top
+        assertEquals(540, ability.plan(2).damageAgainst(500, 500, 0, 50, 250, 1000));
+        assertEquals(270, ability.plan(2).damageAgainst(500, 500, 0, 50, 900, 1000));
+    }
+
+    @Test
+    void testJson_PlansAreDerivedAndNotSerialized() throws Exception {
+        var mapper = new ObjectMapper();
+        var json = """
+                {"name": "Thunder", "description": "", "type": "STUN", "pattern": "SURROUND",
+                 "range": [1], "values": [2, 3, 4],
+                 "modifiers": [{"type": "CONDITIONAL", "conditionType": "CASTER_FULL_MANA", "threshold": [1.0]}]}
+                """;
+
+        var ability = mapper.readValue(json, AbilityDefinition.class);
+
+        assertEquals(3, ability.plans().size());
+        assertEquals(4, ability.plan(3).value());
+        assertEquals(1, ability.plan(1).conditions().length);
+        assertFalse(mapper.writeValueAsString(ability).contains("plans"));
+        assertEquals(ability, mapper.readValue(mapper.writeValueAsString(ability), AbilityDefinition.class));
+    }
+}
@@ -0,0 +1,45 @@
+package net.lwenstrom.tft.backend.core.random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class RoomRandomTest {
+
+    @Test
+    void testSameSeedGivesSameStreams() {
+        var a = RoomRandom.fromSeed(42);
+        var b = RoomRandom.fromSeed(42);
+
+        assertEquals(draws(a.shop()), draws(b.shop()));
+        assertEquals(draws(a.loot()), draws(b.loot()));
+        assertEquals(draws(a.matchmaking()), draws(b.matchmaking()));
+    }
+
+    @Test
+    void testSubsystemsDoNotShareDraws() {
+        var a = RoomRandom.fromSeed(42);
+        var b = RoomRandom.fromSeed(42);
+        draws(a.loot()); // Extra loot draws in one room must not shift its shop stream
+
+        assertEquals(draws(a.shop()), draws(b.shop()));
+        assertNotEquals(draws(b.shop()), draws(b.loot()));
+    }
+
+    @Test
+    void testShuffleIsReproducible() {
+        var first = new ArrayList<>(IntStream.range(0, 20).boxed().toList());
+        var second = new ArrayList<>(first);
+        RoomRandom.fromSeed(7).matchmaking().shuffle(first);
+        RoomRandom.fromSeed(7).matchmaking().shuffle(second);
+
+        assertEquals(first, second);
+    }
+
+    private static List<Integer> draws(RandomProvider random) {
+        return IntStream.range(0, 16).map(i -> random.nextInt(1000)).boxed().toList();
+    }
+}
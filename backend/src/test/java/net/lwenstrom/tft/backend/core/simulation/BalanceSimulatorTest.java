@@ -0,0 +1,72 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
+import net.lwenstrom.tft.backend.core.simulation.BalanceSimulationConfig.CompositionMode;
+import net.lwenstrom.tft.backend.test.TestHelpers;
+import org.junit.jupiter.api.Test;
+
+class BalanceSimulatorTest {
+
+    private static List<UnitDefinition> catalog() {
+        return List.of(
+                TestHelpers.createUnitDef("tank", "Tank", 1, 400, 20),
+                TestHelpers.createUnitDef("bruiser", "Bruiser", 2, 250, 40),
+                TestHelpers.createUnitDef("glass", "Glass", 3, 120, 80),
+                TestHelpers.createUnitDef("weak", "Weak", 1, 80, 5));
+    }
+
+    @Test
+    void testRun_SameSeedIsReproducibleAcrossParallelism() {
+        var simulator = new BalanceSimulator(catalog(), null);
+
+        var serial = simulator.run(new BalanceSimulationConfig(7L, 200, 2, CompositionMode.RANDOM, 1, 0, false));
+        var parallel = simulator.run(new BalanceSimulationConfig(7L, 200, 2, CompositionMode.RANDOM, 4, 0, false));
+
+        assertEquals(200, serial.fights());
+        assertEquals(serial.draws(), parallel.draws());
+        assertEquals(serial.unitStats(), parallel.unitStats(), "Unit stats must not depend on parallelism");
+        assertEquals(serial.traitStats(), parallel.traitStats());
+    }
+
+    @Test
+    void testRun_BatchKernelMatchesCombatSystem() {
+        var simulator = new BalanceSimulator(catalog(), null);
+
+        var scalar = simulator.run(new BalanceSimulationConfig(11L, 300, 3, CompositionMode.RANDOM, 2, 0, false));
+        var batched = simulator.run(new BalanceSimulationConfig(11L, 300, 3, CompositionMode.RANDOM, 2, 0, true));
+
+        assertEquals(scalar.draws(), batched.draws());
+        assertEquals(scalar.unitStats(), batched.unitStats());
+        assertEquals(scalar.traitStats(), batched.traitStats());
+    }
+
+    @Test
+    void testRun_EnumeratedCoversEveryUnit() {
+        var simulator = new BalanceSimulator(catalog(), null);
+
+        // 4 units choose 1 = 4 compositions -> 16 ordered matchups
+        var report = simulator.run(BalanceSimulationConfig.enumerated(1L, 16, 1));
+
+        assertEquals(4, report.unitStats().size());
+        report.unitStats().values().forEach(stats -> assertEquals(8, stats.fights(), "Each unit fights 8 times"));
+        assertTrue(report.unitStats().get("tank").winRate()
+                > report.unitStats().get("weak").winRate());
+    }
+
+    @Test
+    void testRun_WinsAndDamageAreTracked() {
+        var simulator = new BalanceSimulator(catalog(), null);
+
+        var report = simulator.run(BalanceSimulationConfig.random(3L, 100, 2));
+
+        var totalWins = report.unitStats().values().stream()
+                .mapToLong(BalanceReport.Stats::wins)
+                .sum();
+        assertEquals((report.fights() - report.draws()) * 2, totalWins, "Each decided fight credits two winners");
+        assertTrue(report.unitStats().values().stream().allMatch(s -> s.damage() >= 0));
+        assertTrue(report.fightsPerSecond() > 0);
+    }
+}
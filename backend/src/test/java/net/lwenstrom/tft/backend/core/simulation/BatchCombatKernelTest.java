@@ -0,0 +1,242 @@
+package net.lwenstrom.tft.backend.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.lwenstrom.tft.backend.core.engine.Grid;
+import net.lwenstrom.tft.backend.core.engine.Player;
+import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
+import net.lwenstrom.tft.backend.core.model.AbilityDefinition;
+import net.lwenstrom.tft.backend.core.model.AbilityModifier;
+import net.lwenstrom.tft.backend.core.model.AbilityType;
+import net.lwenstrom.tft.backend.core.model.ConditionalModifier;
+import net.lwenstrom.tft.backend.core.model.ExecuteModifier;
+import net.lwenstrom.tft.backend.core.model.LifestealModifier;
+import net.lwenstrom.tft.backend.core.model.ScalingModifier;
+import net.lwenstrom.tft.backend.core.model.StackRule;
+import net.lwenstrom.tft.backend.core.time.SimulatedClock;
+import net.lwenstrom.tft.backend.test.TestHelpers;
+import org.junit.jupiter.api.Test;
+
+class BatchCombatKernelTest {
+
+    private static final int FIGHTS = 203; // deliberately not a multiple of any vector length
+    private static final int TICK_MS = 100;
+    private static final int MAX_COMBAT_MS = 30_000;
+
+    private static final List<UnitDefinition> CORPUS = List.of(
+            unit("brawler", 650, 0, 55, 0.8f, 1, null),
+            unit("archer", 420, 0, 45, 1.2f, 3, null),
+            unit("slasher", 500, 30, 40, 1.0f, 1, ability(AbilityType.DAMAGE, "SINGLE", 1, 120)),
+            unit("lancer", 480, 40, 35, 0.9f, 2, ability(AbilityType.DAMAGE, "LINE", 3, 90)),
+            unit("bomber", 460, 50, 30, 0.7f, 1, ability(AbilityType.DAMAGE, "SURROUND", 1, 80)),
+            unit("stunner", 520, 40, 30, 0.85f, 1, ability(AbilityType.STUN, "SINGLE", 1, 3)),
+            unit("quaker", 600, 60, 25, 0.6f, 1, ability(AbilityType.STUN, "SURROUND", 2, 2)),
+            unit(
+                    "freezer",
+                    480,
+                    30,
+                    30,
+                    0.9f,
+                    2,
+                    new AbilityDefinition(
+                            "Freeze",
+                            "",
+                            AbilityType.STUN,
+                            "LINE",
+                            List.of(2),
+                            List.of(0),
+                            List.of(),
+                            List.of(250, 350, 450),
+                            StackRule.REFRESH)),
+            unit("medic", 380, 30, 20, 1.1f, 2, ability(AbilityType.HEAL, "SINGLE", 1, 70)),
+            unit("chanter", 400, 50, 20, 0.75f, 2, ability(AbilityType.HEAL, "SURROUND", 2, 45)),
+            unit("glutton", 700, 40, 30, 0.65f, 1, ability(AbilityType.HEAL, "SELF", 1, 120)),
+            unit("captain", 550, 40, 40, 0.9f, 1, ability(AbilityType.BUFF_ATK, "SELF", 1, 25)),
+            unit("drummer", 450, 30, 25, 1.3f, 2, ability(AbilityType.BUFF_SPD, "SELF", 1, 30)),
+            unit(
+                    "berserker",
+                    560,
+                    40,
+                    35,
+                    1.0f,
+                    1,
+                    ability(
+                            AbilityType.DAMAGE,
+                            "SINGLE",
+                            1,
+                            70,
+                            new ScalingModifier(ScalingModifier.ScalingType.CASTER_MISSING_HP, List.of(1.5f)),
+                            new LifestealModifier(List.of(0.5f)))),
+            unit(
+                    "finisher",
+                    470,
+                    30,
+                    40,
+                    1.1f,
+                    2,
+                    ability(
+                            AbilityType.DAMAGE,
+                            "LINE",
+                            2,
+                            60,
+                            new ConditionalModifier(ConditionalModifier.ConditionType.TARGET_HP_BELOW, List.of(0.8f)),
+                            new ExecuteModifier(List.of(0.3f), List.of(1.0f)))),
+            unit(
+                    "opportunist",
+                    500,
+                    20,
+                    30,
+                    0.9f,
+                    1,
+                    ability(
+                            AbilityType.DAMAGE,
+                            "SINGLE",
+                            1,
+                            50,
+                            new ConditionalModifier(ConditionalModifier.ConditionType.TARGET_STUNNED, List.of(1.0f)),
+                            new ScalingModifier(ScalingModifier.ScalingType.TARGET_MAX_HP_PERCENT, List.of(0.2f)))));
+
+    @Test
+    void testScalarKernel_AgreesWithCombatSystem() {
+        assertAgreesWithCombatSystem(new ScalarBatchCombatKernel());
+    }
+
+    @Test
+    void testVectorKernel_AgreesWithCombatSystem() {
+        assertAgreesWithCombatSystem(new VectorBatchCombatKernel());
+    }
+
+    @Test
+    void testCreate_UsesVectorKernelWhenModuleIsPresent() {
+        // Surefire runs with --add-modules jdk.incubator.vector
+        assertInstanceOf(VectorBatchCombatKernel.class, BatchCombatKernel.create());
+    }
+
+    @Test
+    void testSupports_RejectsFreeForAlls() {
+        var plain = player("p2", List.of(CORPUS.get(0)), new Random(2));
+
+        assertTrue(CombatBatch.supports(List.of(plain, plain)));
+        assertFalse(CombatBatch.supports(List.of(plain)));
+        assertFalse(CombatBatch.supports(List.of(plain, plain, plain)));
+    }
+
+    private static void assertAgreesWithCombatSystem(BatchCombatKernel kernel) {
+        var batch = kernel.newBatch(FIGHTS);
+        var placement = TestHelpers.createTestCombatSystem(new SimulatedClock());
+        var fights = new ArrayList<List<Player>>();
+        for (var seed = 0; seed < FIGHTS; seed++) {
+            var participants = fight(seed);
+            placement.startCombat(participants);
+            batch.load(seed, participants);
+            fights.add(participants);
+        }
+
+        kernel.run(batch, TICK_MS, MAX_COMBAT_MS);
+
+        for (var seed = 0; seed < FIGHTS; seed++) {
+            var reference = fight(seed);
+            var clock = new SimulatedClock();
+            var combatSystem = TestHelpers.createTestCombatSystem(clock);
+            var combat = combatSystem.startCombat(reference);
+            String winnerId = null;
+            while (clock.currentTimeMillis() <= MAX_COMBAT_MS) {
+                var result = combatSystem.simulateTick(combat);
+                if (result.ended()) {
+                    winnerId = result.winnerId();
+                    break;
+                }
+                clock.advance(TICK_MS);
+            }
+
+            var winnerSide = batch.winnerSide(seed);
+            assertEquals(
+                    winnerId,
+                    winnerSide == CombatBatch.NO_WINNER
+                            ? null
+                            : fights.get(seed).get(winnerSide).getId(),
+                    "Winner of fight " + seed);
+            assertEquals(clock.currentTimeMillis(), batch.endTimeMs(seed), "End time of fight " + seed);
+
+            var damageLog = combat.getDamageLog();
+            for (var side = 0; side < 2; side++) {
+                var board = reference.get(side).getBoardUnits();
+                for (var k = 0; k < board.size(); k++) {
+                    var entry = damageLog.get(board.get(k).getId());
+                    assertEquals(
+                            entry != null ? entry.damage() : 0,
+                            batch.damage(seed, side, k),
+                            "Damage of " + board.get(k).getName() + " in fight " + seed);
+                }
+            }
+        }
+    }
+
+    // Same seed always yields the same boards, so the reference and the batch fight identical copies
+    private static List<Player> fight(long seed) {
+        var random = new Random(seed);
+        return List.of(player("p1", team(random), random), player("p2", team(random), random));
+    }
+
+    private static List<UnitDefinition> team(Random random) {
+        var size = 1 + random.nextInt(CombatBatch.UNITS_PER_SIDE);
+        var team = new ArrayList<UnitDefinition>();
+        for (var i = 0; i < size; i++) {
+            team.add(CORPUS.get(random.nextInt(CORPUS.size())));
+        }
+        return team;
+    }
+
+    private static Player player(String id, List<UnitDefinition> team, Random random) {
+        var player = new Player(id, id, null, TestHelpers.createSeededRandomProvider());
+        player.setLevel(team.size());
+        var cells = new ArrayList<Integer>();
+        for (var cell = 0; cell < Grid.COLS * Grid.PLAYER_ROWS; cell++) {
+            cells.add(cell);
+        }
+        for (var def : team) {
+            var cell = cells.remove(random.nextInt(cells.size()));
+            player.addUnitToBoard(def, cell % Grid.COLS, cell / Grid.COLS);
+        }
+        return player;
+    }
+
+    private static AbilityDefinition ability(
+            AbilityType type, String pattern, int range, int value, AbilityModifier... modifiers) {
+        return new AbilityDefinition(
+                type.name(),
+                "",
+                type,
+                pattern,
+                List.of(range),
+                List.of(value, value * 2, value * 3),
+                List.of(modifiers));
+    }
+
+    private static UnitDefinition unit(
+            String id,
+            int health,
+            int maxMana,
+            int attackDamage,
+            float attackSpeed,
+            int range,
+            AbilityDefinition ability) {
+        return new UnitDefinition(
+                id,
+                id,
+                1,
+                List.of(health),
+                List.of(maxMana),
+                List.of(attackDamage),
+                List.of(0),
+                List.of(0),
+                List.of(0),
+                List.of(attackSpeed),
+                List.of(range),
+                List.of(),
+                ability);
+    }
+}
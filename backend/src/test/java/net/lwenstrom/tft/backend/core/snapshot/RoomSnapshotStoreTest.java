@@ -0,0 +1,73 @@
+package net.lwenstrom.tft.backend.core.snapshot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoomSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testLatestSnapshotSurvivesRestart() throws IOException {
+        var store = new RoomSnapshotStore(dir);
+        store.save("a", new byte[] {1, 2, 3});
+        store.save("a", new byte[] {4, 5});
+        store.save("b", new byte[] {6});
+        store.close();
+
+        var loaded = new RoomSnapshotStore(dir).loadAll();
+
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.stream().anyMatch(bytes -> bytes.length == 2 && bytes[0] == 4));
+        assertTrue(loaded.stream().anyMatch(bytes -> bytes.length == 1 && bytes[0] == 6));
+    }
+
+    @Test
+    void testCorruptSnapshotIsSkipped() throws IOException {
+        var store = new RoomSnapshotStore(dir);
+        store.save("a", new byte[] {1, 2, 3});
+        store.save("b", new byte[] {4, 5, 6});
+        store.close();
+        var file = dir.resolve("b.snap");
+        var bytes = Files.readAllBytes(file);
+        bytes[1] ^= 1;
+        Files.write(file, bytes);
+
+        var loaded = new RoomSnapshotStore(dir).loadAll();
+
+        assertEquals(1, loaded.size());
+        assertArrayEquals(new byte[] {1, 2, 3}, loaded.getFirst());
+    }
+
+    @Test
+    void testDeletedRoomIsNotRestored() throws IOException {
+        var store = new RoomSnapshotStore(dir);
+        store.save("a", new byte[] {1});
+        store.delete("a");
+        store.close();
+
+        assertTrue(new RoomSnapshotStore(dir).loadAll().isEmpty());
+    }
+
+    @Test
+    void testRoomIdsThatDifferOnlyInUnsafeCharactersKeepTheirOwnFiles() throws IOException {
+        var store = new RoomSnapshotStore(dir);
+        store.save("a/b", new byte[] {1});
+        store.save("a_b", new byte[] {2});
+        store.save("a.b", new byte[] {3});
+        store.delete("a_b");
+        store.close();
+
+        var loaded = new RoomSnapshotStore(dir).loadAll();
+
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.stream().anyMatch(bytes -> bytes[0] == 1));
+        assertTrue(loaded.stream().anyMatch(bytes -> bytes[0] == 3));
+    }
+}
@@ -3,11 +3,14 @@ package net.lwenstrom.tft.backend.engine;
 import static net.lwenstrom.tft.backend.test.TestHelpers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.util.Collection;
 import java.util.List;
+import net.lwenstrom.tft.backend.core.CatalogSnapshot;
 import net.lwenstrom.tft.backend.core.DataLoader;
+import net.lwenstrom.tft.backend.core.engine.CombatContext;
+import net.lwenstrom.tft.backend.core.engine.CombatSystem;
 import net.lwenstrom.tft.backend.core.engine.GameRoom;
 import net.lwenstrom.tft.backend.core.engine.Player;
+import net.lwenstrom.tft.backend.core.engine.UnitCatalog;
 import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
 import net.lwenstrom.tft.backend.core.model.GamePhase;
 import org.junit.jupiter.api.Test;
@@ -44,28 +47,26 @@ public class SimulationTest {
                 new net.lwenstrom.tft.backend.core.GameModeRegistry(List.of(provider), "onepiece");
 
         // Mock DataLoader
-        DataLoader dataLoader = new DataLoader(registry) {
+        DataLoader dataLoader = new DataLoader(registry, "") {
             @Override
-            public List<UnitDefinition> getAllUnits() {
-                return List.of(new UnitDefinition(
-                        "0",
-                        "TestUnit",
+            public CatalogSnapshot getSnapshot(net.lwenstrom.tft.backend.core.model.GameMode mode) {
+                return new CatalogSnapshot(
                         1,
-                        List.of(100, 100, 100),
-                        List.of(50, 50, 50),
-                        List.of(50, 50, 50),
-                        List.of(0, 0, 0),
-                        List.of(10, 10, 10),
-                        List.of(10, 10, 10),
-                        List.of(1.0f, 1.0f, 1.0f),
-                        List.of(1, 1, 1),
-                        List.of("Trait"),
-                        null));
-            }
-
-            @Override
-            public UnitDefinition getUnitDefinition(String id) {
-                return getAllUnits().get(0);
+                        new UnitCatalog(List.of(new UnitDefinition(
+                                "0",
+                                "TestUnit",
+                                1,
+                                List.of(100, 100, 100),
+                                List.of(50, 50, 50),
+                                List.of(50, 50, 50),
+                                List.of(0, 0, 0),
+                                List.of(10, 10, 10),
+                                List.of(10, 10, 10),
+                                List.of(1.0f, 1.0f, 1.0f),
+                                List.of(1, 1, 1),
+                                List.of("Trait"),
+                                null))),
+                        List.of());
             }
 
             @Override
@@ -140,28 +141,26 @@ public class SimulationTest {
         net.lwenstrom.tft.backend.core.GameModeRegistry registry =
                 new net.lwenstrom.tft.backend.core.GameModeRegistry(List.of(provider), "onepiece");
 
-        DataLoader dataLoader = new DataLoader(registry) {
+        DataLoader dataLoader = new DataLoader(registry, "") {
             @Override
-            public List<UnitDefinition> getAllUnits() {
-                return List.of(new UnitDefinition(
-                        "0",
-                        "TestUnit",
+            public CatalogSnapshot getSnapshot(net.lwenstrom.tft.backend.core.model.GameMode mode) {
+                return new CatalogSnapshot(
                         1,
-                        List.of(100, 100, 100),
-                        List.of(50, 50, 50),
-                        List.of(50, 50, 50),
-                        List.of(0, 0, 0),
-                        List.of(10, 10, 10),
-                        List.of(10, 10, 10),
-                        List.of(1.0f, 1.0f, 1.0f),
-                        List.of(1, 1, 1),
-                        List.of("Trait"),
-                        null));
-            }
-
-            @Override
-            public UnitDefinition getUnitDefinition(String id) {
-                return getAllUnits().get(0);
+                        new UnitCatalog(List.of(new UnitDefinition(
+                                "0",
+                                "TestUnit",
+                                1,
+                                List.of(100, 100, 100),
+                                List.of(50, 50, 50),
+                                List.of(50, 50, 50),
+                                List.of(0, 0, 0),
+                                List.of(10, 10, 10),
+                                List.of(10, 10, 10),
+                                List.of(1.0f, 1.0f, 1.0f),
+                                List.of(1, 1, 1),
+                                List.of("Trait"),
+                                null))),
+                        List.of());
             }
 
             @Override
@@ -199,20 +198,15 @@ public class SimulationTest {
             phaseField.setAccessible(true);
             phaseField.set(room, GamePhase.COMBAT);
 
-            java.lang.reflect.Field activeCombatsField = GameRoom.class.getDeclaredField("activeCombats");
-            activeCombatsField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            List<List<Player>> activeCombats = (List<List<Player>>) activeCombatsField.get(room);
-            activeCombats.add(List.of(p1, p2));
-
             java.lang.reflect.Field combatSystemField = GameRoom.class.getDeclaredField("combatSystem");
             combatSystemField.setAccessible(true);
-            Object combatSystem = combatSystemField.get(room);
+            var combatSystem = (CombatSystem) combatSystemField.get(room);
 
-            java.lang.reflect.Method startCombatMethod =
-                    combatSystem.getClass().getDeclaredMethod("startCombat", Collection.class);
-            startCombatMethod.setAccessible(true);
-            startCombatMethod.invoke(combatSystem, List.of(p1, p2));
+            java.lang.reflect.Field activeCombatsField = GameRoom.class.getDeclaredField("activeCombats");
+            activeCombatsField.setAccessible(true);
+            @SuppressWarnings("unchecked")
+            List<CombatContext> activeCombats = (List<CombatContext>) activeCombatsField.get(room);
+            activeCombats.add(combatSystem.startCombat(List.of(p1, p2)));
 
             // MANUALLY move them close for attack
             u1.setPosition(3, 3);
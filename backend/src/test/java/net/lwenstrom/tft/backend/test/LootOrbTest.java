@@ -3,9 +3,12 @@ package net.lwenstrom.tft.backend.test;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import net.lwenstrom.tft.backend.core.CatalogSnapshot;
 import net.lwenstrom.tft.backend.core.DataLoader;
 import net.lwenstrom.tft.backend.core.engine.Player;
+import net.lwenstrom.tft.backend.core.engine.UnitCatalog;
 import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
 import net.lwenstrom.tft.backend.core.model.LootOrb;
 import net.lwenstrom.tft.backend.core.model.LootType;
@@ -54,7 +57,7 @@ public class LootOrbTest {
                 List.of(1, 1, 1),
                 List.of(),
                 null);
-        when(dataLoader.getAllUnits()).thenReturn(List.of(unitDef));
+        when(dataLoader.getSnapshot()).thenReturn(new CatalogSnapshot(1, new UnitCatalog(List.of(unitDef)), List.of()));
 
         LootOrb unitOrb = new LootOrb("orb-2", 0, 0, LootType.UNIT, "Luffy", 1);
         player.addLootOrb(unitOrb);
@@ -82,12 +85,16 @@ public class LootOrbTest {
                 List.of(1, 1, 1),
                 List.of(),
                 null);
-        when(dataLoader.getAllUnits()).thenReturn(List.of(unitDef));
+        var units = new ArrayList<UnitDefinition>(List.of(unitDef));
+        for (int i = 0; i < 9; i++) {
+            units.add(TestHelpers.createUnitDef("filler-" + i, "Filler" + i, 1, 100, 10));
+        }
+        when(dataLoader.getSnapshot()).thenReturn(new CatalogSnapshot(1, new UnitCatalog(units), List.of()));
 
-        // Fill bench (assuming max size 9)
+        // Fill bench (assuming max size 9) with distinct units so nothing merges
         for (int i = 0; i < 9; i++) {
-            // Manually add units to fill bench
-            player.getBench().add(mock(net.lwenstrom.tft.backend.core.model.GameUnit.class));
+            player.addLootOrb(new LootOrb("filler-orb-" + i, 0, 0, LootType.UNIT, "Filler" + i, 1));
+            player.collectOrb("filler-orb-" + i);
         }
 
         int initialGold = player.getGold();
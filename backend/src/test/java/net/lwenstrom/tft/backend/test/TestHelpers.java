@@ -1,6 +1,8 @@
 package net.lwenstrom.tft.backend.test;
 
 import java.util.List;
+import java.util.TreeMap;
+import net.lwenstrom.tft.backend.core.CatalogSnapshot;
 import net.lwenstrom.tft.backend.core.DataLoader;
 import net.lwenstrom.tft.backend.core.GameModeProvider;
 import net.lwenstrom.tft.backend.core.GameModeRegistry;
@@ -11,9 +13,13 @@ import net.lwenstrom.tft.backend.core.engine.CombatSystem;
 import net.lwenstrom.tft.backend.core.engine.GameRoom;
 import net.lwenstrom.tft.backend.core.engine.Player;
 import net.lwenstrom.tft.backend.core.engine.TraitManager;
+import net.lwenstrom.tft.backend.core.engine.UnitCatalog;
 import net.lwenstrom.tft.backend.core.engine.UnitDefinition;
 import net.lwenstrom.tft.backend.core.model.AbilityDefinition;
+import net.lwenstrom.tft.backend.core.model.ActionType;
+import net.lwenstrom.tft.backend.core.model.GameAction;
 import net.lwenstrom.tft.backend.core.model.GameMode;
+import net.lwenstrom.tft.backend.core.model.GameUnit;
 import net.lwenstrom.tft.backend.core.random.RandomProvider;
 import net.lwenstrom.tft.backend.core.time.Clock;
 
@@ -52,18 +58,11 @@ public final class TestHelpers {
 
     public static DataLoader createMockDataLoader(List<UnitDefinition> units) {
         var registry = createMockRegistry();
-        return new DataLoader(registry) {
+        var catalog = new UnitCatalog(units);
+        return new DataLoader(registry, "") {
             @Override
-            public List<UnitDefinition> getAllUnits() {
-                return units;
-            }
-
-            @Override
-            public UnitDefinition getUnitDefinition(String id) {
-                return units.stream()
-                        .filter(u -> u.id().equals(id))
-                        .findFirst()
-                        .orElse(units.isEmpty() ? null : units.get(0));
+            public CatalogSnapshot getSnapshot(GameMode mode) {
+                return new CatalogSnapshot(1, catalog, List.of());
             }
 
             @Override
@@ -95,6 +94,15 @@ public final class TestHelpers {
                 id, name, cost, l(health), l(100), l(attackDamage), l(0), l(0), l(0), lf(1.0f), l(1), List.of(), null);
     }
 
+    // Four units over two costs, enough for rooms that buy, reroll and fight over many rounds
+    public static DataLoader createCrewDataLoader() {
+        return createMockDataLoader(List.of(
+                createUnitDef("a", "Luffy", 1, 600, 60),
+                createUnitDef("b", "Zoro", 1, 700, 50),
+                createUnitDef("c", "Nami", 2, 500, 40),
+                createUnitDef("d", "Usopp", 2, 450, 55)));
+    }
+
     public static UnitDefinition createUnitDefWithAbility(
             String id, String name, int cost, int health, int maxMana, AbilityDefinition ability) {
         return new UnitDefinition(
@@ -171,6 +179,35 @@ public final class TestHelpers {
         return new GameRoom("test-room", dataLoader, registry, clock, randomProvider);
     }
 
+    public static GameAction action(ActionType type, String playerId, Integer shopIndex) {
+        return new GameAction(type, playerId, null, null, null, null, shopIndex);
+    }
+
+    // Everything the clients see of a room but the phase timer, keyed by player id so a room and its replayed or
+    // restored copy list their players in the same order
+    public static String summary(GameRoom room) {
+        var state = room.getState();
+        var players = new TreeMap<String, String>();
+        state.players()
+                .forEach((id, p) -> players.put(
+                        id,
+                        p.name() + " " + p.health() + "/" + p.gold() + "/" + p.level() + "/" + p.xp()
+                                + " board=" + units(p.board()) + " bench=" + units(p.bench())
+                                + " shop="
+                                + p.shop().stream()
+                                        .map(d -> d == null ? "-" : d.id())
+                                        .toList()
+                                + " orbs=" + p.lootOrbs()));
+        return state.phase() + " round " + state.round() + " " + players;
+    }
+
+    private static List<String> units(List<GameUnit> units) {
+        return units.stream()
+                .map(u -> u.getId() + ":" + u.getDefinitionId() + "*" + u.getStarLevel() + "@" + u.getX() + ","
+                        + u.getY())
+                .toList();
+    }
+
     public static void fastForwardPhase(GameRoom room) {
         try {
             var field = GameRoom.class.getDeclaredField("phaseEndTime");
@@ -196,9 +233,12 @@ public final class TestHelpers {
         try {
             var field = Player.class.getDeclaredField("boardUnits");
             field.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            var boardUnits = (java.util.List<net.lwenstrom.tft.backend.core.model.GameUnit>) field.get(player);
-            boardUnits.add(unit);
+            var boardUnits = field.get(player);
+            var append = boardUnits
+                    .getClass()
+                    .getDeclaredMethod("append", net.lwenstrom.tft.backend.core.model.GameUnit.class);
+            append.setAccessible(true);
+            append.invoke(boardUnits, unit);
             unit.setOwnerId(player.getId());
         } catch (Exception e) {
             throw new RuntimeException("Failed to add unit to player", e);
@@ -59,7 +59,7 @@ export interface GameUnit {
     ability: AbilityDefinition | null
     activeAbility: string | null
     // Combat status effects
-    stunTicksRemaining: number
+    stunned: boolean
     atkBuff: number  // 1.0 = no buff
     spdBuff: number  // 1.0 = no buff
 }
@@ -87,9 +87,7 @@ export interface UnitDefinition {
 export interface ActiveTrait {
     id: string
     name: string
-    description: string
-    count: number // Number of units contributing
-    activeLevel: number // Which breakpoint is active
+    count: number // Number of unique units contributing
 }
 
 export type LootType = 'GOLD' | 'UNIT'